@@ -0,0 +1,24 @@
+-- Rapport de stockage des contenus de notes (compression au repos).
+-- Exécuter avant et après la migration en arrière-plan pour comparer :
+--   psql -U notes_user -d notes_db -f scripts/content-compression-report.sql
+
+-- Taille de la table notes (heap, TOAST et index)
+SELECT pg_size_pretty(pg_relation_size('notes'))       AS heap,
+       pg_size_pretty(pg_total_relation_size('notes') - pg_relation_size('notes') - pg_indexes_size('notes')) AS toast,
+       pg_size_pretty(pg_indexes_size('notes'))         AS indexes,
+       pg_size_pretty(pg_total_relation_size('notes'))  AS total;
+
+-- Répartition des contenus par mode de stockage
+SELECT CASE WHEN content_compressed IS NOT NULL THEN 'compressed' ELSE 'plain' END AS storage,
+       count(*)                                                                AS notes,
+       pg_size_pretty(sum(coalesce(octet_length(content_md), 0)
+                        + coalesce(octet_length(content_compressed), 0)))      AS stored,
+       pg_size_pretty(sum(coalesce(pg_column_size(content_md), 0)
+                        + coalesce(pg_column_size(content_compressed), 0)))    AS on_disk
+FROM notes
+GROUP BY 1;
+
+-- Notes restant à convertir
+SELECT count(*) AS pending
+FROM notes
+WHERE content_md IS NOT NULL AND octet_length(content_md) > 8192;
@@ -0,0 +1,61 @@
+#!/usr/bin/env sh
+# Compare clés UUIDv4 (gen_random_uuid) et UUIDv7 (uuid_generate_v7, migration V6) à l'insertion.
+#
+# Crée deux tables de la forme de `notes` (clé primaire + index owner_id), y insère ROWS lignes
+# par lots de BATCH (une transaction par lot), puis affiche pour chaque version la durée
+# d'insertion, la taille de la table et des index, et le volume de WAL généré.
+#
+# Prérequis : PostgreSQL de docker/docker-compose.yml démarré, migrations appliquées
+# (l'API a démarré au moins une fois).
+#
+#   ROWS=10000000 BATCH=100000 ./scripts/uuid-key-benchmark.sh
+set -eu
+
+ROWS=${ROWS:-10000000}
+BATCH=${BATCH:-100000}
+CONTAINER=${CONTAINER:-notes-postgres}
+
+psql() {
+  docker exec -i "$CONTAINER" psql -v ON_ERROR_STOP=1 -q -U notes_user -d notes_db "$@"
+}
+
+run() {
+  version=$1
+  generator=$2
+  table=uuid_bench_$version
+
+  psql <<SQL >/dev/null
+DROP TABLE IF EXISTS $table;
+CREATE TABLE $table (
+    id UUID PRIMARY KEY DEFAULT $generator(),
+    owner_id UUID NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_${table}_owner ON $table(owner_id);
+CHECKPOINT;
+SQL
+
+  lsn=$(psql -At -c "SELECT pg_current_wal_lsn()")
+  start=$(date +%s)
+  done_rows=0
+  while [ "$done_rows" -lt "$ROWS" ]; do
+    psql -c "INSERT INTO $table (owner_id, title)
+             SELECT ('00000000-0000-0000-0000-' || lpad((g % 1000)::text, 12, '0'))::uuid, 'note ' || g
+             FROM generate_series(1, $BATCH) g" >/dev/null
+    done_rows=$((done_rows + BATCH))
+  done
+  elapsed=$(( $(date +%s) - start ))
+  [ "$elapsed" -eq 0 ] && elapsed=1
+
+  echo "== UUID$version : $ROWS lignes en ${elapsed}s ($((ROWS / elapsed)) lignes/s)"
+  psql -c "SELECT pg_size_pretty(pg_relation_size('$table')) AS table,
+                  pg_size_pretty(pg_relation_size('${table}_pkey')) AS pkey,
+                  pg_size_pretty(pg_relation_size('idx_${table}_owner')) AS owner_idx,
+                  pg_size_pretty(pg_wal_lsn_diff(pg_current_wal_lsn(), '$lsn')) AS wal"
+}
+
+run v4 gen_random_uuid
+run v7 uuid_generate_v7
+
+psql -c "DROP TABLE uuid_bench_v4, uuid_bench_v7" >/dev/null
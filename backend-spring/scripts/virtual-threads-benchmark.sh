@@ -0,0 +1,65 @@
+#!/usr/bin/env sh
+# Compare threads de plateforme et threads virtuels sur une charge limitée par la latence SQL.
+#
+# Une latence fixe est ajoutée devant PostgreSQL avec toxiproxy, puis l'API est lancée
+# deux fois (NOTES_VIRTUAL_THREADS=false puis true) et chargée avec `hey` sur la recherche
+# de notes. Affiche le débit et le p99 de chaque mode.
+#
+# Prérequis : docker, hey, jq, PostgreSQL de docker/docker-compose.yml démarré,
+# jar construit en Java 21 (mvn -Pjava21 package -DskipTests).
+#
+#   DB_LATENCY_MS=20 CONCURRENCY=400 DURATION=30s ./scripts/virtual-threads-benchmark.sh
+set -eu
+
+DB_LATENCY_MS=${DB_LATENCY_MS:-20}
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30s}
+JAR=${JAR:-$(ls target/notes-api-*.jar | head -n 1)}
+API=http://localhost:8080
+NETWORK=${NETWORK:-docker_notes-network}
+
+cleanup() {
+  [ -n "${APP_PID:-}" ] && kill "$APP_PID" 2>/dev/null || true
+  docker rm -f notes-toxiproxy >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+docker run -d --rm --name notes-toxiproxy --network "$NETWORK" \
+  -p 15432:15432 -p 8474:8474 ghcr.io/shopify/toxiproxy >/dev/null
+sleep 2
+curl -sf -X POST localhost:8474/proxies \
+  -d '{"name":"postgres","listen":"0.0.0.0:15432","upstream":"postgres:5432"}' >/dev/null
+curl -sf -X POST localhost:8474/proxies/postgres/toxics \
+  -d "{\"type\":\"latency\",\"attributes\":{\"latency\":$DB_LATENCY_MS}}" >/dev/null
+
+run() {
+  mode=$1
+  SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:15432/notes_db \
+  SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE=50 \
+  NOTES_VIRTUAL_THREADS=$mode \
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" > "target/benchmark-virtual-$mode.log" 2>&1 &
+  APP_PID=$!
+
+  until curl -sf "$API/actuator/health" >/dev/null; do sleep 1; done
+
+  email="bench-$(date +%s)@example.com"
+  curl -sf -X POST "$API/api/v1/auth/register" -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$email\",\"password\":\"password123\"}" >/dev/null
+  token=$(curl -sf -X POST "$API/api/v1/auth/login" -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$email\",\"password\":\"password123\"}" | jq -r .accessToken)
+
+  report=$(hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer $token" \
+    "$API/api/v1/notes?query=note&page=0&size=20")
+  rps=$(echo "$report" | awk '/Requests\/sec/ {print $2}')
+  p99=$(echo "$report" | awk '/ 99% in/ {print $3 * 1000 " ms"}')
+  pinned=$(grep -c "onPinned\|<== monitors" "target/benchmark-virtual-$mode.log" || true)
+  printf '%-10s %10s req/s   p99 %10s   traces d'\''épinglage : %s\n' "virtual=$mode" "$rps" "$p99" "$pinned"
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+  APP_PID=
+}
+
+echo "Latence SQL ajoutée : ${DB_LATENCY_MS} ms, concurrence : $CONCURRENCY, durée : $DURATION"
+run false
+run true
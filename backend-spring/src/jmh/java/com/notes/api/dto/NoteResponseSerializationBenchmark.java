@@ -0,0 +1,82 @@
+package com.notes.api.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.entity.Note;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON rendering of note responses, with the same ObjectMapper setup as Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteResponseSerializationBenchmark {
+
+    @Param({"256", "8192", "65536"})
+    private int noteSize;
+
+    @Param({"20", "200"})
+    private int noteCount;
+
+    private ObjectMapper objectMapper;
+    private NoteResponse note;
+    private Page<NoteResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<NoteResponse> notes = new ArrayList<>(noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            notes.add(NoteResponse.builder()
+                    .id(UUID.randomUUID().toString())
+                    .ownerId(UUID.randomUUID().toString())
+                    .title("Note " + i)
+                    .contentMd("# Titre\n\n" + "Lorem ipsum dolor sit amet, é à ü. ".repeat(noteSize / 35 + 1))
+                    .visibility(Note.Visibility.PRIVATE)
+                    .tags(Set.of("travail", "idées", "tag-" + i))
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }
+        note = notes.get(0);
+        page = new PageImpl<>(notes, PageRequest.of(0, noteCount), noteCount);
+    }
+
+    @Benchmark
+    public byte[] serializeNote() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(note);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
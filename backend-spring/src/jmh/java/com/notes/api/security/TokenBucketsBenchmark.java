@@ -0,0 +1,62 @@
+package com.notes.api.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate limit check in {@link RateLimitFilter}, under contention.
+ * {@code keys} below {@code maxBuckets} measures hits on live buckets; above,
+ * it adds eviction churn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class TokenBucketsBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int keys;
+
+    private TokenBuckets buckets;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buckets = new TokenBuckets(20, 100, 100_000);
+        ids = new UUID[keys];
+        for (int i = 0; i < keys; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return buckets.tryAcquire(ids[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+
+    /**
+     * Every thread on the same key: the worst case for the compare-and-set loop.
+     */
+    @Benchmark
+    public long tryAcquireSameKey() {
+        return buckets.tryAcquire(ids[0]);
+    }
+}
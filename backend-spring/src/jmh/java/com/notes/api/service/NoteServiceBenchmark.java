@@ -0,0 +1,133 @@
+package com.notes.api.service;
+
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.Tag;
+import com.notes.api.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory part of {@link NoteService#searchNotes}: filtering, merge and sort, mapping.
+ *
+ * The query never matches, so {@code filterNote} scans every body: this is the
+ * worst case for the lower-casing of large notes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteServiceBenchmark {
+
+    private static final String QUERY = "introuvable";
+    private static final String WORDS = "note markdown liste tâche projet réunion idée lien code titre ";
+
+    @Param({"256", "8192", "65536"})
+    private int noteSize;
+
+    @Param({"20", "200"})
+    private int noteCount;
+
+    private NoteService noteService;
+    private List<Note> owned;
+    private List<Note> shared;
+    private List<Note> publicNotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The benchmarked methods do not touch repositories nor publishers
+        noteService = new NoteService(null, null, null, null, null, null, null, null, null);
+
+        Random random = new Random(42);
+        User owner = User.builder().id(UUID.randomUUID()).email("owner@example.com").build();
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tags.add(Tag.builder().id(UUID.randomUUID()).label("tag-" + i).build());
+        }
+
+        List<Note> all = new ArrayList<>();
+        for (int i = 0; i < noteCount; i++) {
+            Set<Tag> noteTags = new HashSet<>();
+            for (int t = 0; t < 3; t++) {
+                noteTags.add(tags.get(random.nextInt(tags.size())));
+            }
+            all.add(Note.builder()
+                    .id(UUID.randomUUID())
+                    .owner(owner)
+                    .title("Note " + i)
+                    .contentMd(body(random))
+                    .visibility(Note.Visibility.values()[i % 3])
+                    .tags(noteTags)
+                    .createdAt(LocalDateTime.now().minusMinutes(random.nextInt(100_000)))
+                    .updatedAt(LocalDateTime.now().minusMinutes(random.nextInt(100_000)))
+                    .build());
+        }
+
+        // Same split as searchNotes, with some notes appearing twice
+        int third = noteCount / 3;
+        owned = all.subList(0, 2 * third);
+        shared = new ArrayList<>(all.subList(third, noteCount));
+        publicNotes = all.subList(2 * third, noteCount);
+    }
+
+    @Benchmark
+    public void filterNote(Blackhole blackhole) {
+        for (Note note : owned) {
+            blackhole.consume(noteService.filterNote(note, QUERY, null));
+        }
+    }
+
+    @Benchmark
+    public void filterByTag(Blackhole blackhole) {
+        for (Note note : owned) {
+            blackhole.consume(noteService.filterByTag(note, "TAG-7"));
+        }
+    }
+
+    @Benchmark
+    public List<NoteResponse> mergeAndSort() {
+        return noteService.mergeAndSort(owned, shared, publicNotes, null, null);
+    }
+
+    @Benchmark
+    public void mapToResponse(Blackhole blackhole) {
+        for (Note note : owned) {
+            blackhole.consume(noteService.mapToResponse(note));
+        }
+    }
+
+    private String body(Random random) {
+        StringBuilder builder = new StringBuilder(noteSize + WORDS.length());
+        while (builder.length() < noteSize) {
+            int start = random.nextInt(WORDS.length() / 2);
+            builder.append(WORDS, start, WORDS.length());
+            if (random.nextInt(8) == 0) {
+                builder.append("\n\n## Section\n\n- [ ] ");
+            }
+        }
+        builder.setLength(noteSize);
+        return builder.toString();
+    }
+}
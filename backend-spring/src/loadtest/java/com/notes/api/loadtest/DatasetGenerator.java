@@ -0,0 +1,332 @@
+package com.notes.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.notes.api.entity.CompressedText;
+import com.notes.api.util.UuidV7;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes a synthetic dataset straight into PostgreSQL.
+ *
+ * Owners, note sizes, tags, words and share recipients all follow Zipf
+ * distributions: a few heavy users and popular tags, many small notes and a
+ * long tail of very large ones. Every generated account uses the same password.
+ * A manifest listing accounts, public tokens, tags and search terms is written
+ * for {@link LoadTestRunner}. Previously generated data is removed first.
+ *
+ * Options: users, notes, tags, zipf-exponent, share-ratio, public-ratio,
+ * min-note-size, max-note-size, compression-threshold, seed, jdbc-url,
+ * jdbc-user, jdbc-password, manifest.
+ */
+class DatasetGenerator {
+
+    static final String EMAIL_PREFIX = "loadtest-";
+    static final String EMAIL_DOMAIN = "@example.com";
+    static final String PASSWORD = "loadtest123";
+    static final String TAG_PREFIX = "lt-";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] BASE_WORDS = {
+            "note", "projet", "réunion", "tâche", "idée", "compte", "rendu", "client", "budget", "planning",
+            "release", "bug", "design", "backend", "frontend", "base", "données", "recette", "voyage", "lecture",
+            "livre", "article", "sprint", "objectif", "décision", "question", "réponse", "brouillon", "todo", "archive"
+    };
+
+    private final int userCount;
+    private final int noteCount;
+    private final int tagCount;
+    private final double exponent;
+    private final double shareRatio;
+    private final double publicRatio;
+    private final int minNoteSize;
+    private final int maxNoteSize;
+    private final int compressionThreshold;
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final File manifestFile;
+    private final Random random;
+
+    private final List<String> vocabulary = new ArrayList<>();
+
+    DatasetGenerator(LoadTestMain.Options options) {
+        this.userCount = options.getInt("users", 1000);
+        this.noteCount = options.getInt("notes", 100_000);
+        this.tagCount = options.getInt("tags", 200);
+        this.exponent = options.getDouble("zipf-exponent", 1.1);
+        this.shareRatio = options.getDouble("share-ratio", 0.15);
+        this.publicRatio = options.getDouble("public-ratio", 0.05);
+        this.minNoteSize = options.getInt("min-note-size", 128);
+        // NoteRequest accepts at most 50000 characters
+        this.maxNoteSize = options.getInt("max-note-size", 48 * 1024);
+        this.compressionThreshold = options.getInt("compression-threshold", 8192);
+        String url = options.get("jdbc-url", envOrDefault("SPRING_DATASOURCE_URL",
+                "jdbc:postgresql://localhost:5432/notes_db"));
+        this.jdbcUrl = url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+        this.jdbcUser = options.get("jdbc-user", envOrDefault("SPRING_DATASOURCE_USERNAME", "notes_user"));
+        this.jdbcPassword = options.get("jdbc-password", envOrDefault("SPRING_DATASOURCE_PASSWORD", "notes_pass"));
+        this.manifestFile = new File(options.get("manifest", "target/loadtest-dataset.json"));
+        this.random = new Random(options.getLong("seed", 42));
+
+        Collections.addAll(vocabulary, BASE_WORDS);
+        for (int i = 0; i < 5000; i++) {
+            vocabulary.add("mot" + i);
+        }
+    }
+
+    void generate() throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword)) {
+            connection.setAutoCommit(false);
+            deletePreviousDataset(connection);
+
+            List<UUID> users = insertUsers(connection);
+            List<UUID> tags = insertTags(connection);
+            List<String> publicTokens = insertNotes(connection, users, tags);
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+
+            writeManifest(publicTokens);
+        }
+        System.out.printf("Jeu de données généré en %d s : %d utilisateurs, %d notes, %d tags -> %s%n",
+                (System.nanoTime() - start) / 1_000_000_000L, userCount, noteCount, tagCount, manifestFile);
+    }
+
+    private void deletePreviousDataset(Connection connection) throws Exception {
+        try (PreparedStatement users = connection.prepareStatement("DELETE FROM users WHERE email LIKE ?");
+             PreparedStatement tags = connection.prepareStatement("DELETE FROM tags WHERE label LIKE ?")) {
+            users.setString(1, EMAIL_PREFIX + "%" + EMAIL_DOMAIN);
+            users.executeUpdate();
+            tags.setString(1, TAG_PREFIX + "%");
+            tags.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    private List<UUID> insertUsers(Connection connection) throws Exception {
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<UUID> users = new ArrayList<>(userCount);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, email, password_hash, created_at) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                UUID id = UuidV7.generate();
+                users.add(id);
+                insert.setObject(1, id);
+                insert.setString(2, email(i));
+                insert.setString(3, passwordHash);
+                insert.setTimestamp(4, randomPastTimestamp());
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return users;
+    }
+
+    private List<UUID> insertTags(Connection connection) throws Exception {
+        List<UUID> tags = new ArrayList<>(tagCount);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tags (id, label) VALUES (?, ?)")) {
+            for (int i = 0; i < tagCount; i++) {
+                UUID id = UuidV7.generate();
+                tags.add(id);
+                insert.setObject(1, id);
+                insert.setString(2, tagLabel(i));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return tags;
+    }
+
+    /**
+     * @return url tokens of the generated public links
+     */
+    private List<String> insertNotes(Connection connection, List<UUID> users, List<UUID> tags) throws Exception {
+        Zipf owners = new Zipf(users.size(), exponent);
+        Zipf recipients = new Zipf(users.size(), exponent);
+        Zipf tagPopularity = new Zipf(tags.size(), exponent);
+        Zipf sizeRanks = new Zipf(Math.max(1, maxNoteSize / minNoteSize), exponent);
+        Zipf words = new Zipf(vocabulary.size(), exponent);
+        Zipf shareFanOut = new Zipf(10, 1.5);
+
+        // Popular recipients are not the most prolific owners
+        List<UUID> recipientOrder = new ArrayList<>(users);
+        Collections.shuffle(recipientOrder, random);
+
+        List<String> publicTokens = new ArrayList<>();
+        try (PreparedStatement note = connection.prepareStatement(
+                     "INSERT INTO notes (id, owner_id, title, content_md, content_compressed, visibility, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement noteTag = connection.prepareStatement(
+                     "INSERT INTO note_tags (note_id, tag_id, owner_id) VALUES (?, ?, ?)");
+             PreparedStatement share = connection.prepareStatement(
+                     "INSERT INTO shares (id, note_id, shared_with_user_id, permission, created_at) VALUES (?, ?, ?, 'READ', ?)");
+             PreparedStatement publicLink = connection.prepareStatement(
+                     "INSERT INTO public_links (id, note_id, url_token, created_at) VALUES (?, ?, ?, ?)")) {
+
+            for (int i = 0; i < noteCount; i++) {
+                UUID noteId = UuidV7.generate();
+                UUID ownerId = users.get(owners.nextIndex(random));
+                double kind = random.nextDouble();
+                String visibility = kind < shareRatio ? "SHARED" : kind < shareRatio + publicRatio ? "PUBLIC" : "PRIVATE";
+
+                // Size rank 1 is the most frequent and the smallest
+                String content = content(sizeRanks.next(random) * minNoteSize, words);
+                Timestamp createdAt = randomPastTimestamp();
+                Timestamp updatedAt = new Timestamp(createdAt.getTime()
+                        + (long) (random.nextDouble() * (System.currentTimeMillis() - createdAt.getTime())));
+
+                note.setObject(1, noteId);
+                note.setObject(2, ownerId);
+                note.setString(3, "Note " + i + " " + vocabulary.get(words.nextIndex(random)));
+                if (content.getBytes(StandardCharsets.UTF_8).length > compressionThreshold) {
+                    note.setString(4, null);
+                    note.setBytes(5, CompressedText.compress(content).toBytes());
+                } else {
+                    note.setString(4, content);
+                    note.setBytes(5, null);
+                }
+                note.setString(6, visibility);
+                note.setTimestamp(7, createdAt);
+                note.setTimestamp(8, updatedAt);
+                note.addBatch();
+
+                Set<UUID> noteTags = new HashSet<>();
+                int tagsPerNote = random.nextInt(5);
+                for (int t = 0; t < tagsPerNote; t++) {
+                    noteTags.add(tags.get(tagPopularity.nextIndex(random)));
+                }
+                for (UUID tagId : noteTags) {
+                    noteTag.setObject(1, noteId);
+                    noteTag.setObject(2, tagId);
+                    noteTag.setObject(3, ownerId);
+                    noteTag.addBatch();
+                }
+
+                if (visibility.equals("SHARED")) {
+                    Set<UUID> sharedWith = new HashSet<>();
+                    int fanOut = shareFanOut.next(random);
+                    for (int s = 0; s < fanOut; s++) {
+                        UUID recipient = recipientOrder.get(recipients.nextIndex(random));
+                        if (!recipient.equals(ownerId)) {
+                            sharedWith.add(recipient);
+                        }
+                    }
+                    for (UUID recipient : sharedWith) {
+                        share.setObject(1, UuidV7.generate());
+                        share.setObject(2, noteId);
+                        share.setObject(3, recipient);
+                        share.setTimestamp(4, updatedAt);
+                        share.addBatch();
+                    }
+                } else if (visibility.equals("PUBLIC")) {
+                    String token = UUID.randomUUID().toString().replace("-", "");
+                    publicTokens.add(token);
+                    publicLink.setObject(1, UuidV7.generate());
+                    publicLink.setObject(2, noteId);
+                    publicLink.setString(3, token);
+                    publicLink.setTimestamp(4, updatedAt);
+                    publicLink.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    flush(note, noteTag, share, publicLink);
+                    connection.commit();
+                    System.out.printf("  %d / %d notes%n", i + 1, noteCount);
+                }
+            }
+            flush(note, noteTag, share, publicLink);
+        }
+        return publicTokens;
+    }
+
+    private void flush(PreparedStatement... statements) throws Exception {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+    }
+
+    private String content(int size, Zipf words) {
+        StringBuilder builder = new StringBuilder(size + 32);
+        builder.append("# ").append(vocabulary.get(words.nextIndex(random))).append("\n\n");
+        int line = 0;
+        while (builder.length() < size) {
+            builder.append(vocabulary.get(words.nextIndex(random)));
+            if (++line % 12 == 0) {
+                builder.append(random.nextInt(6) == 0 ? "\n\n## " : "\n- ");
+            } else {
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
+
+    private Timestamp randomPastTimestamp() {
+        return Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+    }
+
+    private void writeManifest(List<String> publicTokens) throws Exception {
+        List<String> emails = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            emails.add(email(i));
+        }
+        List<String> tagLabels = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            tagLabels.add(tagLabel(i));
+        }
+        // Frequent, average and rare words, so that searches hit very different result sizes
+        List<String> searchTerms = new ArrayList<>();
+        for (int rank : new int[] {0, 1, 5, 20, 100, 500, 2000, 4000}) {
+            searchTerms.add(vocabulary.get(Math.min(rank, vocabulary.size() - 1)));
+        }
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("password", PASSWORD);
+        manifest.put("zipfExponent", exponent);
+        manifest.put("users", emails);
+        manifest.put("tags", tagLabels);
+        manifest.put("searchTerms", searchTerms);
+        manifest.put("publicTokens", publicTokens);
+
+        manifestFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(manifestFile, manifest);
+    }
+
+    static String email(int index) {
+        return EMAIL_PREFIX + index + EMAIL_DOMAIN;
+    }
+
+    private static String tagLabel(int index) {
+        return TAG_PREFIX + index;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
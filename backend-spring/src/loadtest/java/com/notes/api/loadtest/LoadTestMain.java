@@ -0,0 +1,77 @@
+package com.notes.api.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point of the load-test harness.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="generate --users=1000 --notes=100000"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="run --concurrency=100 --duration=120"
+ * </pre>
+ *
+ * See {@link DatasetGenerator} and {@link LoadTestRunner} for the options.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadTestMain generate|run [--option=value ...]");
+            System.exit(2);
+        }
+        Options options = Options.parse(args);
+        switch (args[0]) {
+            case "generate" -> new DatasetGenerator(options).generate();
+            case "run" -> new LoadTestRunner(options).run();
+            default -> {
+                System.err.println("Unknown command: " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /**
+     * {@code --name=value} command line options, falling back to environment variables.
+     */
+    static final class Options {
+
+        private final Map<String, String> values = new HashMap<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Invalid option: " + arg);
+                }
+                int separator = arg.indexOf('=');
+                options.values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            return options;
+        }
+
+        String get(String name, String defaultValue) {
+            String value = values.get(name);
+            if (value == null) {
+                value = System.getenv(name.toUpperCase().replace('-', '_').replace('.', '_'));
+            }
+            return value != null ? value : defaultValue;
+        }
+
+        int getInt(String name, int defaultValue) {
+            return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+        }
+
+        long getLong(String name, long defaultValue) {
+            return Long.parseLong(get(name, String.valueOf(defaultValue)));
+        }
+
+        double getDouble(String name, double defaultValue) {
+            return Double.parseDouble(get(name, String.valueOf(defaultValue)));
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.notes.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs scripted user sessions against a running API and reports latency per endpoint.
+ *
+ * Each virtual user logs in as a generated account (heavy users are picked more
+ * often) and loops over weighted scenarios: list, search, tag filter, read,
+ * edit, share and anonymous public reads. Samples taken during the warm-up are
+ * discarded. The report is printed and written as JSON.
+ *
+ * Options: base-url, concurrency, duration (s), warmup (s), think-time (ms),
+ * mix (e.g. list=30,search=15,tag=10,read=25,edit=10,share=3,public=7),
+ * manifest, report, seed.
+ */
+class LoadTestRunner {
+
+    private static final String DEFAULT_MIX = "list=30,search=15,tag=10,read=25,edit=10,share=3,public=7";
+    private static final int MAX_EDITABLE_LENGTH = 49_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final long durationSeconds;
+    private final long warmupSeconds;
+    private final long thinkTimeMs;
+    private final Map<String, Integer> mix;
+    private final File manifestFile;
+    private final File reportFile;
+    private final long seed;
+
+    private List<String> users;
+    private List<String> tags;
+    private List<String> searchTerms;
+    private List<String> publicTokens;
+    private String password;
+    private Zipf userPopularity;
+    private Zipf tagPopularity;
+
+    LoadTestRunner(LoadTestMain.Options options) {
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        this.concurrency = options.getInt("concurrency", 50);
+        this.durationSeconds = options.getLong("duration", 60);
+        this.warmupSeconds = options.getLong("warmup", 10);
+        this.thinkTimeMs = options.getLong("think-time", 0);
+        this.mix = parseMix(options.get("mix", DEFAULT_MIX));
+        this.manifestFile = new File(options.get("manifest", "target/loadtest-dataset.json"));
+        this.reportFile = new File(options.get("report", "target/loadtest-report.json"));
+        this.seed = options.getLong("seed", 7);
+    }
+
+    void run() throws Exception {
+        JsonNode manifest = objectMapper.readTree(manifestFile);
+        users = strings(manifest.get("users"));
+        tags = strings(manifest.get("tags"));
+        searchTerms = strings(manifest.get("searchTerms"));
+        publicTokens = strings(manifest.get("publicTokens"));
+        password = manifest.get("password").asText();
+        double exponent = manifest.get("zipfExponent").asDouble();
+        userPopularity = new Zipf(users.size(), exponent);
+        tagPopularity = new Zipf(Math.max(1, tags.size()), exponent);
+
+        long now = System.nanoTime();
+        long measureFrom = now + warmupSeconds * 1_000_000_000L;
+        long stopAt = measureFrom + durationSeconds * 1_000_000_000L;
+
+        System.out.printf("%d utilisateurs virtuels, %d s de chauffe, %d s de mesure, mix %s%n",
+                concurrency, warmupSeconds, durationSeconds, mix);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencyRecorder>>> results = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            VirtualUser user = new VirtualUser(new Random(seed + i), measureFrom, stopAt);
+            results.add(executor.submit(user::call));
+        }
+
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        for (Future<Map<String, LatencyRecorder>> result : results) {
+            result.get().forEach((endpoint, recorder) ->
+                    merged.computeIfAbsent(endpoint, e -> new LatencyRecorder()).merge(recorder));
+        }
+        executor.shutdown();
+
+        report(merged);
+    }
+
+    private void report(Map<String, LatencyRecorder> recorders) throws Exception {
+        Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.forEach((endpoint, recorder) -> {
+            summaries.put(endpoint, recorder.summarize(durationSeconds));
+            total.merge(recorder);
+        });
+        summaries.put("TOTAL", total.summarize(durationSeconds));
+
+        System.out.printf("%n%-34s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requêtes", "erreurs", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        summaries.forEach((endpoint, s) -> System.out.printf("%-34s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                endpoint, s.requests(), s.errors(), s.throughput(), s.p50(), s.p90(), s.p99(), s.p999(), s.max()));
+
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("baseUrl", baseUrl);
+        json.put("concurrency", concurrency);
+        json.put("durationSeconds", durationSeconds);
+        json.putPOJO("mix", mix);
+        json.putPOJO("endpoints", summaries);
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, json);
+        System.out.println("\nRapport : " + reportFile);
+    }
+
+    /**
+     * One scripted session, run on its own thread with its own recorders.
+     */
+    private class VirtualUser {
+
+        private final Random random;
+        private final long measureFrom;
+        private final long stopAt;
+        private final Map<String, LatencyRecorder> recorders = new TreeMap<>();
+        private final List<String> scenarios = new ArrayList<>();
+
+        private String token;
+        private String userId;
+        private final List<String> readableNotes = new ArrayList<>();
+        private final List<String> ownedNotes = new ArrayList<>();
+
+        VirtualUser(Random random, long measureFrom, long stopAt) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            mix.forEach((scenario, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    scenarios.add(scenario);
+                }
+            });
+        }
+
+        Map<String, LatencyRecorder> call() throws Exception {
+            login();
+            list("GET /notes", "/api/v1/notes?page=0&size=20");
+            while (System.nanoTime() < stopAt) {
+                switch (scenarios.get(random.nextInt(scenarios.size()))) {
+                    case "list" -> list("GET /notes", "/api/v1/notes?page=" + random.nextInt(3) + "&size=20");
+                    case "search" -> list("GET /notes?query",
+                            "/api/v1/notes?query=" + encode(searchTerms.get(random.nextInt(searchTerms.size()))));
+                    case "tag" -> list("GET /notes?tag",
+                            "/api/v1/notes?tag=" + encode(tags.get(tagPopularity.nextIndex(random))));
+                    case "read" -> read();
+                    case "edit" -> edit();
+                    case "share" -> share();
+                    case "public" -> publicRead();
+                    default -> throw new IllegalArgumentException("Unknown scenario");
+                }
+                if (thinkTimeMs > 0) {
+                    Thread.sleep(thinkTimeMs);
+                }
+            }
+            return recorders;
+        }
+
+        private void login() throws Exception {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("email", users.get(userPopularity.nextIndex(random)));
+            body.put("password", password);
+            HttpResponse<String> response = send("POST /auth/login", request("/api/v1/auth/login")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+            if (response == null || response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed: " + (response == null ? "no response" : response.body()));
+            }
+            JsonNode auth = objectMapper.readTree(response.body());
+            token = auth.get("accessToken").asText();
+            userId = auth.get("user").get("id").asText();
+        }
+
+        private void list(String endpoint, String path) throws Exception {
+            HttpResponse<String> response = send(endpoint, authenticated(path).GET());
+            if (response == null || response.statusCode() != 200) {
+                return;
+            }
+            for (JsonNode note : objectMapper.readTree(response.body()).path("content")) {
+                remember(note);
+            }
+        }
+
+        private void read() throws Exception {
+            if (readableNotes.isEmpty()) {
+                return;
+            }
+            String noteId = readableNotes.get(random.nextInt(readableNotes.size()));
+            send("GET /notes/{id}", authenticated("/api/v1/notes/" + noteId).GET());
+        }
+
+        private void edit() throws Exception {
+            if (ownedNotes.isEmpty()) {
+                return;
+            }
+            String noteId = ownedNotes.get(random.nextInt(ownedNotes.size()));
+            HttpResponse<String> current = send("GET /notes/{id}", authenticated("/api/v1/notes/" + noteId).GET());
+            if (current == null || current.statusCode() != 200) {
+                ownedNotes.remove(noteId);
+                return;
+            }
+            JsonNode note = objectMapper.readTree(current.body());
+            String content = note.get("contentMd").asText();
+            if (content.length() > MAX_EDITABLE_LENGTH) {
+                content = content.substring(0, MAX_EDITABLE_LENGTH - 1000);
+            }
+
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("title", note.get("title").asText());
+            body.put("contentMd", content + "\n- édition " + random.nextInt(1000));
+            body.put("visibility", note.get("visibility").asText());
+            body.set("tags", note.get("tags"));
+            send("PUT /notes/{id}", authenticated("/api/v1/notes/" + noteId)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body.toString())));
+        }
+
+        private void share() throws Exception {
+            if (ownedNotes.isEmpty()) {
+                return;
+            }
+            String noteId = ownedNotes.get(random.nextInt(ownedNotes.size()));
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("email", users.get(random.nextInt(users.size())));
+            send("POST /notes/{id}/share/user", authenticated("/api/v1/notes/" + noteId + "/share/user")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+            // The note is now SHARED and can no longer be edited with its current visibility
+            ownedNotes.remove(noteId);
+        }
+
+        private void publicRead() throws Exception {
+            if (publicTokens.isEmpty()) {
+                return;
+            }
+            String token = publicTokens.get(random.nextInt(publicTokens.size()));
+            send("GET /p/{token}", request("/api/v1/p/" + token).GET());
+        }
+
+        private void remember(JsonNode note) {
+            String noteId = note.get("id").asText();
+            if (readableNotes.size() < 200 && !readableNotes.contains(noteId)) {
+                readableNotes.add(noteId);
+            }
+            boolean editable = userId.equals(note.get("ownerId").asText())
+                    && !"SHARED".equals(note.get("visibility").asText());
+            if (editable && ownedNotes.size() < 50 && !ownedNotes.contains(noteId)) {
+                ownedNotes.add(noteId);
+            }
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        }
+
+        private HttpRequest.Builder authenticated(String path) {
+            return request(path).header("Authorization", "Bearer " + token);
+        }
+
+        /**
+         * @return the response, or null on an I/O error
+         */
+        private HttpResponse<String> send(String endpoint, HttpRequest.Builder builder) throws Exception {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+                record(endpoint, start, response.statusCode() < 400);
+                return response;
+            } catch (IOException ex) {
+                // Connection refused, reset or timed out: counted as an error, the session goes on
+                record(endpoint, start, false);
+                return null;
+            }
+        }
+
+        private void record(String endpoint, long start, boolean success) {
+            long end = System.nanoTime();
+            if (start >= measureFrom && end <= stopAt) {
+                recorders.computeIfAbsent(endpoint, e -> new LatencyRecorder()).record(end - start, success);
+            }
+        }
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.asText()));
+        return values;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
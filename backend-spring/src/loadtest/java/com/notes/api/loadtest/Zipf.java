@@ -0,0 +1,39 @@
+package com.notes.api.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distribution over ranks 1..n: rank k is drawn with a probability proportional to 1 / k^s.
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * @return a rank between 1 and n, 1 being the most frequent
+     */
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1;
+    }
+
+    /**
+     * @return an index between 0 and n - 1, 0 being the most frequent
+     */
+    int nextIndex(Random random) {
+        return Math.min(next(random), cumulative.length) - 1;
+    }
+}
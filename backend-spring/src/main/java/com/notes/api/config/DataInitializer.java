@@ -1,9 +1,11 @@
 package com.notes.api.config;
 
+import com.notes.api.datasource.ShardedQueries;
 import com.notes.api.entity.Note;
 import com.notes.api.entity.User;
 import com.notes.api.repository.NoteRepository;
 import com.notes.api.repository.UserRepository;
+import com.notes.api.service.UserDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -21,6 +23,8 @@ public class DataInitializer implements CommandLineRunner {
     private final UserRepository userRepository;
     private final NoteRepository noteRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ShardedQueries shardedQueries;
+    private final UserDirectory userDirectory;
 
     private static final String DEMO_EMAIL = "demo@example.com";
     private static final String DEMO_PASSWORD = "password123";
@@ -32,7 +36,7 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     private void initializeDemoUser() {
-        if (userRepository.existsByEmail(DEMO_EMAIL)) {
+        if (shardedQueries.anyMatch(() -> userRepository.existsByEmail(DEMO_EMAIL)) || !userDirectory.claim(DEMO_EMAIL)) {
             log.info("✅ Compte démo déjà existant : {}", DEMO_EMAIL);
             return;
         }
@@ -45,6 +49,9 @@ public class DataInitializer implements CommandLineRunner {
                     .build();
 
             demoUser = userRepository.save(demoUser);
+            userDirectory.assign(DEMO_EMAIL, demoUser.getId());
+            // Nothing sent yet: the user and their notes are inserted on the user's shard
+            shardedQueries.bindOwner(demoUser.getId());
             log.info("✅ Compte démo créé automatiquement : {} / {}", DEMO_EMAIL, DEMO_PASSWORD);
 
             // Créer 3 notes privées pour l'utilisateur démo
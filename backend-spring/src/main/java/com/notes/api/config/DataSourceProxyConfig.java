@@ -0,0 +1,55 @@
+package com.notes.api.config;
+
+import com.notes.api.monitoring.SlowLog;
+import com.notes.api.monitoring.SqlAccountingListener;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource with datasource-proxy:
+ * - SQL accounting per HTTP request (see {@code SqlAccountingFilter}) and slow statement capture
+ * - one observation, hence one span, per connection, statement and result set
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment,
+                                                                 ObjectProvider<ObservationRegistry> observationRegistry,
+                                                                 ObjectProvider<SlowLog> slowLog) {
+        boolean accounting = environment.getProperty("notes.sql.accounting.enabled", Boolean.class, true);
+        boolean tracing = environment.getProperty("notes.tracing.jdbc.enabled", Boolean.class, true);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || !(accounting || tracing)) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .proxyResultSet();
+                if (accounting) {
+                    SqlAccountingListener listener = new SqlAccountingListener(slowLog::getIfAvailable);
+                    builder.listener(listener).methodListener(listener);
+                }
+                if (tracing) {
+                    // Resolved lazily: the registry is not available yet when the DataSource is created
+                    DataSourceObservationListener listener = new DataSourceObservationListener(observationRegistry::getObject);
+                    builder.listener(listener).methodListener(listener);
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.notes.api.config;
+
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.exception.ForbiddenException;
+import com.notes.api.exception.ResourceNotFoundException;
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.util.Map;
+
+/**
+ * Limits of the GraphQL API, checked before execution, and mapping of the
+ * application exceptions to GraphQL errors.
+ *
+ * The cost of a field is 1 plus the cost of its selection, multiplied by the
+ * {@code size} argument of lists that take one: a page of 100 notes each
+ * selecting their shares costs about ten times a page of 10.
+ */
+@Configuration
+public class GraphQlConfig {
+
+    /**
+     * Not among Spring's {@link ErrorType}s: a transient failure, the query can be retried.
+     */
+    public static final ErrorClassification UNAVAILABLE = ErrorClassification.errorClassification("UNAVAILABLE");
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${notes.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${notes.graphql.max-complexity:1000}") int maxComplexity) {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            Object size = environment.getArguments().get("size");
+            int multiplier = size instanceof Integer count && count > 0 ? count : 1;
+            return multiplier * (1 + childComplexity);
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    @Bean
+    public DataFetcherExceptionResolver graphQlExceptionResolver() {
+        return new DataFetcherExceptionResolverAdapter() {
+            @Override
+            protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+                ErrorType type;
+                if (ex instanceof ResourceNotFoundException) {
+                    type = ErrorType.NOT_FOUND;
+                } else if (ex instanceof ForbiddenException) {
+                    type = ErrorType.FORBIDDEN;
+                } else if (ex instanceof BadRequestException) {
+                    type = ErrorType.BAD_REQUEST;
+                } else if (ex instanceof QueryTimeoutException) {
+                    // A shard or a coalesced load that did not answer in time: worth retrying
+                    return GraphqlErrorBuilder.newError(env)
+                            .errorType(UNAVAILABLE)
+                            .message("The database did not answer in time, retry shortly")
+                            .extensions(Map.of("retryAfterSeconds", 1))
+                            .build();
+                } else {
+                    return null;
+                }
+                return GraphqlErrorBuilder.newError(env)
+                        .errorType(type)
+                        .message(ex.getMessage())
+                        .build();
+            }
+        };
+    }
+}
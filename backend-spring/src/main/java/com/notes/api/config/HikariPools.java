@@ -0,0 +1,32 @@
+package com.notes.api.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the pools built by the routing configurations instead of the
+ * DataSource auto-configuration: {@code spring.datasource.*} credentials and
+ * {@code spring.datasource.hikari.*} tuning, with a URL and name of their own.
+ */
+final class HikariPools {
+
+    private HikariPools() {
+    }
+
+    static HikariConfig config(DataSourceProperties properties, Environment environment,
+                               MeterRegistry meterRegistry, String poolName, String url) {
+        HikariConfig config = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setMetricRegistry(meterRegistry);
+        return config;
+    }
+}
@@ -0,0 +1,36 @@
+package com.notes.api.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics and tracing setup.
+ *
+ * Metrics are exported on /actuator/prometheus: HTTP (http.server.requests),
+ * HikariCP (hikaricp.*) and Hibernate (hibernate.*) are auto-configured.
+ * {@code @Observed} services produce both the notes.service timer (tagged with
+ * class and method) and a span per call. Spans are exported over OTLP when
+ * {@code management.otlp.tracing.endpoint} is set, and/or to the log.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    /**
+     * Offline alternative to OTLP: finished spans are written to the application log.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "notes.tracing.log-exporter", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,122 @@
+package com.notes.api.config;
+
+import com.notes.api.datasource.ReadYourWritesTracker;
+import com.notes.api.datasource.ReplicaLagMonitor;
+import com.notes.api.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, enabled by {@code notes.datasource.replicas.enabled}.
+ *
+ * Replaces the auto-configured DataSource with a lazy proxy over a
+ * {@link ReplicaRoutingDataSource}: {@code @Transactional(readOnly = true)}
+ * (and Spring Data finders outside a transaction) read from a replica,
+ * everything else uses the primary. The pools are not beans of their own, so
+ * the datasource-proxy wrapping applies once, to the routed DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notes.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ReadYourWritesTracker readYourWrites;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public ReplicaRoutingConfig(@Value("${notes.datasource.replicas.read-your-writes-window:5000}") long windowMillis) {
+        this.readYourWrites = new ReadYourWritesTracker(windowMillis);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return readYourWrites;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWrites);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${notes.datasource.replicas.urls}") List<String> urls,
+                                               @Value("${notes.datasource.replicas.max-lag:2000}") long maxLagMillis,
+                                               @Value("${notes.datasource.replicas.connection-timeout:2000}") long connectionTimeout) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariConfig config = HikariPools.config(properties, environment, meterRegistry, "notes-" + name, urls.get(i).trim());
+            config.setReadOnly(true);
+            // A replica that is down must neither block startup nor hold requests for the default 30 s
+            config.setInitializationFailTimeout(-1);
+            config.setConnectionTimeout(connectionTimeout);
+            replicas.put(name, pool(config));
+        }
+        return new ReplicaLagMonitor(replicas, maxLagMillis, readYourWrites, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 ReplicaLagMonitor lagMonitor,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(HikariPools.config(properties, environment, meterRegistry, "notes-primary",
+                properties.determineUrl()));
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, lagMonitor.getReplicas(),
+                lagMonitor, readYourWrites, meterRegistry);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        // Known defaults, so that the proxy does not open a connection at startup to find them
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
+    }
+
+    /**
+     * Hibernate otherwise holds the first connection of a request until the
+     * end of open-in-view: a later read-write transaction would run on the
+     * replica picked by an earlier read-only one.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(HikariConfig config) {
+        HikariDataSource pool = new HikariDataSource(config);
+        pools.add(pool);
+        return pool;
+    }
+}
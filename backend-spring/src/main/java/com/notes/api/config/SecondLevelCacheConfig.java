@@ -0,0 +1,84 @@
+package com.notes.api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.notes.api.entity.CacheRegions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache: in-process Caffeine caches behind JCache.
+ *
+ * Every region is declared here with a size bound and a time-to-live, and
+ * Hibernate refuses to start on an undeclared one. The TTL also bounds how
+ * long another instance's write can go unnoticed, since each instance has its
+ * own cache. Hit/miss counts are exported as cache.gets{cache=...}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            MeterRegistry meterRegistry,
+            @Value("${notes.cache.users.max-size:10000}") long usersMaxSize,
+            @Value("${notes.cache.users.ttl:600000}") long usersTtl,
+            @Value("${notes.cache.tags.max-size:10000}") long tagsMaxSize,
+            @Value("${notes.cache.tags.ttl:3600000}") long tagsTtl,
+            @Value("${notes.cache.note-tags.max-size:50000}") long noteTagsMaxSize,
+            @Value("${notes.cache.note-tags.ttl:60000}") long noteTagsTtl,
+            @Value("${notes.cache.queries.max-size:10000}") long queriesMaxSize,
+            @Value("${notes.cache.queries.ttl:600000}") long queriesTtl
+    ) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        create(cacheManager, meterRegistry, CacheRegions.USERS, usersMaxSize, usersTtl);
+        create(cacheManager, meterRegistry, CacheRegions.USER_BY_EMAIL, usersMaxSize, usersTtl);
+        // Tags are never updated: only the size bound matters
+        create(cacheManager, meterRegistry, CacheRegions.TAGS, tagsMaxSize, tagsTtl);
+        create(cacheManager, meterRegistry, CacheRegions.TAG_BY_LABEL, tagsMaxSize, tagsTtl);
+        create(cacheManager, meterRegistry, CacheRegions.NOTE_TAGS, noteTagsMaxSize, noteTagsTtl);
+        create(cacheManager, meterRegistry, CacheRegions.DEFAULT_QUERY_RESULTS, queriesMaxSize, queriesTtl);
+        // One entry per table; evicting one would let stale query results through
+        create(cacheManager, meterRegistry, CacheRegions.UPDATE_TIMESTAMPS, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void create(CacheManager cacheManager, MeterRegistry meterRegistry,
+                               String region, long maxSize, long ttlMillis) {
+        if (cacheManager.getCache(region) != null) {
+            cacheManager.destroyCache(region);
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttlMillis > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        }
+        configuration.setStatisticsEnabled(true);
+
+        Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+        JCacheMetrics.monitor(meterRegistry, cache, Tags.of("layer", "hibernate"));
+    }
+}
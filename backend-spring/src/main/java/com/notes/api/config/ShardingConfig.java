@@ -0,0 +1,104 @@
+package com.notes.api.config;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owner-based sharding, enabled by {@code notes.datasource.shards.enabled}.
+ *
+ * Each URL of {@code notes.datasource.shards.urls} is a full database with the
+ * same schema; a user, their notes, tag links, revisions, public links and
+ * outgoing shares live on the shard of their id (see
+ * {@link com.notes.api.datasource.ShardResolver}). The auto-configured
+ * DataSource is replaced with a lazy proxy over a {@link ShardRoutingDataSource}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "notes.datasource.shards.enabled", havingValue = "true")
+public class ShardingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public ShardingConfig(@Value("${notes.datasource.replicas.enabled:false}") boolean replicasEnabled) {
+        if (replicasEnabled) {
+            throw new IllegalStateException(
+                    "notes.datasource.shards.enabled and notes.datasource.replicas.enabled cannot be combined");
+        }
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notes.datasource.shards.urls}") List<String> urls) {
+        if (urls.size() < 2) {
+            throw new IllegalStateException("notes.datasource.shards.urls needs at least two databases");
+        }
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource(
+                    HikariPools.config(properties, environment, meterRegistry, "notes-shard-" + i, urls.get(i).trim()));
+            pools.add(pool);
+            shards.add(pool);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, meterRegistry);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
+    }
+
+    /**
+     * The same migrations on every shard, through the routed DataSource.
+     */
+    @Bean
+    public FlywayMigrationStrategy migrateEveryShard(@Value("${notes.datasource.shards.urls}") List<String> urls) {
+        return flyway -> {
+            for (int shard = 0; shard < urls.size(); shard++) {
+                log.info("Migrations Flyway du shard {}", shard);
+                ShardContext.runOn(shard, flyway::migrate);
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateProperties() {
+        return properties -> {
+            // A connection per transaction, opened on the shard bound at that time
+            properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            // Tags are created per shard: a cached label lookup would hand out another shard's id
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,68 @@
+package com.notes.api.controller;
+
+import com.notes.api.dto.job.JobResponse;
+import com.notes.api.dto.job.TransferNotesRequest;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.BackgroundJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST Controller for operations on the whole account.
+ *
+ * Deleting the account and transferring all notes to another user run as
+ * background jobs: the request returns 202 with the job, whose progress is
+ * then polled through {@code GET /jobs/{jobId}}.
+ */
+@RestController
+@RequestMapping("/api/v1/account")
+@RequiredArgsConstructor
+@Tag(name = "Account", description = "Account deletion and bulk operations")
+@SecurityRequirement(name = "bearerAuth")
+public class AccountController {
+
+    private final BackgroundJobService backgroundJobService;
+
+    /**
+     * Delete the current user's account, notes included.
+     *
+     * @throws BadRequestException if another job is already running for the account
+     */
+    @DeleteMapping
+    @Operation(summary = "Delete the account", description = "Runs in the background, returns the job")
+    public ResponseEntity<JobResponse> deleteAccount(@AuthenticationPrincipal UserPrincipal currentUser) {
+        return ResponseEntity.accepted().body(backgroundJobService.deleteAccount(currentUser.getId()));
+    }
+
+    /**
+     * Give all the current user's notes, trash included, to another user.
+     *
+     * @throws ResourceNotFoundException if no user has this email
+     * @throws BadRequestException if another job is already running for the account
+     */
+    @PostMapping("/transfer")
+    @Operation(summary = "Transfer all notes to another user", description = "Runs in the background, returns the job")
+    public ResponseEntity<JobResponse> transferNotes(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @Valid @RequestBody TransferNotesRequest request
+    ) {
+        return ResponseEntity.accepted().body(backgroundJobService.transferNotes(currentUser.getId(), request));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get the progress of a job")
+    public ResponseEntity<JobResponse> getJob(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID jobId
+    ) {
+        return ResponseEntity.ok(backgroundJobService.getJob(currentUser.getId(), jobId));
+    }
+}
@@ -1,7 +1,9 @@
 package com.notes.api.controller;
 
+import com.notes.api.dto.note.NoteContentDescriptor;
 import com.notes.api.dto.note.NoteRequest;
 import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.note.NoteRevisionResponse;
 import com.notes.api.security.UserPrincipal;
 import com.notes.api.service.NoteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,10 +15,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -37,6 +47,8 @@ import java.util.UUID;
 @SecurityRequirement(name = "bearerAuth")
 public class NoteController {
 
+    private static final MediaType TEXT_MARKDOWN = new MediaType("text", "markdown", StandardCharsets.UTF_8);
+
     private final NoteService noteService;
 
     /**
@@ -121,16 +133,17 @@ public class NoteController {
     }
 
     /**
-     * Delete a note permanently.
+     * Move a note to the trash.
      * 
      * Only the owner can delete their notes.
-     * All shares and public links are automatically deleted.
+     * Shares and public links stop working until the note is restored, and
+     * are deleted with it when the trash is purged.
      * 
      * @throws ResourceNotFoundException if note doesn't exist
      * @throws ForbiddenException if user is not the owner
      */
     @DeleteMapping("/{id}")
-    @Operation(summary = "Delete a note", description = "Only owner can delete, cascades to shares")
+    @Operation(summary = "Delete a note", description = "Only owner can delete, moves the note to the trash")
     public ResponseEntity<Void> deleteNote(
             @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable UUID id
@@ -138,6 +151,130 @@ public class NoteController {
         noteService.deleteNote(currentUser.getId(), id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * Get the current user's notes in the trash, most recently deleted first.
+     */
+    @GetMapping("/trash")
+    @Operation(summary = "List deleted notes", description = "Notes in the trash, until restored or purged")
+    public ResponseEntity<Page<NoteResponse>> getTrash(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(noteService.getTrash(currentUser.getId(), PageRequest.of(page, size)));
+    }
+
+    /**
+     * Take a note out of the trash, with its shares and public links.
+     *
+     * @throws ResourceNotFoundException if the user has no such note in the trash
+     */
+    @PostMapping("/{id}/restore")
+    @Operation(summary = "Restore a deleted note", description = "Only owner can restore, before the trash is purged")
+    public ResponseEntity<NoteResponse> restoreNote(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID id
+    ) {
+        return ResponseEntity.ok(noteService.restoreNote(currentUser.getId(), id));
+    }
+
+    /**
+     * List the revisions of a note, newest first (without content).
+     */
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "List note revisions", description = "Same access rules as reading the note")
+    public ResponseEntity<List<NoteRevisionResponse>> getRevisions(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID id
+    ) {
+        return ResponseEntity.ok(noteService.getRevisions(currentUser.getId(), id));
+    }
+
+    /**
+     * Get the content of a note as it was at a given revision.
+     *
+     * @throws ResourceNotFoundException if note or revision doesn't exist
+     */
+    @GetMapping("/{id}/revisions/{revision}")
+    @Operation(summary = "Get a note revision", description = "Rebuilds the content of the requested revision")
+    public ResponseEntity<NoteRevisionResponse> getRevision(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID id,
+            @PathVariable int revision
+    ) {
+        return ResponseEntity.ok(noteService.getRevision(currentUser.getId(), id, revision));
+    }
 
+    /**
+     * Stream the raw Markdown content of a note.
+     *
+     * Supports a single byte range ({@code Range: bytes=start-end}) with
+     * {@code If-Range}, and conditional requests through the ETag, so that large
+     * downloads can be resumed. The body is copied from the JDBC result to the
+     * response without building the whole content in memory.
+     */
+    @GetMapping("/{id}/content")
+    @Operation(summary = "Download raw note content", description = "text/markdown, supports Range and ETag")
+    public ResponseEntity<StreamingResponseBody> getNoteContent(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID id,
+            @RequestHeader HttpHeaders requestHeaders
+    ) {
+        NoteContentDescriptor content = noteService.getNoteContentDescriptor(currentUser.getId(), id);
+        String etag = content.getETag();
+        long length = content.getContentLength();
+
+        if (requestHeaders.getIfNoneMatch().contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges = parseRanges(requestHeaders.getFirst(HttpHeaders.RANGE));
+        if (ranges.size() == 1 && (ifRange == null || ifRange.equals(etag))) {
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                partial = true;
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+        }
+
+        final long offset = start;
+        final long count = Math.max(0, end - start + 1);
+        StreamingResponseBody body = out -> noteService.streamNoteContent(content, offset, count, out);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(TEXT_MARKDOWN)
+                .contentLength(count)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Invalid Range headers are ignored, as allowed by RFC 9110.
+     */
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+    }
+}
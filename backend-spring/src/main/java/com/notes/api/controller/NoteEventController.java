@@ -0,0 +1,43 @@
+package com.notes.api.controller;
+
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.NoteEventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for the note change stream.
+ *
+ * Pushes compact events (noteId, type, updatedAt) for every committed change
+ * on a note the current user can access, so that clients no longer need to
+ * poll the note list. Reconnecting clients send {@code Last-Event-ID} to receive
+ * the events they missed; a {@code resync} event means they must reload the list.
+ */
+@RestController
+@RequestMapping("/api/v1/notes")
+@RequiredArgsConstructor
+@Tag(name = "Notes", description = "Note management endpoints")
+@SecurityRequirement(name = "bearerAuth")
+public class NoteEventController {
+
+    private final NoteEventStreamService eventStreamService;
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream note changes (Server-Sent Events)",
+               description = "Events for notes owned by, shared with or public to the current user")
+    public SseEmitter streamEvents(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return eventStreamService.subscribe(currentUser.getId(), lastEventId);
+    }
+}
@@ -0,0 +1,146 @@
+package com.notes.api.controller;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.graphql.ShareNode;
+import com.notes.api.dto.graphql.UserNode;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.share.PublicLinkResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.repository.NoteGraphRepository;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.NoteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * GraphQL read API (schema in {@code graphql/schema.graphqls}).
+ *
+ * The queries go through {@link NoteService}, with the same access rules as
+ * the REST API. Every other field of a note is resolved by a batch mapping:
+ * for a page of notes, one statement per shard involved, whatever the number
+ * of notes.
+ */
+@Controller
+public class NoteGraphQlController {
+
+    private final NoteService noteService;
+    private final NoteGraphRepository noteGraphRepository;
+    private final ShardedQueries shardedQueries;
+    private final ShardResolver shardResolver;
+    private final int maxPageSize;
+
+    public NoteGraphQlController(NoteService noteService,
+                                 NoteGraphRepository noteGraphRepository,
+                                 ShardedQueries shardedQueries,
+                                 ShardResolver shardResolver,
+                                 @Value("${notes.graphql.max-page-size:100}") int maxPageSize) {
+        this.noteService = noteService;
+        this.noteGraphRepository = noteGraphRepository;
+        this.shardedQueries = shardedQueries;
+        this.shardResolver = shardResolver;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @QueryMapping
+    public Page<NoteResponse> notes(@AuthenticationPrincipal UserPrincipal currentUser,
+                                    @Argument String query,
+                                    @Argument String tag,
+                                    @Argument Note.Visibility visibility,
+                                    @Argument int page,
+                                    @Argument int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new BadRequestException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        PageRequest pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
+        // Data fetchers do not always run on the request thread: bind the user's shard explicitly
+        return ShardContext.callOn(shardResolver.shardOf(currentUser.getId()), () -> noteService.searchNotes(
+                currentUser.getId(), query, tag, visibility != null ? visibility.name() : null, pageable));
+    }
+
+    @QueryMapping
+    public NoteResponse note(@AuthenticationPrincipal UserPrincipal currentUser, @Argument UUID id) {
+        return ShardContext.callOn(shardResolver.shardOf(currentUser.getId()),
+                () -> noteService.getNoteById(currentUser.getId(), id));
+    }
+
+    /**
+     * Null for notes of other users.
+     */
+    @BatchMapping(typeName = "Note")
+    public Map<NoteResponse, Integer> shareCount(List<NoteResponse> notes, Principal principal) {
+        return forOwnNotes(notes, principal, noteGraphRepository::countShares, 0);
+    }
+
+    /**
+     * Empty for notes of other users.
+     */
+    @BatchMapping(typeName = "Note")
+    public Map<NoteResponse, List<ShareNode>> shares(List<NoteResponse> notes, Principal principal) {
+        Map<NoteResponse, List<ShareNode>> shares = forOwnNotes(notes, principal, noteGraphRepository::findShares, List.of());
+        notes.forEach(note -> shares.putIfAbsent(note, List.of()));
+        return shares;
+    }
+
+    @BatchMapping(typeName = "Note")
+    public Map<NoteResponse, PublicLinkResponse> publicLink(List<NoteResponse> notes, Principal principal) {
+        return forOwnNotes(notes, principal, noteGraphRepository::findPublicLinks, null);
+    }
+
+    /**
+     * Users live on their own shard, not necessarily the one of the note.
+     */
+    @BatchMapping(typeName = "Share")
+    public Map<ShareNode, UserNode> sharedWith(List<ShareNode> shares) {
+        return shardedQueries.batch(shares, share -> UUID.fromString(share.getSharedWithUserId()), batch -> {
+            Map<UUID, UserNode> users = noteGraphRepository.findUsers(
+                    batch.stream().map(share -> UUID.fromString(share.getSharedWithUserId())).distinct().toList());
+            Map<ShareNode, UserNode> result = new HashMap<>();
+            batch.forEach(share -> result.put(share, users.get(UUID.fromString(share.getSharedWithUserId()))));
+            return result;
+        });
+    }
+
+    /**
+     * Load the values of the notes owned by the current user, shard by shard,
+     * with {@code absent} for those that have none.
+     */
+    private <V> Map<NoteResponse, V> forOwnNotes(List<NoteResponse> notes, Principal principal,
+                                                 Function<List<UUID>, Map<UUID, V>> query, V absent) {
+        String userId = currentUserId(principal);
+        List<NoteResponse> ownNotes = notes.stream()
+                .filter(note -> note.getOwnerId().equals(userId))
+                .toList();
+        if (ownNotes.isEmpty()) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(shardedQueries.batch(ownNotes, note -> UUID.fromString(note.getOwnerId()), batch -> {
+            Map<UUID, V> values = query.apply(batch.stream().map(note -> UUID.fromString(note.getId())).toList());
+            Map<NoteResponse, V> result = new HashMap<>();
+            batch.forEach(note -> result.put(note, values.getOrDefault(UUID.fromString(note.getId()), absent)));
+            return result;
+        }));
+    }
+
+    private static String currentUserId(Principal principal) {
+        UserPrincipal user = (UserPrincipal) ((Authentication) principal).getPrincipal();
+        return user.getId().toString();
+    }
+}
@@ -1,18 +1,19 @@
 package com.notes.api.controller;
 
 import com.notes.api.dto.note.NoteResponse;
-import com.notes.api.entity.Note;
-import com.notes.api.entity.Tag;
+import com.notes.api.service.PublicLinkStatsService;
 import com.notes.api.service.ShareService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/p")
@@ -21,24 +22,15 @@ import java.util.stream.Collectors;
 public class PublicController {
 
     private final ShareService shareService;
+    private final PublicLinkStatsService publicLinkStatsService;
 
     @GetMapping("/{token}")
     @Operation(summary = "Get note by public token")
-    public ResponseEntity<NoteResponse> getPublicNote(@PathVariable String token) {
-        Note note = shareService.getNoteByPublicToken(token);
-        
-        NoteResponse response = NoteResponse.builder()
-                .id(note.getId().toString())
-                .ownerId(note.getOwner().getId().toString())
-                .title(note.getTitle())
-                .contentMd(note.getContentMd())
-                .visibility(note.getVisibility())
-                .tags(note.getTags().stream().map(Tag::getLabel).collect(Collectors.toSet()))
-                .createdAt(note.getCreatedAt())
-                .updatedAt(note.getUpdatedAt())
-                .build();
-        
+    public ResponseEntity<NoteResponse> getPublicNote(@PathVariable String token, HttpServletRequest request) {
+        NoteResponse response = shareService.getNoteByPublicToken(token);
+        // The client's address behind the BFF: Tomcat takes it from X-Forwarded-For (server.forward-headers-strategy)
+        publicLinkStatsService.recordView(token, UUID.fromString(response.getOwnerId()),
+                request.getRemoteAddr() + '|' + request.getHeader(HttpHeaders.USER_AGENT));
         return ResponseEntity.ok(response);
     }
 }
-
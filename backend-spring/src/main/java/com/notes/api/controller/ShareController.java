@@ -1,8 +1,10 @@
 package com.notes.api.controller;
 
 import com.notes.api.dto.share.PublicLinkResponse;
+import com.notes.api.dto.share.PublicLinkStatsResponse;
 import com.notes.api.dto.share.ShareRequest;
 import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.PublicLinkStatsService;
 import com.notes.api.service.ShareService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -22,6 +24,7 @@ import java.util.UUID;
  * - Sharing notes with specific users (read-only access)
  * - Creating public links for notes
  * - Revoking shares and public links
+ * - View statistics of public links
  * 
  * Only note owners can share or revoke access to their notes.
  */
@@ -33,6 +36,7 @@ import java.util.UUID;
 public class ShareController {
 
     private final ShareService shareService;
+    private final PublicLinkStatsService publicLinkStatsService;
 
     @PostMapping("/{noteId}/share/user")
     @Operation(summary = "Share note with another user")
@@ -82,6 +86,15 @@ public class ShareController {
     ) {
         return ResponseEntity.ok(shareService.getSharedUsersCount(currentUser.getId(), noteId));
     }
+
+    @GetMapping("/public-links/{linkId}/stats")
+    @Operation(summary = "Get views and unique visitors of a public link")
+    public ResponseEntity<PublicLinkStatsResponse> getPublicLinkStats(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable UUID linkId
+    ) {
+        return ResponseEntity.ok(publicLinkStatsService.getStats(currentUser.getId(), linkId));
+    }
 }
 
 
@@ -0,0 +1,45 @@
+package com.notes.api.controller;
+
+import com.notes.api.dto.sync.SyncResponse;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for incremental synchronization.
+ *
+ * Clients keep the returned cursor and send it back as {@code since}: the
+ * response only contains notes that changed in the meantime, plus tombstones
+ * for notes that were deleted or are no longer accessible.
+ * Without a cursor the server answers {@code resetRequired}: the client loads
+ * the full list through {@code /api/v1/notes}, then syncs from the cursor.
+ */
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+@Tag(name = "Sync", description = "Incremental synchronization endpoints")
+@SecurityRequirement(name = "bearerAuth")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    @Operation(summary = "Get changes since a cursor",
+               description = "Upserts and tombstones for the current user, oldest change first")
+    public ResponseEntity<SyncResponse> sync(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(syncService.sync(currentUser.getId(), since, limit));
+    }
+}
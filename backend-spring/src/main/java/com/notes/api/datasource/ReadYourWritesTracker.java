@@ -0,0 +1,70 @@
+package com.notes.api.datasource;
+
+import com.notes.api.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes window: after a successful write request (POST, PUT, PATCH,
+ * DELETE), the user's read-only transactions go to the primary for
+ * {@code windowMillis}, long enough for any replica within the tolerated lag
+ * to have replayed the write.
+ *
+ * The window is kept in memory, so it only holds when a user's requests reach
+ * the same instance (sticky sessions on the BFF side).
+ */
+public class ReadYourWritesTracker implements HandlerInterceptor {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowNanos;
+    private final Map<UUID, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ex != null || response.getStatus() >= 400 || SAFE_METHODS.contains(request.getMethod())) {
+            return;
+        }
+        UUID userId = currentUserId();
+        if (userId != null) {
+            recordWrite(userId);
+        }
+    }
+
+    public void recordWrite(UUID userId) {
+        pinnedUntil.put(userId, System.nanoTime() + windowNanos);
+    }
+
+    public boolean isPinned(UUID userId) {
+        Long until = pinnedUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * Drop expired windows, called periodically by the lag monitor.
+     */
+    public void evictExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.notes.api.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the replay lag of each replica and keeps the list of replicas that
+ * may serve reads: reachable and no more than {@code maxLagMillis} behind.
+ *
+ * Lag is the age of the last replayed transaction, or zero when everything
+ * received has been replayed (an idle primary does not make replicas look late).
+ * A replica whose WAL receiver is not streaming is unavailable: it has replayed
+ * all it received, but no longer receives anything, and may be far behind.
+ * Reading the receiver status takes the {@code pg_read_all_stats} role; without
+ * it, a running receiver counts as streaming.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * NULL when the replica is not streaming from the primary.
+     */
+    static final String LAG_QUERY =
+            "SELECT CASE " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE COALESCE(status, 'streaming') = 'streaming') " +
+            "THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Map<String, Double> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> available = List.of();
+    private volatile boolean checked;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagMillis,
+                             ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWrites = readYourWrites;
+        replicas.keySet().forEach(name -> {
+            lagMillis.put(name, Double.NaN);
+            Gauge.builder("notes.datasource.replica.lag", lagMillis, lags -> lags.get(name) / 1000.0)
+                    .description("Replay lag of the replica, NaN when unreachable or not streaming")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        Gauge.builder("notes.datasource.replicas.available", this, monitor -> monitor.available.size())
+                .description("Replicas currently serving reads")
+                .register(meterRegistry);
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Round-robin over the available replicas, null when none is usable.
+     */
+    public String pickReplica() {
+        List<String> candidates = available;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${notes.datasource.replicas.lag-check-interval:1000}")
+    public void check() {
+        List<String> usable = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            double lag = measure(name, dataSource);
+            lagMillis.put(name, lag);
+            if (lag <= maxLagMillis) {
+                usable.add(name);
+            }
+        });
+
+        if (!usable.equals(available)) {
+            log.info("Réplicas disponibles pour la lecture : {}/{} {}", usable.size(), replicas.size(), usable);
+        }
+        available = List.copyOf(usable);
+        checked = true;
+        readYourWrites.evictExpired();
+    }
+
+    private double measure(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lag = rs.getDouble(1);
+                if (rs.wasNull()) {
+                    if (!checked || !Double.isNaN(lagMillis.get(name))) {
+                        log.warn("Réplica {} déconnecté du primaire, lectures renvoyées vers le primaire", name);
+                    }
+                    return Double.NaN;
+                }
+                return lag;
+            }
+        } catch (Exception ex) {
+            if (!checked || !Double.isNaN(lagMillis.get(name))) {
+                log.warn("Réplica {} injoignable, lectures renvoyées vers le primaire : {}", name, ex.getMessage());
+            }
+            return Double.NaN;
+        }
+    }
+}
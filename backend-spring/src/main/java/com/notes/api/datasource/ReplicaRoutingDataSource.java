@@ -0,0 +1,84 @@
+package com.notes.api.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the physical
+ * connection is then requested on the first statement, once the transaction
+ * manager has published the read-only flag. Falls back to the primary when the
+ * user is inside their read-your-writes window or no replica is usable.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+
+    private final Counter primaryReads;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+    private final Counter replicaReads;
+    private final Counter writes;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        this.writes = routed(meterRegistry, PRIMARY, "read-write");
+        this.primaryReads = routed(meterRegistry, PRIMARY, "no-transaction");
+        this.pinnedReads = routed(meterRegistry, PRIMARY, "read-your-writes");
+        this.fallbackReads = routed(meterRegistry, PRIMARY, "no-replica");
+        this.replicaReads = routed(meterRegistry, "replica", "read-only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        UUID userId = ReadYourWritesTracker.currentUserId();
+        if (userId != null && readYourWrites.isPinned(userId)) {
+            pinnedReads.increment();
+            return PRIMARY;
+        }
+        String replica = lagMonitor.pickReplica();
+        if (replica == null) {
+            fallbackReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("notes.datasource.connections")
+                .description("Physical connections handed out by the routing DataSource")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
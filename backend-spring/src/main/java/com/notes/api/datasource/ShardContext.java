@@ -0,0 +1,63 @@
+package com.notes.api.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard the current thread works on, read by {@link ShardRoutingDataSource}
+ * when a physical connection is opened.
+ *
+ * Bound for the whole request from the authenticated user, or by the service
+ * that finds where the data lives (login, public links, notes shared with the
+ * user). With a lazy connection proxy, binding takes effect as long as the
+ * transaction has not run its first statement.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the bound shard, null when none is
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Run {@code action} with {@code shard} bound (none when null), then restore the previous binding.
+     */
+    public static <T> T callOn(Integer shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        set(shard);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void runOn(Integer shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
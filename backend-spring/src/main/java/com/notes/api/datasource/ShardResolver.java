@@ -0,0 +1,72 @@
+package com.notes.api.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Places each owner on one of {@code count} shards with jump consistent
+ * hashing (Lamping and Veach): the result only depends on the owner id and the
+ * number of shards, and going from n to n + 1 shards moves 1/(n + 1) of the
+ * owners, all of them to the new shard.
+ *
+ * Without sharding there is a single shard, 0.
+ */
+@Component
+public class ShardResolver {
+
+    private final int count;
+
+    @Autowired
+    public ShardResolver(@Value("${notes.datasource.shards.enabled:false}") boolean enabled,
+                         @Value("${notes.datasource.shards.urls:}") List<String> urls) {
+        this(enabled ? urls.size() : 1);
+    }
+
+    public ShardResolver(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.count = count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public int shardOf(UUID ownerId) {
+        return jumpHash(mix(ownerId), count);
+    }
+
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    /**
+     * Jump hashing needs well-spread keys, and the high bits of a version 7
+     * UUID are a timestamp: fold both halves through the MurmurHash3 finalizer.
+     */
+    private static long mix(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
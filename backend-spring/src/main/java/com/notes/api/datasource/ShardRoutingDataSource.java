@@ -0,0 +1,57 @@
+package com.notes.api.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opens connections on the shard bound in {@link ShardContext}.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}, so that a service
+ * can still pick the shard after its transaction began. Code running with no
+ * shard bound (health check, startup) uses shard 0; scheduled jobs bind each
+ * shard in turn.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Counter[] bound;
+    private final Counter unbound;
+
+    public ShardRoutingDataSource(List<DataSource> shards, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        bound = new Counter[shards.size()];
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+            bound[i] = routed(meterRegistry, "shard-" + i, "bound");
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+
+        this.unbound = routed(meterRegistry, "shard-0", "unbound");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        if (shard == null) {
+            unbound.increment();
+            return 0;
+        }
+        bound[shard].increment();
+        return shard;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("notes.datasource.connections")
+                .description("Physical connections handed out by the routing DataSource")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
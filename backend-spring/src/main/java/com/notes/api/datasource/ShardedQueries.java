@@ -0,0 +1,302 @@
+package com.notes.api.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Request routing and scatter-gather over the shards.
+ *
+ * Scattered queries run in parallel, each on a pool thread with its shard
+ * bound and in its own read-only transaction; entities come back detached.
+ * Without sharding every method runs the query inline, in the caller's
+ * transaction, exactly as a plain repository call would.
+ */
+@Component
+public class ShardedQueries implements DisposableBean {
+
+    private final ShardResolver resolver;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate readWrite;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+
+    public ShardedQueries(ShardResolver resolver,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${notes.datasource.shards.scatter-threads:16}") int threads,
+                          @Value("${notes.datasource.shards.scatter-timeout:5000}") long timeoutMillis) {
+        this.resolver = resolver;
+        this.timeoutMillis = timeoutMillis;
+        if (resolver.isSharded()) {
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "notes-shard-query");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.readOnly = null;
+            this.readWrite = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Route what remains of the current request to the owner's shard.
+     */
+    public void bindOwner(UUID ownerId) {
+        ShardContext.bind(resolver.shardOf(ownerId));
+    }
+
+    /**
+     * Run {@code task} once per shard, in shard order, with the shard bound.
+     * For background jobs; the task manages its own transactions.
+     */
+    public void forEachShard(IntConsumer task) {
+        for (int shard = 0; shard < resolver.count(); shard++) {
+            int current = shard;
+            ShardContext.runOn(shard, () -> task.accept(current));
+        }
+    }
+
+    /**
+     * Concatenation of the results of every shard, in shard order.
+     */
+    public <T> List<T> collect(Supplier<List<T>> query) {
+        if (!resolver.isSharded()) {
+            return query.get();
+        }
+        List<T> results = new ArrayList<>();
+        scatter(query).forEach(results::addAll);
+        return results;
+    }
+
+    /**
+     * The result of every shard, in shard order, for state kept per shard:
+     * {@code query} is given the number of the shard it runs on.
+     */
+    public <T> List<T> onEachShard(IntFunction<T> query) {
+        if (!resolver.isSharded()) {
+            return Collections.singletonList(query.apply(0));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(resolver.count());
+        for (int shard = 0; shard < resolver.count(); shard++) {
+            int current = shard;
+            futures.add(submit(shard, () -> query.apply(current)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * The first {@code limit} rows of the union of every shard, each shard
+     * returning its rows sorted by {@code order}.
+     */
+    public <T> List<T> mergeSorted(Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (!resolver.isSharded()) {
+            return query.get();
+        }
+        return merge(scatter(query), order, 0, limit);
+    }
+
+    /**
+     * A page of the union of every shard. Each shard is asked for its first
+     * {@code offset + size} rows, sorted by {@code order}, so deep pages cost
+     * more on every shard.
+     */
+    public <T> List<T> page(Function<Pageable, List<T>> query, Pageable pageable, Comparator<? super T> order) {
+        if (!resolver.isSharded()) {
+            return query.apply(pageable);
+        }
+        int offset = (int) pageable.getOffset();
+        Pageable head = PageRequest.of(0, offset + pageable.getPageSize(), pageable.getSort());
+        return merge(scatter(() -> query.apply(head)), order, offset, pageable.getPageSize());
+    }
+
+    /**
+     * Run {@code query} once per shard holding some of {@code keys}, with the
+     * keys whose owner lives there, and merge the results. For batch loaders:
+     * the number of statements depends on the shards involved, not on the
+     * number of keys.
+     */
+    public <K, V> Map<K, V> batch(Collection<K> keys, Function<K, UUID> ownerOf, Function<List<K>, Map<K, V>> query) {
+        if (!resolver.isSharded()) {
+            return query.apply(List.copyOf(keys));
+        }
+        Map<Integer, List<K>> byShard = new TreeMap<>();
+        for (K key : keys) {
+            byShard.computeIfAbsent(resolver.shardOf(ownerOf.apply(key)), shard -> new ArrayList<>()).add(key);
+        }
+        List<CompletableFuture<Map<K, V>>> futures = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, shardKeys) -> futures.add(submit(shard, () -> query.apply(shardKeys))));
+        Map<K, V> results = new HashMap<>();
+        for (CompletableFuture<Map<K, V>> future : futures) {
+            results.putAll(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * The value found on the lowest-numbered shard that has one.
+     */
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> query) {
+        if (!resolver.isSharded()) {
+            return query.get();
+        }
+        return scatter(query).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    public boolean anyMatch(Supplier<Boolean> query) {
+        if (!resolver.isSharded()) {
+            return query.get();
+        }
+        return scatter(query).stream().anyMatch(Boolean.TRUE::equals);
+    }
+
+    /**
+     * Run {@code query} on {@code shard} alone, whatever the caller's
+     * transaction and binding. For tables kept on a single shard.
+     */
+    public <T> T readOn(int shard, Supplier<T> query) {
+        if (!resolver.isSharded()) {
+            return query.get();
+        }
+        return await(submit(shard, query));
+    }
+
+    /**
+     * Like {@link #readOn}, in a read-write transaction of its own.
+     */
+    public <T> T writeOn(int shard, Supplier<T> task) {
+        if (!resolver.isSharded()) {
+            return task.get();
+        }
+        return await(CompletableFuture.supplyAsync(
+                () -> ShardContext.callOn(shard, () -> readWrite.execute(status -> task.get())), executor));
+    }
+
+    /**
+     * Bind the current thread to the shard where {@code probe} holds: the one
+     * already bound if it does, otherwise the first other one. Must be called
+     * before the first statement of the caller's transaction. Without sharding,
+     * there is nothing to probe.
+     *
+     * @return false, leaving the binding unchanged, when no shard matches
+     */
+    public boolean bindFirstMatching(Supplier<Boolean> probe) {
+        if (!resolver.isSharded()) {
+            return true;
+        }
+        Integer home = ShardContext.current();
+        if (home != null && Boolean.TRUE.equals(await(submit(home, probe)))) {
+            return true;
+        }
+        List<Boolean> matches = scatter(probe);
+        for (int shard = 0; shard < matches.size(); shard++) {
+            if (Boolean.TRUE.equals(matches.get(shard))) {
+                ShardContext.bind(shard);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> List<T> scatter(Supplier<T> query) {
+        return onEachShard(shard -> query.get());
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(
+                () -> ShardContext.callOn(shard, () -> readOnly.execute(status -> query.get())), executor);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new QueryTimeoutException("Shard query timed out after " + timeoutMillis + " ms", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", ex);
+        }
+    }
+
+    /**
+     * K-way merge of lists already sorted by {@code order}.
+     */
+    static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, int offset, int limit) {
+        record Cursor<T>(List<T> rows, int index) {
+            T head() {
+                return rows.get(index);
+            }
+        }
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        for (List<T> rows : sorted) {
+            if (!rows.isEmpty()) {
+                heads.add(new Cursor<>(rows, 0));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor<T> cursor = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(cursor.head());
+            }
+            if (cursor.index() + 1 < cursor.rows().size()) {
+                heads.add(new Cursor<>(cursor.rows(), cursor.index() + 1));
+            }
+        }
+        return merged;
+    }
+}
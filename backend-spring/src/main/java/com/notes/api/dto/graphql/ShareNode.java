@@ -0,0 +1,24 @@
+package com.notes.api.dto.graphql;
+
+import com.notes.api.entity.Share;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A share as exposed by the GraphQL API; the user it is shared with is resolved separately.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShareNode {
+    private String id;
+    private String noteId;
+    private String sharedWithUserId;
+    private Share.Permission permission;
+    private LocalDateTime createdAt;
+}
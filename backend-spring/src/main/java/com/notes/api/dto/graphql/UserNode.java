@@ -0,0 +1,15 @@
+package com.notes.api.dto.graphql;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserNode {
+    private String id;
+    private String email;
+}
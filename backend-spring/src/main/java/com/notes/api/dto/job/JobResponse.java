@@ -0,0 +1,29 @@
+package com.notes.api.dto.job;
+
+import com.notes.api.repository.BackgroundJobRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+    private String id;
+    private BackgroundJobRepository.Type type;
+    private BackgroundJobRepository.Status status;
+    private BackgroundJobRepository.Phase phase;
+    /**
+     * Notes deleted or transferred so far, out of {@link #total} when the job was created.
+     */
+    private long processed;
+    private long total;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
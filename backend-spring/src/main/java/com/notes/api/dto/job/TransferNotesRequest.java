@@ -0,0 +1,16 @@
+package com.notes.api.dto.job;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TransferNotesRequest {
+
+    /**
+     * The user receiving every note of the current user.
+     */
+    @NotBlank(message = "Email is required")
+    @Email(message = "Email should be valid")
+    private String email;
+}
@@ -0,0 +1,36 @@
+package com.notes.api.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Metadata needed to serve the raw content of a note without loading it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteContentDescriptor {
+    private UUID noteId;
+    private long contentLength;
+    private LocalDateTime updatedAt;
+
+    /**
+     * Shard the note was found on, for the streaming that follows on another thread.
+     */
+    private Integer shard;
+
+    /**
+     * Strong validator: changes whenever the note is modified.
+     */
+    public String getETag() {
+        long version = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        return "\"" + noteId + "-" + Long.toHexString(version) + "-" + Long.toHexString(contentLength) + "\"";
+    }
+}
@@ -0,0 +1,19 @@
+package com.notes.api.dto.note;
+
+import com.notes.api.event.NoteChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteEventResponse {
+    private String noteId;
+    private NoteChangedEvent.Kind type;
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.notes.api.dto.note;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.notes.api.entity.Note;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,6 +23,12 @@ public class NoteResponse {
     private Set<String> tags;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Only set for notes in the trash.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime deletedAt;
 }
 
 
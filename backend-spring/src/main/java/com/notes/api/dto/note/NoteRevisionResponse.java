@@ -0,0 +1,23 @@
+package com.notes.api.dto.note;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteRevisionResponse {
+    private String noteId;
+    private int revision;
+    private String title;
+    private int contentLength;
+    private String contentMd;
+    private LocalDateTime createdAt;
+}
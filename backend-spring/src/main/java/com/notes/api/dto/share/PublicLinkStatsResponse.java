@@ -0,0 +1,22 @@
+package com.notes.api.dto.share;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicLinkStatsResponse {
+    private String linkId;
+    private long views;
+    /**
+     * HyperLogLog estimate, within a few percent.
+     */
+    private long uniqueVisitors;
+    private LocalDateTime lastViewedAt;
+}
@@ -0,0 +1,44 @@
+package com.notes.api.dto.sync;
+
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.event.NoteChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+
+    /**
+     * Opaque cursor to send as {@code since} on the next call.
+     */
+    private String cursor;
+
+    /**
+     * More changes are available right away after this cursor.
+     */
+    private boolean hasMore;
+
+    /**
+     * The client has no usable cursor: it must reload the full list, then sync from {@link #cursor}.
+     */
+    private boolean resetRequired;
+
+    private List<NoteResponse> upserts;
+    private List<Tombstone> tombstones;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tombstone {
+        private String noteId;
+        private NoteChangedEvent.Kind reason;
+    }
+}
@@ -0,0 +1,23 @@
+package com.notes.api.entity;
+
+/**
+ * Hibernate second-level cache regions, declared in {@code SecondLevelCacheConfig}.
+ */
+public final class CacheRegions {
+
+    public static final String USERS = "users";
+    public static final String TAGS = "tags";
+    public static final String NOTE_TAGS = "note-tags";
+    public static final String USER_BY_EMAIL = "user-by-email";
+    public static final String TAG_BY_LABEL = "tag-by-label";
+
+    /**
+     * Hibernate's own regions: query results without an explicit region, and
+     * the last-update timestamp of each table used to invalidate cached queries.
+     */
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
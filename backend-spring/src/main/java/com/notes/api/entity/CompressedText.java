@@ -0,0 +1,176 @@
+package com.notes.api.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable, lazily decoded compressed note body.
+ *
+ * Layout: 1 byte codec version, 4 bytes uncompressed UTF-8 length (big endian),
+ * then a raw deflate stream primed with a Markdown-oriented preset dictionary.
+ * The text is only inflated on the first call to {@link #text()}.
+ */
+public final class CompressedText implements Serializable {
+
+    private static final byte VERSION_DEFLATE_DICT_V1 = 1;
+    /**
+     * Codec version and uncompressed length, before the deflate stream.
+     */
+    public static final int HEADER_SIZE = 5;
+
+    /**
+     * Preset dictionary: frequent Markdown syntax and words, most frequent last
+     * (deflate favours the closest matches).
+     */
+    private static final byte[] DICTIONARY_V1 = (
+            "https://http://www.example.com```java```javascript```bash```json```sql</details><details>" +
+            "<summary>| --- | --- || :--- | :---: |![image](.png).jpg) [lien](" +
+            "pour les des une dans avec sur est que qui pas par plus sont cette leur" +
+            " the and for with that this from are not you your have will can should" +
+            "\n> \n---\n\n1. \n2. \n3. \n- [ ] \n- [x] \n#### \n### \n## \n# **`\n\n- "
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] data;
+    private transient volatile String decoded;
+
+    private CompressedText(byte[] data, String decoded) {
+        this.data = data;
+        this.decoded = decoded;
+    }
+
+    public static CompressedText compress(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setDictionary(DICTIONARY_V1);
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_SIZE + raw.length / 3);
+            out.write(VERSION_DEFLATE_DICT_V1);
+            out.write(raw.length >>> 24);
+            out.write(raw.length >>> 16);
+            out.write(raw.length >>> 8);
+            out.write(raw.length);
+
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return new CompressedText(out.toByteArray(), text);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Wrap bytes read from the database without inflating them.
+     */
+    public static CompressedText fromBytes(byte[] data) {
+        if (data.length < HEADER_SIZE || data[0] != VERSION_DEFLATE_DICT_V1) {
+            throw new IllegalArgumentException("Unsupported compressed content format");
+        }
+        return new CompressedText(data, null);
+    }
+
+    public byte[] toBytes() {
+        return data;
+    }
+
+    public int compressedLength() {
+        return data.length;
+    }
+
+    /**
+     * Size in bytes of the UTF-8 text, read from the header.
+     */
+    public int originalLength() {
+        return ((data[1] & 0xFF) << 24) | ((data[2] & 0xFF) << 16) | ((data[3] & 0xFF) << 8) | (data[4] & 0xFF);
+    }
+
+    public String text() {
+        String text = decoded;
+        if (text == null) {
+            text = new String(inflate(), StandardCharsets.UTF_8);
+            decoded = text;
+        }
+        return text;
+    }
+
+    /**
+     * Stream the UTF-8 text without materializing it.
+     */
+    public InputStream openStream() {
+        return openStream(data);
+    }
+
+    /**
+     * Stream the UTF-8 text of a raw stored value without materializing it.
+     */
+    public static InputStream openStream(byte[] stored) {
+        return inflate(new ByteArrayInputStream(stored, HEADER_SIZE, stored.length - HEADER_SIZE));
+    }
+
+    /**
+     * Stream the UTF-8 text from the stored bytes that follow the header, read
+     * as they are needed.
+     */
+    public static InputStream inflate(InputStream deflateStream) {
+        Inflater inflater = newInflater();
+        return new InflaterInputStream(deflateStream, inflater) {
+            @Override
+            public void close() throws java.io.IOException {
+                super.close();
+                inflater.end();
+            }
+        };
+    }
+
+    private byte[] inflate() {
+        Inflater inflater = newInflater();
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            byte[] out = new byte[originalLength()];
+            int written = 0;
+            while (written < out.length) {
+                int n = inflater.inflate(out, written, out.length - written);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Corrupted compressed content");
+                }
+                written += n;
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Inflater newInflater() {
+        Inflater inflater = new Inflater(true);
+        inflater.setDictionary(DICTIONARY_V1);
+        return inflater;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompressedText other)) return false;
+        return Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+}
@@ -0,0 +1,27 @@
+package com.notes.api.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Maps {@link CompressedText} to a {@code bytea} column.
+ *
+ * Conversion only wraps the stored bytes: inflating happens lazily, when the
+ * body is actually read. Marked immutable so Hibernate compares values instead
+ * of deep-copying them for dirty checking.
+ */
+@Converter
+@Immutable
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(CompressedText attribute) {
+        return attribute != null ? attribute.toBytes() : null;
+    }
+
+    @Override
+    public CompressedText convertToEntityAttribute(byte[] dbData) {
+        return dbData != null ? CompressedText.fromBytes(dbData) : null;
+    }
+}
@@ -5,10 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.PartitionKey;
+import org.hibernate.annotations.SQLInsert;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -16,7 +23,9 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "notes")
-@EntityListeners(AuditingEntityListener.class)
+// Notes in the trash are invisible to every HQL query and load by id; native queries filter them explicitly
+@SQLRestriction("deleted_at IS NULL")
+@EntityListeners({AuditingEntityListener.class, NoteContentCompressionListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,19 +33,39 @@ import java.util.UUID;
 public class Note {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "owner_id", nullable = false)
+    @JoinColumn(name = "owner_id", nullable = false, insertable = false, updatable = false)
     private User owner;
 
+    /**
+     * Partition key of the notes table, copied from {@link #owner} on persist.
+     * Hibernate adds it to the WHERE clause of updates and deletes so that they
+     * target a single partition.
+     */
+    @PartitionKey
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    private UUID ownerId;
+
     @Column(nullable = false, length = 255)
     private String title;
 
-    @Column(nullable = false, name = "content_md", columnDefinition = "TEXT")
+    /**
+     * Plain body, null when the body is stored compressed.
+     * Always read through {@link #getContentMd()}.
+     */
+    @Column(name = "content_md", columnDefinition = "TEXT")
     private String contentMd;
 
+    /**
+     * Compressed body for large notes, null when stored as plain text.
+     */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content_compressed")
+    private CompressedText contentCompressed;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     @Builder.Default
@@ -50,7 +79,19 @@ public class Note {
     @Column(nullable = false, name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * When the note was moved to the trash, null for live notes.
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.NOTE_TAGS)
+    // Tags of a page of notes missing from the cache load in one statement, not one per note
+    @BatchSize(size = 100)
+    // note_tags is partitioned by owner_id as well: take it from the note row
+    @SQLInsert(sql = "INSERT INTO note_tags (note_id, tag_id, owner_id) " +
+            "SELECT n.id, t.id, n.owner_id FROM notes n, tags t WHERE n.id = ? AND t.id = ?")
     @JoinTable(
         name = "note_tags",
         joinColumns = @JoinColumn(name = "note_id"),
@@ -59,6 +100,48 @@ public class Note {
     @Builder.Default
     private Set<Tag> tags = new HashSet<>();
 
+    @PrePersist
+    void assignOwnerId() {
+        if (owner != null) {
+            ownerId = owner.getId();
+        }
+    }
+
+    /**
+     * Markdown body, inflated on first access when stored compressed.
+     */
+    public String getContentMd() {
+        return contentCompressed != null ? contentCompressed.text() : contentMd;
+    }
+
+    public void setContentMd(String contentMd) {
+        this.contentMd = contentMd;
+        this.contentCompressed = null;
+    }
+
+    public boolean isContentCompressed() {
+        return contentCompressed != null;
+    }
+
+    /**
+     * Switch the body to compressed storage when its UTF-8 size exceeds the
+     * threshold and compression actually saves space.
+     */
+    public void compressContentIfLarger(int thresholdBytes) {
+        if (contentMd == null || contentMd.length() <= thresholdBytes / 3) {
+            return;
+        }
+        int size = contentMd.getBytes(StandardCharsets.UTF_8).length;
+        if (size <= thresholdBytes) {
+            return;
+        }
+        CompressedText compressed = CompressedText.compress(contentMd);
+        if (compressed.compressedLength() < size) {
+            this.contentCompressed = compressed;
+            this.contentMd = null;
+        }
+    }
+
     public enum Visibility {
         PRIVATE,
         SHARED,
@@ -0,0 +1,23 @@
+package com.notes.api.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves note bodies larger than the configured threshold to the compressed
+ * column right before they are written.
+ */
+@Component
+public class NoteContentCompressionListener {
+
+    @Value("${notes.content.compression.threshold-bytes:8192}")
+    private int thresholdBytes;
+
+    @PrePersist
+    @PreUpdate
+    public void compressLargeContent(Note note) {
+        note.compressContentIfLarger(thresholdBytes);
+    }
+}
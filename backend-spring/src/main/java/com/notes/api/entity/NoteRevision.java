@@ -0,0 +1,63 @@
+package com.notes.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of a note's content history.
+ *
+ * The latest revision (HEAD) has no payload: its content is the note itself.
+ * Older revisions are stored either as a full compressed SNAPSHOT (every N
+ * revisions) or as a compressed reverse DELTA against the next revision.
+ */
+@Entity
+@Table(name = "note_revisions")
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NoteRevision {
+
+    @Id
+    @GeneratedUuidV7
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id", nullable = false)
+    private Note note;
+
+    @Column(nullable = false, name = "revision_number")
+    private int revisionNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Storage storage;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(nullable = false, name = "content_length")
+    private int contentLength;
+
+    @Column(name = "payload")
+    private byte[] payload;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false, name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum Storage {
+        HEAD,
+        SNAPSHOT,
+        DELTA
+    }
+}
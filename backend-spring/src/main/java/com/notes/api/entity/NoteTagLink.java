@@ -0,0 +1,44 @@
+package com.notes.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Read-only view of a note_tags row, written through {@link Note#getTags()}.
+ *
+ * Exposes owner_id to queries so that they can restrict note_tags to the
+ * owner's partition, which the join table mapping of Note.tags cannot do.
+ */
+@Entity
+@Immutable
+@Table(name = "note_tags")
+@IdClass(NoteTagLink.Key.class)
+@Data
+@NoArgsConstructor
+public class NoteTagLink {
+
+    @Id
+    @Column(name = "owner_id")
+    private UUID ownerId;
+
+    @Id
+    @Column(name = "note_id")
+    private UUID noteId;
+
+    @Id
+    @Column(name = "tag_id")
+    private UUID tagId;
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private UUID ownerId;
+        private UUID noteId;
+        private UUID tagId;
+    }
+}
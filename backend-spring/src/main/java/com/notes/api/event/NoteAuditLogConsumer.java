@@ -0,0 +1,28 @@
+package com.notes.api.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audit trail of note changes, one line per committed change on the
+ * {@code notes.audit} logger, so that it can be routed to its own appender.
+ *
+ * Redeliveries log the same outbox id again: consumers of the trail
+ * deduplicate on it.
+ */
+@Slf4j(topic = "notes.audit")
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "notes.outbox.audit-log.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteAuditLogConsumer implements OutboxConsumer {
+
+    @Override
+    public void handle(OutboxMessage message) {
+        NoteChangedEvent event = message.event();
+        log.info("outbox={} committedAt={} note={} owner={} type={} visibility={}->{} granted={} revoked={}",
+                message.id(), message.createdAt(), event.noteId(), event.ownerId(), event.type(),
+                event.previousVisibility(), event.visibility(), event.grantedUsers(), event.revokedUsers());
+    }
+}
@@ -0,0 +1,89 @@
+package com.notes.api.event;
+
+import com.notes.api.entity.Note;
+import com.notes.api.entity.Share;
+import com.notes.api.entity.User;
+import com.notes.api.repository.ShareRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and publishes {@link NoteChangedEvent}s from within service transactions.
+ *
+ * Listeners decide when to act (before or after commit); publishing itself is
+ * synchronous and cheap.
+ */
+@Component
+@RequiredArgsConstructor
+public class NoteChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShareRepository shareRepository;
+
+    public void created(Note note) {
+        publish(note, NoteChangedEvent.Type.CREATED, null, Set.of(), Set.of(), Set.of());
+    }
+
+    public void updated(Note note, Note.Visibility previousVisibility, Set<UUID> revokedUsers) {
+        publish(note, NoteChangedEvent.Type.UPDATED, previousVisibility, readersOf(note), Set.of(), revokedUsers);
+    }
+
+    /**
+     * @param readers users the note was shared with, captured before deletion
+     */
+    public void deleted(Note note, Set<UUID> readers) {
+        publish(note, NoteChangedEvent.Type.DELETED, note.getVisibility(), readers, Set.of(), Set.of());
+    }
+
+    /**
+     * A note taken out of the trash reappears for its owner and the users it
+     * is still shared with, as if it had just been created.
+     */
+    public void restored(Note note) {
+        publish(note, NoteChangedEvent.Type.CREATED, null, readersOf(note), Set.of(), Set.of());
+    }
+
+    public void shared(Note note, Note.Visibility previousVisibility, UUID grantedUser) {
+        publish(note, NoteChangedEvent.Type.SHARED, previousVisibility, readersOf(note), Set.of(grantedUser), Set.of());
+    }
+
+    public void unshared(Note note, Note.Visibility previousVisibility, UUID revokedUser) {
+        publish(note, NoteChangedEvent.Type.UNSHARED, previousVisibility, readersOf(note), Set.of(), Set.of(revokedUser));
+    }
+
+    public void visibilityChanged(Note note, Note.Visibility previousVisibility) {
+        publish(note, NoteChangedEvent.Type.UPDATED, previousVisibility, readersOf(note), Set.of(), Set.of());
+    }
+
+    /**
+     * Users the note is currently shared with.
+     */
+    public Set<UUID> readersOf(Note note) {
+        return shareRepository.findByNote(note).stream()
+                .map(Share::getSharedWithUser)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private void publish(Note note, NoteChangedEvent.Type type, Note.Visibility previousVisibility,
+                         Set<UUID> readers, Set<UUID> granted, Set<UUID> revoked) {
+        LocalDateTime updatedAt = note.getUpdatedAt() != null ? note.getUpdatedAt() : LocalDateTime.now();
+        eventPublisher.publishEvent(new NoteChangedEvent(
+                note.getId(),
+                note.getOwner().getId(),
+                type,
+                note.getVisibility(),
+                previousVisibility,
+                updatedAt,
+                readers,
+                granted,
+                revoked
+        ));
+    }
+}
@@ -0,0 +1,99 @@
+package com.notes.api.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.notes.api.entity.Note;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Domain event published by the services whenever a note or its access list changes.
+ *
+ * @param noteId             the note
+ * @param ownerId            owner of the note
+ * @param type               what happened
+ * @param visibility         visibility after the change
+ * @param previousVisibility visibility before the change
+ * @param updatedAt          last modification date of the note after the change
+ * @param readers            users the note is shared with after the change
+ * @param grantedUsers       users who gained access through a share
+ * @param revokedUsers       users who lost access through a share
+ */
+public record NoteChangedEvent(
+        UUID noteId,
+        UUID ownerId,
+        Type type,
+        Note.Visibility visibility,
+        Note.Visibility previousVisibility,
+        LocalDateTime updatedAt,
+        Set<UUID> readers,
+        Set<UUID> grantedUsers,
+        Set<UUID> revokedUsers
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        SHARED,
+        UNSHARED
+    }
+
+    /**
+     * Change as seen by one user of the application.
+     */
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ACCESS_GRANTED,
+        ACCESS_REVOKED
+    }
+
+    /**
+     * True when the change concerns every user, because the note is or was public.
+     */
+    @JsonIgnore
+    public boolean isBroadcast() {
+        return visibility == Note.Visibility.PUBLIC || previousVisibility == Note.Visibility.PUBLIC;
+    }
+
+    /**
+     * Translate the change for a given user, or null if it does not concern them.
+     */
+    public Kind kindFor(UUID userId) {
+        boolean canReadNow = canRead(userId, visibility, readers.contains(userId));
+        boolean couldReadBefore = type != Type.CREATED && canRead(userId, previousVisibility,
+                (readers.contains(userId) && !grantedUsers.contains(userId)) || revokedUsers.contains(userId));
+
+        if (type == Type.DELETED) {
+            return couldReadBefore ? Kind.DELETED : null;
+        }
+        if (canReadNow && couldReadBefore) {
+            return Kind.UPDATED;
+        }
+        if (canReadNow) {
+            return ownerId.equals(userId) ? Kind.CREATED : Kind.ACCESS_GRANTED;
+        }
+        return couldReadBefore ? Kind.ACCESS_REVOKED : null;
+    }
+
+    private boolean canRead(UUID userId, Note.Visibility visibility, boolean sharedWithUser) {
+        return ownerId.equals(userId)
+                || visibility == Note.Visibility.PUBLIC
+                || (visibility == Note.Visibility.SHARED && sharedWithUser);
+    }
+
+    /**
+     * Users the change must be delivered to, apart from broadcasts.
+     */
+    public Set<UUID> directRecipients() {
+        Set<UUID> recipients = new HashSet<>(readers);
+        recipients.add(ownerId);
+        recipients.addAll(grantedUsers);
+        recipients.addAll(revokedUsers);
+        return recipients;
+    }
+}
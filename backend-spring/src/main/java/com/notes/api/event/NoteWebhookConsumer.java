@@ -0,0 +1,47 @@
+package com.notes.api.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Posts every committed note change to an external endpoint
+ * ({@code notes.outbox.webhook.url}), e.g. a search indexer or a notification
+ * service.
+ *
+ * The body is the {@link OutboxMessage} as JSON and the {@code X-Outbox-Event-Id}
+ * header carries its id, for the receiver to deduplicate redeliveries. Any
+ * error or non-2xx status makes the dispatcher retry the message later.
+ */
+@Component
+@Order(1)
+@ConditionalOnExpression("!'${notes.outbox.webhook.url:}'.isBlank()")
+public class NoteWebhookConsumer implements OutboxConsumer {
+
+    private final RestClient restClient;
+
+    public NoteWebhookConsumer(
+            RestClient.Builder builder,
+            @Value("${notes.outbox.webhook.url}") String url,
+            @Value("${notes.outbox.webhook.timeout:5000}") int timeoutMs
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = builder.baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Outbox-Event-Id", Long.toString(message.id()))
+                .body(message)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,20 @@
+package com.notes.api.event;
+
+/**
+ * Post-commit side effect fed by the transactional outbox.
+ *
+ * Delivery is at least once and ordered per note: a message is only handed
+ * over once every earlier message of the same note has been delivered.
+ * Implementations must therefore be idempotent. Throwing makes the dispatcher
+ * retry the message later with an exponential backoff, for every consumer.
+ *
+ * Consumers run outside any transaction, on the dispatcher thread.
+ */
+public interface OutboxConsumer {
+
+    void handle(OutboxMessage message);
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,38 @@
+package com.notes.api.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notes.api.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Writes every note change to the outbox inside the transaction that produced it,
+ * so that a side effect is scheduled if and only if the change commits.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "notes.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxEventWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OutboxConsumer> consumers;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void write(NoteChangedEvent event) {
+        if (consumers.stream().findAny().isEmpty()) {
+            // Nothing to relay
+            return;
+        }
+        try {
+            outboxRepository.append(event.noteId(), event.type().name(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize note change " + event.noteId(), ex);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.notes.api.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A note change relayed from the outbox to an {@link OutboxConsumer}.
+ *
+ * @param id        outbox row id; for a given note, ids follow commit order because
+ *                  they are drawn with the note row locked
+ * @param createdAt when the change was written, i.e. inside the domain transaction
+ * @param attempts  previous failed delivery attempts
+ * @param event     the change itself
+ */
+public record OutboxMessage(
+        long id,
+        LocalDateTime createdAt,
+        int attempts,
+        NoteChangedEvent event
+) {
+}
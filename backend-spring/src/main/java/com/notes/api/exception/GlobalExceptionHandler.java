@@ -1,5 +1,7 @@
 package com.notes.api.exception;
 
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -30,6 +32,8 @@ public class GlobalExceptionHandler {
             detailedMessage = "❌ Utilisateur introuvable.";
         } else if (detailedMessage.contains("Note not found")) {
             detailedMessage = "❌ La note demandée n'existe pas ou a été supprimée.";
+        } else if (detailedMessage.contains("Revision not found")) {
+            detailedMessage = "❌ La révision demandée n'existe pas.";
         } else if (detailedMessage.contains("Share not found")) {
             detailedMessage = "❌ Le partage demandé n'existe pas.";
         } else if (detailedMessage.contains("Public link not found")) {
@@ -129,6 +133,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * A shard or a coalesced load that did not answer in time: worth retrying.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleQueryTimeout(QueryTimeoutException ex) {
+        ErrorResponse error = ErrorResponse.builder()
+                .code("SERVICE_UNAVAILABLE")
+                .message("La base de données ne répond pas assez vite, réessayez dans quelques instants.")
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
         ex.printStackTrace();
@@ -0,0 +1,153 @@
+package com.notes.api.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-demand Java Flight Recorder captures, without restart nor external agent.
+ *
+ * <pre>
+ * POST /actuator/jfr {"seconds": 30}      start a recording (profile settings)
+ * GET  /actuator/jfr                      list recordings
+ * GET  /actuator/jfr/{id}                 download a finished recording (.jfr)
+ * </pre>
+ *
+ * One recording at a time; only the last {@code notes.jfr.retained} files are kept.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint implements DisposableBean {
+
+    private static final long MAX_SECONDS = 300;
+
+    private final Path directory;
+    private final int retained;
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final ReentrantLock startLock = new ReentrantLock();
+
+    public JfrEndpoint(
+            @Value("${notes.jfr.directory:${java.io.tmpdir}/notes-jfr}") String directory,
+            @Value("${notes.jfr.retained:5}") int retained
+    ) {
+        this.directory = Path.of(directory);
+        this.retained = retained;
+    }
+
+    public record RecordingInfo(long id, String state, Instant startTime, Duration duration, long size) {
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> start(@Nullable Long seconds, @Nullable String settings) {
+        long duration = seconds != null ? seconds : 30;
+        if (duration < 1 || duration > MAX_SECONDS) {
+            return new WebEndpointResponse<>(Map.of("error", "seconds must be between 1 and " + MAX_SECONDS),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        startLock.lock();
+        try {
+            boolean running = recordings.values().stream().anyMatch(r -> r.getState() == RecordingState.RUNNING);
+            if (running) {
+                return new WebEndpointResponse<>(Map.of("error", "a recording is already running"), 409);
+            }
+
+            Files.createDirectories(directory);
+            Recording recording = new Recording(Configuration.getConfiguration(settings != null ? settings : "profile"));
+            recording.setName("notes-api-" + Instant.now());
+            recording.setDuration(Duration.ofSeconds(duration));
+            recording.setToDisk(true);
+            recording.setDestination(directory.resolve("notes-api-" + recording.getId() + ".jfr"));
+            recording.start();
+            recordings.put(recording.getId(), recording);
+            evictOldRecordings();
+
+            log.info("Enregistrement JFR {} démarré pour {} s", recording.getId(), duration);
+            return new WebEndpointResponse<>(info(recording), WebEndpointResponse.STATUS_OK);
+        } catch (IOException | ParseException ex) {
+            return new WebEndpointResponse<>(Map.of("error", ex.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    @ReadOperation
+    public List<RecordingInfo> list() {
+        return recordings.values().stream()
+                .map(this::info)
+                .sorted((a, b) -> Long.compare(b.id(), a.id()))
+                .toList();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() != RecordingState.STOPPED || !Files.exists(recording.getDestination())) {
+            // Still running: the file is written when the duration elapses
+            return new WebEndpointResponse<>(409);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(recording.getDestination()), WebEndpointResponse.STATUS_OK);
+    }
+
+    @Override
+    public void destroy() {
+        recordings.values().forEach(Recording::close);
+    }
+
+    private void evictOldRecordings() throws IOException {
+        List<Recording> finished = new ArrayList<>(recordings.values());
+        finished.sort((a, b) -> Long.compare(b.getId(), a.getId()));
+        for (Recording old : finished.subList(Math.min(retained, finished.size()), finished.size())) {
+            if (old.getState() != RecordingState.RUNNING) {
+                recordings.remove(old.getId());
+                Path destination = old.getDestination();
+                old.close();
+                if (destination != null) {
+                    Files.deleteIfExists(destination);
+                }
+            }
+        }
+    }
+
+    private RecordingInfo info(Recording recording) {
+        Path destination = recording.getDestination();
+        long size = 0;
+        try {
+            if (destination != null && Files.exists(destination)) {
+                size = Files.size(destination);
+            }
+        } catch (IOException ignored) {
+            // Reported as 0
+        }
+        return new RecordingInfo(recording.getId(), recording.getState().name(), recording.getStartTime(),
+                recording.getDuration(), size);
+    }
+}
@@ -0,0 +1,184 @@
+package com.notes.api.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-memory capture of recent slow HTTP requests and SQL statements,
+ * served by the {@code slowlog} Actuator endpoint.
+ *
+ * Entries over the thresholds go into fixed-size ring buffers (the oldest entry
+ * is overwritten), so memory stays constant whatever the load. Query string
+ * values, SQL literals and path variables (ids, public link tokens) are
+ * redacted before being stored.
+ */
+@Component
+public class SlowLog {
+
+    private static final Pattern SQL_STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern SQL_NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PATH_WORD = Pattern.compile("[a-z][a-z-]*|v\\d+");
+
+    private final long requestThresholdMs;
+    private final long statementThresholdMs;
+    private final Ring<SlowRequest> requests;
+    private final Ring<SlowStatement> statements;
+
+    public SlowLog(
+            @Value("${notes.slowlog.request-threshold-ms:500}") long requestThresholdMs,
+            @Value("${notes.slowlog.statement-threshold-ms:100}") long statementThresholdMs,
+            @Value("${notes.slowlog.capacity:100}") int capacity
+    ) {
+        this.requestThresholdMs = requestThresholdMs;
+        this.statementThresholdMs = statementThresholdMs;
+        this.requests = new Ring<>(capacity);
+        this.statements = new Ring<>(capacity);
+    }
+
+    /**
+     * @param phases time per phase in milliseconds (authentication, database, application...)
+     */
+    public record SlowRequest(
+            LocalDateTime at,
+            String method,
+            String route,
+            String path,
+            int status,
+            long durationMs,
+            Map<String, Long> phases,
+            int statements,
+            long rows,
+            List<String> repeatedStatements,
+            String traceId
+    ) {
+    }
+
+    public record SlowStatement(
+            LocalDateTime at,
+            String sql,
+            long durationMs,
+            String route
+    ) {
+    }
+
+    public boolean isSlowRequest(long durationMs) {
+        return durationMs >= requestThresholdMs;
+    }
+
+    public void recordRequest(SlowRequest request) {
+        requests.add(request);
+    }
+
+    public void recordStatement(String sql, long durationMs, String route) {
+        if (durationMs >= statementThresholdMs) {
+            statements.add(new SlowStatement(LocalDateTime.now(), redactSql(sql), durationMs, route));
+        }
+    }
+
+    /**
+     * Slowest first.
+     */
+    public List<SlowRequest> getRequests() {
+        return requests.sortedDescending(SlowRequest::durationMs);
+    }
+
+    /**
+     * Slowest first.
+     */
+    public List<SlowStatement> getStatements() {
+        return statements.sortedDescending(SlowStatement::durationMs);
+    }
+
+    public void clear() {
+        requests.clear();
+        statements.clear();
+    }
+
+    /**
+     * Replace literals by {@code ?}: bind parameters are never captured, inline values are masked.
+     */
+    static String redactSql(String sql) {
+        String redacted = SQL_STRING_LITERAL.matcher(sql).replaceAll("?");
+        redacted = SQL_NUMBER_LITERAL.matcher(redacted).replaceAll("?");
+        return WHITESPACE.matcher(redacted).replaceAll(" ").trim();
+    }
+
+    /**
+     * Keep parameter names, mask their values: {@code query=secret&page=2} becomes {@code query=?&page=?}.
+     */
+    static String redactQueryString(String queryString) {
+        if (queryString == null || queryString.isEmpty()) {
+            return null;
+        }
+        StringBuilder redacted = new StringBuilder();
+        for (String parameter : queryString.split("&")) {
+            if (redacted.length() > 0) {
+                redacted.append('&');
+            }
+            int separator = parameter.indexOf('=');
+            redacted.append(separator >= 0 ? parameter.substring(0, separator) : parameter).append("=?");
+        }
+        return redacted.toString();
+    }
+
+    /**
+     * Mask the path segments that are not plain words: {@code /api/v1/p/Xy7_k2}
+     * becomes {@code /api/v1/p/*}. For requests not matched by a handler yet.
+     */
+    static String redactPath(String path) {
+        if (path == null) {
+            return null;
+        }
+        return Arrays.stream(path.split("/", -1))
+                .map(segment -> segment.isEmpty() || PATH_WORD.matcher(segment).matches() ? segment : "*")
+                .collect(Collectors.joining("/"));
+    }
+
+    /**
+     * Lock-free fixed-size ring: writers claim a slot with a counter and overwrite it.
+     */
+    private static final class Ring<T> {
+
+        private final AtomicReferenceArray<T> slots;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(T entry) {
+            slots.set((int) (next.getAndIncrement() % slots.length()), entry);
+        }
+
+        List<T> sortedDescending(ToLongFunction<T> key) {
+            List<T> entries = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                T entry = slots.get(i);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparingLong(key).reversed());
+            return entries;
+        }
+
+        void clear() {
+            for (int i = 0; i < slots.length(); i++) {
+                slots.set(i, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.notes.api.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/slowlog}: recent slow requests and SQL statements, slowest first.
+ * {@code DELETE /actuator/slowlog} empties both buffers.
+ */
+@Component
+@Endpoint(id = "slowlog")
+@RequiredArgsConstructor
+public class SlowLogEndpoint {
+
+    private final SlowLog slowLog;
+
+    @ReadOperation
+    public Map<String, List<?>> slowLog() {
+        return Map.of(
+                "requests", slowLog.getRequests(),
+                "statements", slowLog.getStatements());
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowLog.clear();
+    }
+}
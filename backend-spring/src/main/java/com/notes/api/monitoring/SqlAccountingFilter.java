@@ -0,0 +1,179 @@
+package com.notes.api.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accounts the SQL activity of each HTTP request, authentication included.
+ *
+ * Publishes notes.sql.statements, notes.sql.rows and notes.sql.time per route,
+ * logs requests over budget and flags statements repeated within a request
+ * (N+1 lazy loading), counted in notes.sql.n_plus_one. Slow requests are kept in
+ * the {@link SlowLog} with their time split into authentication, database and
+ * application phases. Requests are identified by their route template, never
+ * by the raw path.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "notes.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute set by the authentication filter: time spent authenticating, in nanoseconds.
+     */
+    public static final String AUTHENTICATION_TIME_ATTRIBUTE = SqlAccountingFilter.class.getName() + ".authenticationNanos";
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final SlowLog slowLog;
+    private final int statementBudget;
+    private final long timeBudgetMs;
+    private final int nPlusOneThreshold;
+
+    public SqlAccountingFilter(
+            MeterRegistry meterRegistry,
+            SlowLog slowLog,
+            @Value("${notes.sql.budget.statements:20}") int statementBudget,
+            @Value("${notes.sql.budget.time-ms:250}") long timeBudgetMs,
+            @Value("${notes.sql.n-plus-one-threshold:5}") int nPlusOneThreshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.slowLog = slowLog;
+        this.statementBudget = statementBudget;
+        this.timeBudgetMs = timeBudgetMs;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (SqlStatistics.current() != null) {
+            // Already accounted by the caller (tests using SqlAssertions)
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        SqlStatistics statistics = SqlStatistics.start();
+        statistics.setRequest(() -> request.getMethod() + " " + routeOf(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.stop();
+            report(request, response, statistics, (System.nanoTime() - start) / 1_000_000L);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response,
+                        SqlStatistics statistics, long durationMs) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("notes.sql.statements")
+                .description("SQL statements per HTTP request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("notes.sql.rows")
+                .description("Rows fetched per HTTP request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("notes.sql.time")
+                .description("Database time per HTTP request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(statistics.getTimeMillis()));
+
+        List<Map.Entry<String, Integer>> repeated = statistics.getRepeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("notes.sql.n_plus_one", "uri", uri).increment();
+        }
+
+        boolean overBudget = statistics.getStatements() > statementBudget || statistics.getTimeMillis() > timeBudgetMs;
+        if (overBudget || !repeated.isEmpty()) {
+            StringBuilder message = new StringBuilder()
+                    .append(request.getMethod()).append(' ').append(routeOf(request))
+                    .append(" : ").append(statistics.getStatements()).append(" requête(s) SQL, ")
+                    .append(statistics.getRows()).append(" ligne(s), ")
+                    .append(statistics.getTimeMillis()).append(" ms");
+            for (Map.Entry<String, Integer> entry : repeated) {
+                message.append("\n  N+1 probable (").append(entry.getValue()).append("x) : ")
+                        .append(abbreviate(entry.getKey()));
+            }
+            log.warn("Budget SQL dépassé : {}", message);
+        }
+
+        if (slowLog.isSlowRequest(durationMs)) {
+            recordSlowRequest(request, response, statistics, uri, durationMs, repeated);
+        }
+    }
+
+    private void recordSlowRequest(HttpServletRequest request, HttpServletResponse response, SqlStatistics statistics,
+                                   String uri, long durationMs, List<Map.Entry<String, Integer>> repeated) {
+        Object authenticationNanos = request.getAttribute(AUTHENTICATION_TIME_ATTRIBUTE);
+        long authenticationMs = authenticationNanos instanceof Long nanos ? nanos / 1_000_000L : 0L;
+        // Authentication SQL (user lookup) is counted in the database phase
+        long databaseMs = statistics.getTimeMillis();
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        phases.put("authentication", authenticationMs);
+        phases.put("database", databaseMs);
+        phases.put("application", Math.max(0L, durationMs - authenticationMs - databaseMs));
+
+        String path = SlowLog.redactPath(request.getRequestURI());
+        String query = SlowLog.redactQueryString(request.getQueryString());
+        slowLog.recordRequest(new SlowLog.SlowRequest(
+                LocalDateTime.now(),
+                request.getMethod(),
+                uri,
+                query != null ? path + "?" + query : path,
+                response.getStatus(),
+                durationMs,
+                phases,
+                statistics.getStatements(),
+                statistics.getRows(),
+                repeated.stream().map(entry -> entry.getValue() + "x " + SlowLog.redactSql(entry.getKey())).toList(),
+                MDC.get("traceId")));
+    }
+
+    /**
+     * Route template once a handler matched, otherwise the path with its
+     * variables masked: ids and public link tokens are never recorded.
+     */
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : SlowLog.redactPath(request.getRequestURI());
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ");
+        return singleLine.length() <= MAX_LOGGED_SQL_LENGTH
+                ? singleLine
+                : singleLine.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,64 @@
+package com.notes.api.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * datasource-proxy listener feeding the {@link SqlStatistics} of the current request
+ * and the slow statement log.
+ */
+public class SqlAccountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private final Supplier<SlowLog> slowLog;
+
+    /**
+     * @param slowLog supplies the slow log once available, may supply null
+     */
+    public SqlAccountingListener(Supplier<SlowLog> slowLog) {
+        this.slowLog = slowLog;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatistics statistics = SqlStatistics.current();
+        SlowLog log = slowLog.get();
+        // A batch of several statements shares one elapsed time
+        long elapsed = execInfo.getElapsedTime();
+        for (QueryInfo query : queryInfoList) {
+            if (statistics != null) {
+                statistics.recordStatement(query.getQuery(), elapsed);
+            }
+            if (log != null) {
+                log.recordStatement(query.getQuery(), elapsed, statistics != null ? statistics.getRequest() : "background");
+            }
+            elapsed = 0;
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics != null) {
+                statistics.recordRow();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.notes.api.monitoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * SQL activity of the current request: statements, fetched rows and database time.
+ *
+ * Bound to the request thread by {@link SqlAccountingFilter} and fed by
+ * {@link SqlAccountingListener}. Work done on other threads (scheduled jobs,
+ * async streaming) is not attributed to any request.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private Supplier<String> request;
+    private int statements;
+    private long rows;
+    private long timeMillis;
+    private final Map<String, Integer> executionsBySql = new LinkedHashMap<>();
+
+    /**
+     * Start accounting on the current thread, replacing any previous statistics.
+     */
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of the current thread, or null outside of an accounted request
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return "METHOD route" of the accounted request, without path variables, or null
+     */
+    public String getRequest() {
+        return request != null ? request.get() : null;
+    }
+
+    /**
+     * Resolved when read: the route is only known once a handler matched the request.
+     */
+    void setRequest(Supplier<String> request) {
+        this.request = request;
+    }
+
+    void recordStatement(String sql, long elapsedMillis) {
+        statements++;
+        timeMillis += elapsedMillis;
+        executionsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Statements executed at least {@code threshold} times, most repeated first:
+     * the usual signature of lazy loads in a loop (N+1).
+     */
+    public List<Map.Entry<String, Integer>> getRepeatedStatements(int threshold) {
+        return executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every distinct statement with its execution count, in execution order.
+     */
+    public Map<String, Integer> getExecutionsBySql() {
+        return Collections.unmodifiableMap(executionsBySql);
+    }
+}
@@ -0,0 +1,37 @@
+package com.notes.api.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Development aid: reports the SQL activity of the request in response headers
+ * (X-SQL-Statements, X-SQL-Rows, X-SQL-Time-Ms), written just before the body.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "notes.sql.accounting.headers", havingValue = "true")
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set("X-SQL-Statements", String.valueOf(statistics.getStatements()));
+            response.getHeaders().set("X-SQL-Rows", String.valueOf(statistics.getRows()));
+            response.getHeaders().set("X-SQL-Time-Ms", String.valueOf(statistics.getTimeMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,139 @@
+package com.notes.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to the {@code background_jobs} table of the current shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BackgroundJobRepository {
+
+    private static final String COLUMNS =
+            "id, type, status, user_id, target_user_id, phase, shard, processed, total, attempts, " +
+            "last_error, created_at, updated_at, finished_at";
+
+    private static final RowMapper<Job> JOB = (rs, rowNum) -> new Job(
+            rs.getObject("id", UUID.class),
+            Type.valueOf(rs.getString("type")),
+            Status.valueOf(rs.getString("status")),
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("target_user_id", UUID.class),
+            Phase.valueOf(rs.getString("phase")),
+            rs.getInt("shard"),
+            rs.getLong("processed"),
+            rs.getLong("total"),
+            rs.getInt("attempts"),
+            rs.getString("last_error"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")),
+            toLocalDateTime(rs.getTimestamp("finished_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum Type {
+        DELETE_ACCOUNT,
+        TRANSFER_NOTES
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Where a job stands. Account deletion goes through every phase, in order;
+     * a transfer only through {@link #NOTES}.
+     */
+    public enum Phase {
+        NOTES,
+        SHARES,
+        USER,
+        DONE
+    }
+
+    public record Job(UUID id, Type type, Status status, UUID userId, UUID targetUserId, Phase phase, int shard,
+                      long processed, long total, int attempts, String lastError,
+                      LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime finishedAt) {
+    }
+
+    /**
+     * @throws org.springframework.dao.DuplicateKeyException if the user already has an unfinished job
+     */
+    public Job insert(Type type, UUID userId, UUID targetUserId, long total) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO background_jobs (type, user_id, target_user_id, phase, total) " +
+                "VALUES (?, ?, ?, ?, ?) RETURNING " + COLUMNS,
+                JOB,
+                type.name(), userId, targetUserId, Phase.NOTES.name(), total);
+    }
+
+    public Optional<Job> findByIdAndUserId(UUID id, UUID userId) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM background_jobs WHERE id = ? AND user_id = ?",
+                JOB,
+                id, userId).stream().findFirst();
+    }
+
+    /**
+     * Take the oldest job that is pending, or running under an expired lease
+     * (its instance died), and lease it for {@code leaseMillis}.
+     */
+    public Optional<Job> claim(long leaseMillis) {
+        return jdbcTemplate.query(
+                "UPDATE background_jobs SET status = 'RUNNING', attempts = attempts + 1, " +
+                "locked_until = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'), updated_at = CURRENT_TIMESTAMP " +
+                "WHERE id = (" +
+                "  SELECT id FROM background_jobs WHERE status = 'PENDING' " +
+                "  OR (status = 'RUNNING' AND locked_until < CURRENT_TIMESTAMP) " +
+                "  ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+                "RETURNING " + COLUMNS,
+                JOB,
+                leaseMillis).stream().findFirst();
+    }
+
+    /**
+     * Record the progress of a chunk and extend the lease. Run in the
+     * transaction of the chunk when it touched the same shard, so that both
+     * commit together.
+     */
+    public void progress(UUID id, Phase phase, int shard, long processed, long leaseMillis) {
+        jdbcTemplate.update(
+                "UPDATE background_jobs SET phase = ?, shard = ?, processed = processed + ?, " +
+                "locked_until = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'), updated_at = CURRENT_TIMESTAMP " +
+                "WHERE id = ?",
+                phase.name(), shard, processed, leaseMillis, id);
+    }
+
+    public void complete(UUID id) {
+        jdbcTemplate.update(
+                "UPDATE background_jobs SET status = 'COMPLETED', phase = 'DONE', locked_until = NULL, " +
+                "updated_at = CURRENT_TIMESTAMP, finished_at = CURRENT_TIMESTAMP WHERE id = ?",
+                id);
+    }
+
+    /**
+     * Give the job back for a later attempt, or fail it for good.
+     */
+    public void release(UUID id, String error, boolean failed) {
+        jdbcTemplate.update(
+                "UPDATE background_jobs SET status = CASE WHEN ? THEN 'FAILED' ELSE 'PENDING' END, " +
+                "last_error = ?, locked_until = NULL, updated_at = CURRENT_TIMESTAMP, " +
+                "finished_at = CASE WHEN ? THEN CURRENT_TIMESTAMP END WHERE id = ?",
+                failed, error, failed, id);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
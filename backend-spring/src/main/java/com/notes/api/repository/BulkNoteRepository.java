@@ -0,0 +1,125 @@
+package com.notes.api.repository;
+
+import com.notes.api.entity.Note;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC chunks of the background jobs working on all the notes of a user
+ * (see {@link BackgroundJobRepository}). Notes in the trash included.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkNoteRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OwnedNote(UUID id, Note.Visibility visibility) {
+    }
+
+    public long countOwnedNotes(UUID ownerId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notes WHERE owner_id = ?", Long.class, ownerId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Lock the next {@code limit} notes of the owner until the end of the
+     * current transaction. Waits for notes being edited, so that none is left
+     * behind.
+     */
+    public List<OwnedNote> lockOwnedNotes(UUID ownerId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, visibility FROM notes WHERE owner_id = ? LIMIT ? FOR UPDATE",
+                (rs, rowNum) -> new OwnedNote(
+                        rs.getObject("id", UUID.class),
+                        Note.Visibility.valueOf(rs.getString("visibility"))),
+                ownerId, limit);
+    }
+
+    /**
+     * Users each of these notes is shared with.
+     */
+    public Map<UUID, Set<UUID>> findReaders(List<UUID> noteIds) {
+        Map<UUID, Set<UUID>> readers = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT note_id, shared_with_user_id FROM shares WHERE note_id = ANY (?)",
+                rs -> {
+                    readers.computeIfAbsent(rs.getObject("note_id", UUID.class), id -> new HashSet<>())
+                            .add(rs.getObject("shared_with_user_id", UUID.class));
+                },
+                (Object) noteIds.toArray(UUID[]::new));
+        return readers;
+    }
+
+    /**
+     * Tags, shares, public links and revisions go with the notes.
+     */
+    public int deleteNotes(UUID ownerId, List<UUID> noteIds) {
+        return jdbcTemplate.update(
+                "DELETE FROM notes WHERE owner_id = ? AND id = ANY (?)",
+                ownerId, noteIds.toArray(UUID[]::new));
+    }
+
+    /**
+     * Give the notes to {@code targetId}. Their rows, and those of their tags,
+     * move to the partitions of the new owner; the shares with the new owner
+     * are dropped, and notes left shared with nobody become private again.
+     */
+    public int transferNotes(UUID ownerId, UUID targetId, List<UUID> noteIds) {
+        UUID[] ids = noteIds.toArray(UUID[]::new);
+        int moved = jdbcTemplate.update(
+                "UPDATE notes SET owner_id = ?, updated_at = CURRENT_TIMESTAMP WHERE owner_id = ? AND id = ANY (?)",
+                targetId, ownerId, ids);
+        jdbcTemplate.update("DELETE FROM shares WHERE shared_with_user_id = ? AND note_id = ANY (?)", targetId, ids);
+        jdbcTemplate.update(
+                "UPDATE notes n SET visibility = 'PRIVATE' WHERE n.owner_id = ? AND n.id = ANY (?) " +
+                "AND n.visibility = 'SHARED' AND NOT EXISTS (SELECT 1 FROM shares s WHERE s.note_id = n.id)",
+                targetId, ids);
+        return moved;
+    }
+
+    /**
+     * A share deleted by {@link #deleteSharesWith}, with the visibility of its
+     * note before and after.
+     */
+    public record DeletedShare(UUID noteId, UUID ownerId, Note.Visibility previousVisibility,
+                               Note.Visibility visibility) {
+    }
+
+    /**
+     * Shares with a user, whichever shard the owner of the note lives on. Notes
+     * left shared with nobody become private again, as when a share is revoked.
+     */
+    public List<DeletedShare> deleteSharesWith(UUID userId, int limit) {
+        // Every part of the statement sees the shares as they were before the delete
+        return jdbcTemplate.query(
+                "WITH deleted AS (" +
+                "  DELETE FROM shares WHERE id IN (" +
+                "    SELECT id FROM shares WHERE shared_with_user_id = ? LIMIT ? FOR UPDATE)" +
+                "  RETURNING note_id), " +
+                "unshared AS (" +
+                "  UPDATE notes n SET visibility = 'PRIVATE' WHERE n.id IN (SELECT note_id FROM deleted) " +
+                "  AND n.visibility = 'SHARED' AND NOT EXISTS (" +
+                "    SELECT 1 FROM shares s WHERE s.note_id = n.id AND s.shared_with_user_id <> ?)" +
+                "  RETURNING n.id) " +
+                "SELECT n.id, n.owner_id, n.visibility, u.id IS NOT NULL AS unshared " +
+                "FROM deleted d JOIN notes n ON n.id = d.note_id LEFT JOIN unshared u ON u.id = n.id",
+                (rs, rowNum) -> {
+                    Note.Visibility previous = Note.Visibility.valueOf(rs.getString("visibility"));
+                    return new DeletedShare(
+                            rs.getObject("id", UUID.class),
+                            rs.getObject("owner_id", UUID.class),
+                            previous,
+                            rs.getBoolean("unshared") ? Note.Visibility.PRIVATE : previous);
+                },
+                userId, limit, userId);
+    }
+}
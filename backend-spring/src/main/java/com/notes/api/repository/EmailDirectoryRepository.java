@@ -0,0 +1,66 @@
+package com.notes.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to the {@code email_directory} table, on the current shard.
+ * See {@link com.notes.api.service.UserDirectory} for the shard it lives on.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailDirectoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve the email for a user about to be inserted. A reservation left
+     * unassigned for longer than {@code staleSeconds} is taken over.
+     *
+     * @return false if the email belongs, or is being registered, to someone else
+     */
+    public boolean claim(String email, long staleSeconds) {
+        return jdbcTemplate.update(
+                "INSERT INTO email_directory (email) VALUES (?) " +
+                "ON CONFLICT (email) DO UPDATE SET claimed_at = CURRENT_TIMESTAMP " +
+                "WHERE email_directory.user_id IS NULL " +
+                "AND email_directory.claimed_at < CURRENT_TIMESTAMP - make_interval(secs => ?)",
+                email, staleSeconds) == 1;
+    }
+
+    public void assign(String email, UUID userId) {
+        jdbcTemplate.update("UPDATE email_directory SET user_id = ? WHERE email = ?", userId, email);
+    }
+
+    /**
+     * Drop a reservation whose user could not be inserted.
+     */
+    public void release(String email) {
+        jdbcTemplate.update("DELETE FROM email_directory WHERE email = ? AND user_id IS NULL", email);
+    }
+
+    /**
+     * Record a user registered before the directory existed.
+     */
+    public void backfill(String email, UUID userId) {
+        jdbcTemplate.update(
+                "INSERT INTO email_directory (email, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                email, userId);
+    }
+
+    public Optional<UUID> findUserId(String email) {
+        List<UUID> ids = jdbcTemplate.queryForList(
+                "SELECT user_id FROM email_directory WHERE email = ? AND user_id IS NOT NULL",
+                UUID.class, email);
+        return ids.stream().findFirst();
+    }
+
+    public void deleteByUserId(UUID userId) {
+        jdbcTemplate.update("DELETE FROM email_directory WHERE user_id = ?", userId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.notes.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC batches of the background maintenance.
+ *
+ * Each method is one statement, run in its own short transaction, touching at
+ * most {@code limit} rows. Rows locked by another transaction, including
+ * another instance running the same batch, are skipped rather than waited for.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MaintenanceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Delete for good notes in the trash for more than {@code retentionMillis}.
+     * Their tags, shares, public links and revisions go with them.
+     */
+    public int purgeDeletedNotes(long retentionMillis, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM notes WHERE (id, owner_id) IN (" +
+                "  SELECT id, owner_id FROM notes " +
+                "  WHERE deleted_at < CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond') " +
+                "  LIMIT ? FOR UPDATE SKIP LOCKED)",
+                retentionMillis, limit);
+    }
+
+    /**
+     * Delete change log rows older than {@code retentionMillis}, and move the
+     * purge mark past the highest cursor deleted.
+     */
+    public int purgeNoteChanges(long retentionMillis, int limit) {
+        Integer count = jdbcTemplate.queryForObject(
+                "WITH purged AS (" +
+                "  DELETE FROM note_changes WHERE seq IN (" +
+                "    SELECT seq FROM note_changes " +
+                "    WHERE created_at < CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond') " +
+                "    ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "  RETURNING txid, seq), " +
+                "last AS (SELECT txid, seq FROM purged ORDER BY txid DESC, seq DESC LIMIT 1), " +
+                "mark AS (" +
+                "  UPDATE note_changes_purged p SET txid = last.txid, seq = last.seq FROM last " +
+                "  WHERE (last.txid, last.seq) > (p.txid, p.seq)) " +
+                "SELECT COUNT(*) FROM purged",
+                Integer.class, retentionMillis, limit);
+        return count != null ? count : 0;
+    }
+
+    public int deleteExpiredPublicLinks(int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM public_links WHERE id IN (" +
+                "  SELECT id FROM public_links WHERE expires_at < CURRENT_TIMESTAMP " +
+                "  ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)",
+                limit);
+    }
+
+    /**
+     * Start the grace period of tags no note uses anymore.
+     */
+    public int markOrphanTags(int limit) {
+        return jdbcTemplate.update(
+                "UPDATE tags SET orphaned_since = CURRENT_TIMESTAMP WHERE id IN (" +
+                "  SELECT t.id FROM tags t WHERE t.orphaned_since IS NULL " +
+                "  AND NOT EXISTS (SELECT 1 FROM note_tags nt WHERE nt.tag_id = t.id) " +
+                "  LIMIT ? FOR UPDATE SKIP LOCKED)",
+                limit);
+    }
+
+    /**
+     * End the grace period of orphan tags used again.
+     */
+    public int unmarkUsedTags(int limit) {
+        return jdbcTemplate.update(
+                "UPDATE tags SET orphaned_since = NULL WHERE id IN (" +
+                "  SELECT t.id FROM tags t WHERE t.orphaned_since IS NOT NULL " +
+                "  AND EXISTS (SELECT 1 FROM note_tags nt WHERE nt.tag_id = t.id) " +
+                "  LIMIT ? FOR UPDATE SKIP LOCKED)",
+                limit);
+    }
+
+    /**
+     * Delete tags still unused after {@code graceMillis}. A note being tagged
+     * holds a lock on its tag until it commits, so that tag is skipped.
+     */
+    public int deleteOrphanTags(long graceMillis, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM tags WHERE id IN (" +
+                "  SELECT t.id FROM tags t " +
+                "  WHERE t.orphaned_since < CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond') " +
+                "  AND NOT EXISTS (SELECT 1 FROM note_tags nt WHERE nt.tag_id = t.id) " +
+                "  LIMIT ? FOR UPDATE SKIP LOCKED)",
+                graceMillis, limit);
+    }
+}
@@ -0,0 +1,115 @@
+package com.notes.api.repository;
+
+import com.notes.api.event.NoteChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only change log used by incremental sync.
+ *
+ * Written through JDBC inside the caller's transaction, so a change is
+ * recorded if and only if the domain write commits.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NoteChangeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Position in the change log: transaction id, then sequence inside it.
+     */
+    public record Cursor(BigInteger txid, long seq) {
+
+        public static final Cursor START = new Cursor(BigInteger.ZERO, 0L);
+
+        public static Cursor parse(String value) {
+            int separator = value.indexOf('-');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid sync cursor");
+            }
+            try {
+                return new Cursor(new BigInteger(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid sync cursor");
+            }
+        }
+
+        public boolean isBefore(Cursor other) {
+            int byTxid = txid.compareTo(other.txid);
+            return byTxid < 0 || (byTxid == 0 && seq < other.seq);
+        }
+
+        @Override
+        public String toString() {
+            return txid + "-" + seq;
+        }
+    }
+
+    public record Change(Cursor cursor, UUID noteId, NoteChangedEvent.Kind kind) {
+    }
+
+    /**
+     * @param userId null for a change that concerns every user
+     */
+    public void append(UUID noteId, UUID userId, NoteChangedEvent.Kind kind) {
+        jdbcTemplate.update("INSERT INTO note_changes (note_id, user_id, kind) VALUES (?, ?, ?)",
+                noteId, userId, kind.name());
+    }
+
+    /**
+     * Changes visible to a user after the cursor, oldest first, restricted to
+     * transactions older than any transaction still running.
+     *
+     * A transaction that stays open therefore holds back every client, not
+     * just those it concerns: changes committed after it started are returned
+     * only once it ends. Long transactions on this database delay sync by as
+     * much as they last.
+     */
+    public List<Change> findAfter(UUID userId, Cursor after, int limit) {
+        String stable = "txid < pg_snapshot_xmin(pg_current_snapshot())";
+        return jdbcTemplate.query(
+                "SELECT * FROM (" +
+                "  (SELECT txid, seq, note_id, kind FROM note_changes " +
+                "   WHERE user_id = ? AND (txid, seq) > (?::text::xid8, ?) AND " + stable +
+                "   ORDER BY txid, seq LIMIT ?) " +
+                "  UNION ALL " +
+                "  (SELECT txid, seq, note_id, kind FROM note_changes " +
+                "   WHERE user_id IS NULL AND (txid, seq) > (?::text::xid8, ?) AND " + stable +
+                "   ORDER BY txid, seq LIMIT ?)" +
+                ") changes ORDER BY txid, seq LIMIT ?",
+                (rs, rowNum) -> new Change(
+                        new Cursor(new BigInteger(rs.getString("txid")), rs.getLong("seq")),
+                        rs.getObject("note_id", UUID.class),
+                        NoteChangedEvent.Kind.valueOf(rs.getString("kind"))),
+                userId, after.txid().toString(), after.seq(), limit,
+                after.txid().toString(), after.seq(), limit,
+                limit);
+    }
+
+    /**
+     * Highest position removed by the retention of the change log: a cursor
+     * before it may have missed changes.
+     */
+    public Cursor purgedUpTo() {
+        return jdbcTemplate.queryForObject(
+                "SELECT txid::text AS txid, seq FROM note_changes_purged",
+                (rs, rowNum) -> new Cursor(new BigInteger(rs.getString("txid")), rs.getLong("seq")));
+    }
+
+    /**
+     * Cursor from which a client that just loaded the full list can start syncing.
+     */
+    public Cursor currentCursor() {
+        String xmin = jdbcTemplate.queryForObject(
+                "SELECT (pg_snapshot_xmin(pg_current_snapshot()))::text", String.class);
+        // Everything from transactions below xmin is already visible in the full list
+        return new Cursor(new BigInteger(xmin).subtract(BigInteger.ONE), Long.MAX_VALUE);
+    }
+}
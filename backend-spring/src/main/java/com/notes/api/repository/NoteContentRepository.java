@@ -0,0 +1,184 @@
+package com.notes.api.repository;
+
+import com.notes.api.dto.note.NoteContentDescriptor;
+import com.notes.api.entity.CompressedText;
+import com.notes.api.entity.Note;
+import com.notes.api.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Raw access to note bodies for streaming, bypassing the JPA entity so that
+ * the whole content is never materialized as a String.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NoteContentRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Access-control fields and content size of a note, without reading the body.
+     * For compressed bodies only the 5-byte header is fetched.
+     */
+    public record ContentMetadata(UUID ownerId, Note.Visibility visibility, LocalDateTime updatedAt,
+                                  long contentLength) {
+
+        public NoteContentDescriptor toDescriptor(UUID noteId) {
+            return NoteContentDescriptor.builder()
+                    .noteId(noteId)
+                    .contentLength(contentLength)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    public Optional<ContentMetadata> findMetadata(UUID noteId) {
+        List<ContentMetadata> rows = jdbcTemplate.query(
+                "SELECT owner_id, visibility, updated_at, octet_length(content_md) AS plain_length, " +
+                "substring(content_compressed FROM 1 FOR 5) AS compressed_header " +
+                "FROM notes WHERE id = ? AND deleted_at IS NULL",
+                (rs, rowNum) -> {
+                    byte[] header = rs.getBytes("compressed_header");
+                    long length = header != null
+                            ? ((header[1] & 0xFFL) << 24) | ((header[2] & 0xFF) << 16) | ((header[3] & 0xFF) << 8) | (header[4] & 0xFF)
+                            : rs.getLong("plain_length");
+                    return new ContentMetadata(
+                            rs.getObject("owner_id", UUID.class),
+                            Note.Visibility.valueOf(rs.getString("visibility")),
+                            rs.getTimestamp("updated_at").toLocalDateTime(),
+                            length);
+                },
+                noteId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Bytes fetched by each statement while streaming a body.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Write {@code length} bytes of the UTF-8 body starting at {@code offset}.
+     *
+     * The body is read in chunks of {@link #CHUNK_SIZE} bytes, each by its own
+     * short statement, and every chunk is written before the next one is
+     * fetched: memory stays bounded whatever the size of the note, and no
+     * connection is held while a slow client downloads. Plain bodies are
+     * sliced from the requested offset; compressed bodies are inflated as
+     * their stored bytes arrive and skipped forward.
+     *
+     * Every chunk is only read if the row is still at {@code expectedUpdatedAt}.
+     *
+     * @throws ResourceNotFoundException if the note changed or was deleted
+     *                                   before or during the copy
+     */
+    public void streamContent(UUID noteId, LocalDateTime expectedUpdatedAt, long offset, long length, OutputStream out) {
+        Timestamp updatedAt = Timestamp.valueOf(expectedUpdatedAt);
+        Boolean compressed = jdbcTemplate.query(
+                "SELECT content_compressed IS NOT NULL AS compressed " +
+                "FROM notes WHERE id = ? AND updated_at = ? AND deleted_at IS NULL",
+                rs -> rs.next() ? rs.getBoolean("compressed") : null,
+                noteId, updatedAt);
+        if (compressed == null) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+
+        try (InputStream in = compressed
+                ? CompressedText.inflate(new ChunkedColumn(noteId, updatedAt, "content_compressed",
+                        CompressedText.HEADER_SIZE))
+                : new ChunkedColumn(noteId, updatedAt, "convert_to(content_md, 'UTF8')", offset)) {
+            if (compressed) {
+                in.skipNBytes(offset);
+            }
+            byte[] buffer = new byte[8192];
+            long remaining = length;
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+                remaining -= n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A bytea expression of a note row, fetched one chunk at a time from a
+     * 0-based byte position.
+     */
+    private final class ChunkedColumn extends InputStream {
+
+        private final UUID noteId;
+        private final Timestamp updatedAt;
+        private final String sql;
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int index;
+        private boolean exhausted;
+
+        ChunkedColumn(UUID noteId, Timestamp updatedAt, String expression, long position) {
+            this.noteId = noteId;
+            this.updatedAt = updatedAt;
+            this.sql = "SELECT substring(" + expression + " FROM ?::int FOR ?::int) AS chunk " +
+                    "FROM notes WHERE id = ? AND updated_at = ? AND deleted_at IS NULL";
+            this.position = position;
+        }
+
+        @Override
+        public int read() {
+            return fill() ? chunk[index++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.length - index);
+            System.arraycopy(chunk, index, buffer, off, n);
+            index += n;
+            return n;
+        }
+
+        /**
+         * @return false at the end of the value
+         */
+        private boolean fill() {
+            if (index < chunk.length) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            List<byte[]> rows = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getBytes("chunk"),
+                    Math.toIntExact(position + 1), CHUNK_SIZE, noteId, updatedAt);
+            if (rows.isEmpty()) {
+                throw new ResourceNotFoundException("Note not found");
+            }
+            byte[] next = rows.get(0);
+            chunk = next != null ? next : new byte[0];
+            index = 0;
+            position += chunk.length;
+            exhausted = chunk.length < CHUNK_SIZE;
+            return chunk.length > 0;
+        }
+    }
+}
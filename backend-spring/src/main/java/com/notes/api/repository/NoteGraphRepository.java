@@ -0,0 +1,107 @@
+package com.notes.api.repository;
+
+import com.notes.api.dto.graphql.ShareNode;
+import com.notes.api.dto.graphql.UserNode;
+import com.notes.api.dto.share.PublicLinkResponse;
+import com.notes.api.entity.Share;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC batch queries behind the GraphQL data loaders: one statement for a
+ * whole set of notes or users, on the current shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NoteGraphRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Notes shared with nobody are left out.
+     */
+    public Map<UUID, Integer> countShares(Collection<UUID> noteIds) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT note_id, COUNT(*) AS shares FROM shares WHERE note_id = ANY (?) GROUP BY note_id",
+                rs -> {
+                    counts.put(rs.getObject("note_id", UUID.class), rs.getInt("shares"));
+                },
+                (Object) toArray(noteIds));
+        return counts;
+    }
+
+    public Map<UUID, List<ShareNode>> findShares(Collection<UUID> noteIds) {
+        Map<UUID, List<ShareNode>> shares = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, note_id, shared_with_user_id, permission, created_at FROM shares " +
+                "WHERE note_id = ANY (?) ORDER BY created_at",
+                rs -> {
+                    UUID noteId = rs.getObject("note_id", UUID.class);
+                    shares.computeIfAbsent(noteId, id -> new ArrayList<>()).add(ShareNode.builder()
+                            .id(rs.getString("id"))
+                            .noteId(noteId.toString())
+                            .sharedWithUserId(rs.getString("shared_with_user_id"))
+                            .permission(Share.Permission.valueOf(rs.getString("permission")))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .build());
+                },
+                (Object) toArray(noteIds));
+        return shares;
+    }
+
+    /**
+     * The latest link of each note that has one not expired.
+     */
+    public Map<UUID, PublicLinkResponse> findPublicLinks(Collection<UUID> noteIds) {
+        Map<UUID, PublicLinkResponse> links = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT DISTINCT ON (note_id) id, note_id, url_token, expires_at, created_at FROM public_links " +
+                "WHERE note_id = ANY (?) AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP) " +
+                "ORDER BY note_id, created_at DESC",
+                rs -> {
+                    UUID noteId = rs.getObject("note_id", UUID.class);
+                    String token = rs.getString("url_token");
+                    links.put(noteId, PublicLinkResponse.builder()
+                            .id(rs.getString("id"))
+                            .noteId(noteId.toString())
+                            .urlToken(token)
+                            .publicUrl("/p/" + token)
+                            .expiresAt(toLocalDateTime(rs.getTimestamp("expires_at")))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .build());
+                },
+                (Object) toArray(noteIds));
+        return links;
+    }
+
+    public Map<UUID, UserNode> findUsers(Collection<UUID> userIds) {
+        Map<UUID, UserNode> users = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, email FROM users WHERE id = ANY (?)",
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    users.put(id, new UserNode(id.toString(), rs.getString("email")));
+                },
+                (Object) toArray(userIds));
+        return users;
+    }
+
+    private static UUID[] toArray(Collection<UUID> ids) {
+        return ids.toArray(UUID[]::new);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -2,9 +2,12 @@ package com.notes.api.repository;
 
 import com.notes.api.entity.Note;
 import com.notes.api.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,10 +19,22 @@ import java.util.UUID;
 public interface NoteRepository extends JpaRepository<Note, UUID> {
     
     Page<Note> findByOwner(User owner, Pageable pageable);
+
+    /**
+     * The note, locked until the end of the transaction: concurrent updates of
+     * the same note take turns, so each records its revision after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Note n WHERE n.id = :id")
+    Optional<Note> findByIdForUpdate(@Param("id") UUID id);
     
+    /**
+     * Compressed bodies cannot be matched in SQL: they are returned as candidates
+     * and filtered in memory by the service.
+     */
     @Query("SELECT n FROM Note n WHERE n.owner = :owner AND " +
            "(:query IS NULL OR :query = '' OR LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(n.contentMd) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
+           "LOWER(n.contentMd) LIKE LOWER(CONCAT('%', :query, '%')) OR n.contentCompressed IS NOT NULL) AND " +
            "(:visibility IS NULL OR n.visibility = :visibility)")
     Page<Note> searchNotes(
         @Param("owner") User owner,
@@ -28,7 +43,12 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
         Pageable pageable
     );
     
-    @Query("SELECT n FROM Note n JOIN n.tags t WHERE n.owner = :owner AND t.label = :tagLabel")
+    /**
+     * Both notes and note_tags are restricted to the owner's partition.
+     */
+    @Query("SELECT n FROM Note n WHERE n.owner = :owner AND EXISTS (" +
+           "SELECT 1 FROM NoteTagLink l, Tag t WHERE l.ownerId = :#{#owner.id} AND l.noteId = n.id " +
+           "AND l.tagId = t.id AND t.label = :tagLabel)")
     Page<Note> findByOwnerAndTag(
         @Param("owner") User owner,
         @Param("tagLabel") String tagLabel,
@@ -43,11 +63,30 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     
     @Query("SELECT n FROM Note n WHERE n.visibility = 'PUBLIC' AND n.owner <> :currentUser AND " +
            "(:query IS NULL OR :query = '' OR LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(n.contentMd) LIKE LOWER(CONCAT('%', :query, '%')))")
+           "LOWER(n.contentMd) LIKE LOWER(CONCAT('%', :query, '%')) OR n.contentCompressed IS NOT NULL)")
     Page<Note> findPublicNotes(
         @Param("currentUser") User currentUser,
         @Param("query") String query,
         Pageable pageable
     );
-}
 
+    /**
+     * The owner's notes in the trash, most recently deleted first. Native:
+     * HQL never sees them.
+     */
+    @Query(value = "SELECT * FROM notes WHERE owner_id = :ownerId AND deleted_at IS NOT NULL ORDER BY deleted_at DESC",
+           countQuery = "SELECT COUNT(*) FROM notes WHERE owner_id = :ownerId AND deleted_at IS NOT NULL",
+           nativeQuery = true)
+    Page<Note> findTrash(@Param("ownerId") UUID ownerId, Pageable pageable);
+
+    /**
+     * Take a note of the owner out of the trash.
+     *
+     * @return 0 if the owner has no such note in the trash
+     */
+    @Modifying
+    @Query(value = "UPDATE notes SET deleted_at = NULL, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE id = :id AND owner_id = :ownerId AND deleted_at IS NOT NULL",
+           nativeQuery = true)
+    int restore(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+}
@@ -0,0 +1,38 @@
+package com.notes.api.repository;
+
+import com.notes.api.entity.NoteRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, UUID> {
+
+    /**
+     * Lightweight view of a revision, without its payload.
+     */
+    interface Summary {
+        int getRevisionNumber();
+        String getTitle();
+        int getContentLength();
+        LocalDateTime getCreatedAt();
+    }
+
+    List<Summary> findByNoteIdOrderByRevisionNumberDesc(UUID noteId);
+
+    Optional<NoteRevision> findTopByNoteIdOrderByRevisionNumberDesc(UUID noteId);
+
+    List<NoteRevision> findByNoteIdAndRevisionNumberBetweenOrderByRevisionNumberDesc(
+        UUID noteId, int fromRevision, int toRevision
+    );
+
+    @Query("SELECT MIN(r.revisionNumber) FROM NoteRevision r WHERE r.note.id = :noteId " +
+           "AND r.revisionNumber >= :revision AND r.storage = 'SNAPSHOT'")
+    Integer findNearestSnapshotAtOrAfter(@Param("noteId") UUID noteId, @Param("revision") int revision);
+}
@@ -0,0 +1,127 @@
+package com.notes.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the {@code outbox_events} table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    /**
+     * Advisory lock key held by the active dispatcher ("outbox" in ASCII).
+     */
+    private static final long DISPATCHER_LOCK = 0x6f7574626f78L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PendingEvent(long id, UUID noteId, String payload, LocalDateTime createdAt, int attempts) {
+    }
+
+    public record Backlog(long pending, long dead, double oldestAgeSeconds) {
+    }
+
+    /**
+     * Append an event in the current transaction, which must be the one that
+     * changed the note.
+     *
+     * Ids are drawn at insert, not at commit: the note row is locked first, so
+     * that two transactions changing the same note draw their ids in the order
+     * they commit, whichever service path wrote them. The lock is held until
+     * commit and is a no-op when the transaction already holds it (update,
+     * delete). A note hard-deleted by the transaction has no row left to lock,
+     * and its deletion already locks out other writers.
+     */
+    public void append(UUID noteId, String eventType, String payload) {
+        jdbcTemplate.query("SELECT 1 FROM notes WHERE id = ? FOR NO KEY UPDATE", rs -> null, noteId);
+        jdbcTemplate.update("INSERT INTO outbox_events (note_id, event_type, payload) VALUES (?, ?, ?::jsonb)",
+                noteId, eventType, payload);
+    }
+
+    /**
+     * Take the dispatcher lock until the end of the current transaction.
+     * Only one instance claims events at a time; with the lease on claimed
+     * events, this keeps per-note ordering.
+     */
+    public boolean tryLockDispatcher() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, DISPATCHER_LOCK));
+    }
+
+    /**
+     * Oldest pending events, skipping every note whose head event is waiting for a retry.
+     * For a given note, id order is commit order (see {@link #append}).
+     */
+    public List<PendingEvent> findDeliverable(int limit) {
+        return jdbcTemplate.query(
+                "SELECT o.id, o.note_id, o.payload::text AS payload, o.created_at, o.attempts FROM outbox_events o " +
+                "WHERE o.dead_at IS NULL AND NOT EXISTS (" +
+                "  SELECT 1 FROM outbox_events b WHERE b.note_id = o.note_id AND b.dead_at IS NULL " +
+                "  AND b.id <= o.id AND b.available_at > CURRENT_TIMESTAMP) " +
+                "ORDER BY o.id LIMIT ?",
+                (rs, rowNum) -> new PendingEvent(
+                        rs.getLong("id"),
+                        rs.getObject("note_id", UUID.class),
+                        rs.getString("payload"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getInt("attempts")),
+                limit);
+    }
+
+    /**
+     * Hide claimed events from other dispatch cycles while they are delivered.
+     * Until the lease ends, later events of the same notes wait as well.
+     */
+    public void lease(List<Long> ids, long leaseMs) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET available_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') " +
+                "WHERE id = ANY (?)",
+                leaseMs, (Object) ids.toArray(Long[]::new));
+    }
+
+    /**
+     * Make claimed events that were not attempted deliverable again.
+     */
+    public void release(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE outbox_events SET available_at = CURRENT_TIMESTAMP WHERE id = ANY (?)",
+                (Object) ids.toArray(Long[]::new));
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM outbox_events WHERE id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void markFailed(long id, String error, long retryDelayMs, boolean dead) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET attempts = attempts + 1, last_error = ?, " +
+                "available_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'), " +
+                "dead_at = CASE WHEN ? THEN CURRENT_TIMESTAMP END WHERE id = ?",
+                error, retryDelayMs, dead, id);
+    }
+
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FILTER (WHERE dead_at IS NULL) AS pending, " +
+                "count(*) FILTER (WHERE dead_at IS NOT NULL) AS dead, " +
+                "COALESCE(EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - min(created_at) FILTER (WHERE dead_at IS NULL)), 0) AS oldest " +
+                "FROM outbox_events",
+                (rs, rowNum) -> new Backlog(rs.getLong("pending"), rs.getLong("dead"), rs.getDouble("oldest")));
+    }
+}
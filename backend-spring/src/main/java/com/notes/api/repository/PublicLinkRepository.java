@@ -3,6 +3,8 @@ package com.notes.api.repository;
 import com.notes.api.entity.Note;
 import com.notes.api.entity.PublicLink;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,7 +14,19 @@ import java.util.UUID;
 @Repository
 public interface PublicLinkRepository extends JpaRepository<PublicLink, UUID> {
     
-    Optional<PublicLink> findByUrlToken(String urlToken);
+    /**
+     * Links of live notes only: a note in the trash cannot be loaded.
+     */
+    @Query("SELECT l FROM PublicLink l JOIN FETCH l.note n WHERE l.urlToken = :urlToken AND n.deletedAt IS NULL")
+    Optional<PublicLink> findByUrlToken(@Param("urlToken") String urlToken);
+    
+    /**
+     * The link, unless its note is in the trash.
+     */
+    @Query("SELECT l FROM PublicLink l JOIN FETCH l.note n WHERE l.id = :id AND n.deletedAt IS NULL")
+    Optional<PublicLink> findLiveById(@Param("id") UUID id);
+
+    boolean existsByUrlToken(String urlToken);
     
     List<PublicLink> findByNote(Note note);
     
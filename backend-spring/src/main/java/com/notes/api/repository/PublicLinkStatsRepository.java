@@ -0,0 +1,78 @@
+package com.notes.api.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access to the {@code public_link_stats} table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PublicLinkStatsRepository {
+
+    private static final String SELECT_STATS =
+            "SELECT s.link_id, l.url_token, s.views, s.visitors, s.last_viewed_at " +
+            "FROM public_link_stats s JOIN public_links l ON l.id = s.link_id ";
+
+    private static final RowMapper<Stats> STATS = (rs, rowNum) -> new Stats(
+            rs.getObject("link_id", UUID.class),
+            rs.getString("url_token"),
+            rs.getLong("views"),
+            rs.getBytes("visitors"),
+            toLocalDateTime(rs.getTimestamp("last_viewed_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Stats(UUID linkId, String urlToken, long views, byte[] visitors, LocalDateTime lastViewedAt) {
+    }
+
+    /**
+     * Stats rows of the links with these tokens, created if missing and locked
+     * until the end of the current transaction: flushes from several
+     * instances apply one after the other. Unknown tokens are left out.
+     */
+    public List<Stats> lockByTokens(Collection<String> tokens) {
+        String[] array = tokens.toArray(String[]::new);
+        jdbcTemplate.update(
+                "INSERT INTO public_link_stats (link_id) " +
+                "SELECT id FROM public_links WHERE url_token = ANY (?) ON CONFLICT DO NOTHING",
+                (Object) array);
+        return jdbcTemplate.query(
+                SELECT_STATS + "WHERE l.url_token = ANY (?) ORDER BY s.link_id FOR UPDATE OF s",
+                STATS,
+                (Object) array);
+    }
+
+    public void update(List<Stats> stats) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE public_link_stats SET views = ?, visitors = ?, last_viewed_at = ?, " +
+                "updated_at = CURRENT_TIMESTAMP WHERE link_id = ?",
+                stats, stats.size(),
+                (ps, row) -> {
+                    ps.setLong(1, row.views());
+                    ps.setBytes(2, row.visitors());
+                    ps.setTimestamp(3, row.lastViewedAt() != null ? Timestamp.valueOf(row.lastViewedAt()) : null);
+                    ps.setObject(4, row.linkId());
+                });
+    }
+
+    public Optional<Stats> findByLinkId(UUID linkId) {
+        return jdbcTemplate.query(
+                SELECT_STATS + "WHERE s.link_id = ?",
+                STATS,
+                linkId).stream().findFirst();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -4,6 +4,8 @@ import com.notes.api.entity.Note;
 import com.notes.api.entity.Share;
 import com.notes.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,11 +17,24 @@ public interface ShareRepository extends JpaRepository<Share, UUID> {
     
     List<Share> findByNote(Note note);
     
-    List<Share> findBySharedWithUser(User user);
+    /**
+     * Shares of live notes only: a note in the trash cannot be loaded.
+     */
+    @Query("SELECT s FROM Share s JOIN FETCH s.note n WHERE s.sharedWithUser = :user AND n.deletedAt IS NULL")
+    List<Share> findBySharedWithUser(@Param("user") User user);
     
+    /**
+     * The share, unless its note is in the trash.
+     */
+    @Query("SELECT s FROM Share s JOIN FETCH s.note n WHERE s.id = :id AND n.deletedAt IS NULL")
+    Optional<Share> findLiveById(@Param("id") UUID id);
+
     Optional<Share> findByNoteAndSharedWithUser(Note note, User user);
     
     boolean existsByNoteAndSharedWithUser(Note note, User user);
+
+    @Query("SELECT s.sharedWithUser.id FROM Share s WHERE s.note.id = :noteId")
+    List<UUID> findSharedWithUserIdsByNoteId(@Param("noteId") UUID noteId);
 }
 
 
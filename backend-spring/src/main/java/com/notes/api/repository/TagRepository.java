@@ -1,7 +1,11 @@
 package com.notes.api.repository;
 
+import com.notes.api.entity.CacheRegions;
 import com.notes.api.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +14,10 @@ import java.util.UUID;
 @Repository
 public interface TagRepository extends JpaRepository<Tag, UUID> {
     
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheRegions.TAG_BY_LABEL)
+    })
     Optional<Tag> findByLabel(String label);
     
     boolean existsByLabel(String label);
@@ -0,0 +1,49 @@
+package com.notes.api.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the number of concurrent password hash computations.
+ *
+ * BCrypt is pure CPU work: with virtual threads nothing limits how many logins
+ * hash at the same time, and a burst of logins would starve the carrier threads
+ * that every other request runs on. Waiting on a {@link Semaphore} parks a
+ * virtual thread without pinning its carrier.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore permits;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int maxConcurrentHashes) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrentHashes, true);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        permits.acquireUninterruptibly();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,7 +1,9 @@
 package com.notes.api.security;
 
+import com.notes.api.datasource.ShardedQueries;
 import com.notes.api.entity.User;
 import com.notes.api.repository.UserRepository;
+import com.notes.api.service.UserDirectory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,12 +18,19 @@ import java.util.UUID;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ShardedQueries shardedQueries;
+    private final UserDirectory userDirectory;
 
+    /**
+     * Looks the email up in the {@link UserDirectory}, then routes the rest of
+     * the login request to the shard of the user found.
+     */
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        User user = userDirectory.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        shardedQueries.bindOwner(user.getId());
 
         return UserPrincipal.create(user);
     }
@@ -1,5 +1,10 @@
 package com.notes.api.security;
 
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.monitoring.SqlAccountingFilter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,29 +27,52 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final ObservationRegistry observationRegistry;
+    private final ShardedQueries shardedQueries;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
+        // Authentication only: the rest of the chain is measured by http.server.requests
+        long start = System.nanoTime();
+        Observation observation = Observation.createNotStarted("notes.security.jwt", observationRegistry)
+                .contextualName("jwt-authentication")
+                .start();
+        String outcome = "anonymous";
+        try (Observation.Scope scope = observation.openScope()) {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                UUID userId = tokenProvider.getUserIdFromToken(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            if (StringUtils.hasText(jwt)) {
+                outcome = "invalid";
+                if (tokenProvider.validateToken(jwt)) {
+                    UUID userId = tokenProvider.getUserIdFromToken(jwt);
+                    // Everything the request reads or writes, starting with the user, is on their shard
+                    shardedQueries.bindOwner(userId);
+                    UserDetails userDetails = customUserDetailsService.loadUserById(userId);
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = "authenticated";
+                }
             }
         } catch (Exception ex) {
+            outcome = "error";
+            observation.error(ex);
             logger.error("Could not set user authentication in security context", ex);
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+            request.setAttribute(SqlAccountingFilter.AUTHENTICATION_TIME_ATTRIBUTE, System.nanoTime() - start);
         }
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
@@ -0,0 +1,196 @@
+package com.notes.api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notes.api.exception.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-key rate limiting, ahead of any database work.
+ *
+ * Requests are matched against the route groups of {@code notes.rate-limit.groups},
+ * in order; the first match applies all of its limits, each keyed by the
+ * authenticated user (the IP for anonymous requests), the client IP, or the
+ * {@code {token}} of the path. A request over any limit gets a 429 with
+ * {@code Retry-After}. Runs after JWT authentication, in the security chain.
+ *
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}: behind the
+ * BFF, Tomcat takes it from {@code X-Forwarded-For}
+ * ({@code server.forward-headers-strategy}), for trusted proxies only.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum KeyType { USER, IP, TOKEN }
+
+    public record LimitProperties(KeyType key, double rate, int burst) {
+    }
+
+    public record GroupProperties(String name, String pattern, Set<String> methods, String parameter,
+                                  List<LimitProperties> limits) {
+    }
+
+    private record Limit(KeyType key, TokenBuckets buckets, Counter rejected) {
+    }
+
+    private record Group(String name, PathPattern pattern, Set<String> methods, String parameter, List<Limit> limits) {
+
+        boolean matches(HttpServletRequest request, PathContainer path) {
+            return (methods == null || methods.isEmpty() || methods.contains(request.getMethod()))
+                    && (parameter == null || request.getParameter(parameter) != null)
+                    && pattern.matches(path);
+        }
+    }
+
+    private final boolean enabled;
+    private final List<Group> groups;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(Environment environment,
+                           MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper,
+                           @Value("${notes.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${notes.rate-limit.max-buckets:100000}") long maxBuckets) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        List<GroupProperties> properties = Binder.get(environment)
+                .bind("notes.rate-limit.groups", Bindable.listOf(GroupProperties.class))
+                .orElse(List.of());
+        this.groups = properties.stream()
+                .map(group -> group(group, maxBuckets, meterRegistry))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (enabled) {
+            Group group = match(request);
+            if (group != null) {
+                long waitNanos = acquire(group, request);
+                if (waitNanos > 0) {
+                    reject(response, waitNanos);
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Group match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Group group : groups) {
+            if (group.matches(request, path)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a token from each limit in turn and stops at the first one that
+     * refuses, giving back the tokens already taken: a rejected request
+     * consumes nothing.
+     *
+     * @return 0 when every limit of the group grants the request, otherwise the wait of the refusing one
+     */
+    private long acquire(Group group, HttpServletRequest request) {
+        List<Limit> limits = group.limits();
+        Object[] keys = new Object[limits.size()];
+        for (int i = 0; i < limits.size(); i++) {
+            Limit limit = limits.get(i);
+            keys[i] = key(limit.key(), group, request);
+            if (keys[i] == null) {
+                continue;
+            }
+            long wait = limit.buckets().tryAcquire(keys[i]);
+            if (wait > 0) {
+                limit.rejected().increment();
+                for (int granted = 0; granted < i; granted++) {
+                    if (keys[granted] != null) {
+                        limits.get(granted).buckets().refund(keys[granted]);
+                    }
+                }
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    private Object key(KeyType type, Group group, HttpServletRequest request) {
+        return switch (type) {
+            case USER -> {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                    yield principal.getId();
+                }
+                yield request.getRemoteAddr();
+            }
+            case IP -> request.getRemoteAddr();
+            case TOKEN -> {
+                PathPattern.PathMatchInfo info = group.pattern().matchAndExtract(
+                        PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length())));
+                yield info != null ? info.getUriVariables().get("token") : null;
+            }
+        };
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .code("TOO_MANY_REQUESTS")
+                .message("Trop de requêtes, réessayez dans " + retryAfterSeconds + " s")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private static Group group(GroupProperties properties, long maxBuckets, MeterRegistry meterRegistry) {
+        List<Limit> limits = properties.limits().stream()
+                .map(limit -> {
+                    TokenBuckets buckets = new TokenBuckets(limit.rate(), limit.burst(), maxBuckets);
+                    String key = limit.key().name().toLowerCase();
+                    Gauge.builder("notes.ratelimit.buckets", buckets, TokenBuckets::size)
+                            .description("Token buckets currently held in memory")
+                            .tag("group", properties.name())
+                            .tag("key", key)
+                            .register(meterRegistry);
+                    Counter rejected = Counter.builder("notes.ratelimit.rejected")
+                            .description("Requests rejected with 429 by a rate limit")
+                            .tag("group", properties.name())
+                            .tag("key", key)
+                            .register(meterRegistry);
+                    return new Limit(limit.key(), buckets, rejected);
+                })
+                .toList();
+        return new Group(properties.name(), PathPatternParser.defaultInstance.parse(properties.pattern()),
+                properties.methods(), properties.parameter(), limits);
+    }
+}
@@ -0,0 +1,78 @@
+package com.notes.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token buckets of one rate limit, one per key (user id, IP, public token).
+ *
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival
+ * time (GCRA): the instant, in {@link System#nanoTime()}, at which it would be
+ * full again. Acquiring is a compare-and-set, without locks or allocation.
+ * A bucket left alone for {@code burst / rate} seconds is full, so expiring it
+ * after that long loses nothing; the size bound only kicks in under a flood
+ * of distinct keys, and then hands a fresh burst to the evicted key.
+ */
+public class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final Cache<Object, AtomicLong> buckets;
+    private final Function<Object, AtomicLong> newBucket = key -> new AtomicLong(System.nanoTime());
+
+    /**
+     * @param rate   sustained requests per second
+     * @param burst  requests allowed at once by a full bucket
+     */
+    public TokenBuckets(double rate, int burst, long maxBuckets) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limits need a positive rate and burst");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / rate);
+        this.capacityNanos = intervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofNanos(capacityNanos))
+                .build();
+    }
+
+    /**
+     * Take one token from the key's bucket.
+     *
+     * @return 0 if granted, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(Object key) {
+        AtomicLong bucket = buckets.get(key, newBucket);
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + intervalNanos;
+            long ahead = next - now - capacityNanos;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token just taken from the key's bucket, for a request
+     * rejected by another limit.
+     */
+    public void refund(Object key) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.addAndGet(-intervalNanos);
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
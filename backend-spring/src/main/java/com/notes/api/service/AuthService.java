@@ -1,5 +1,6 @@
 package com.notes.api.service;
 
+import com.notes.api.datasource.ShardedQueries;
 import com.notes.api.dto.auth.AuthResponse;
 import com.notes.api.dto.auth.LoginRequest;
 import com.notes.api.dto.auth.RegisterRequest;
@@ -7,37 +8,64 @@ import com.notes.api.entity.User;
 import com.notes.api.exception.BadRequestException;
 import com.notes.api.repository.UserRepository;
 import com.notes.api.security.JwtTokenProvider;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "notes.service")
 public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
-
-    @Transactional
+    private final ShardedQueries shardedQueries;
+    private final UserDirectory userDirectory;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * The email is claimed in the {@link UserDirectory} before the user is
+     * inserted, so that two registrations on different shards cannot both
+     * succeed; users older than the directory are still checked on every
+     * shard. Claim and assignment commit in the directory's own transactions.
+     *
+     * The user is saved in a transaction of its own: the id is generated on
+     * save, before any statement of that transaction reaches the database,
+     * and binding its shard then routes the INSERT at commit to the shard of
+     * that id.
+     */
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
+        String email = request.getEmail();
+        if (shardedQueries.anyMatch(() -> userRepository.existsByEmail(email)) || !userDirectory.claim(email)) {
             throw new BadRequestException("Email already exists");
         }
 
-        User user = User.builder()
-                .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .build();
-
-        user = userRepository.save(user);
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        User user;
+        try {
+            user = new TransactionTemplate(transactionManager).execute(status -> {
+                User created = userRepository.save(User.builder()
+                        .email(email)
+                        .passwordHash(passwordHash)
+                        .build());
+                shardedQueries.bindOwner(created.getId());
+                return created;
+            });
+        } catch (RuntimeException ex) {
+            userDirectory.release(email);
+            throw ex;
+        }
+        userDirectory.assign(email, user.getId());
 
         String accessToken = tokenProvider.generateTokenFromUserId(user.getId());
         String refreshToken = tokenProvider.generateRefreshToken(user.getId());
@@ -60,7 +88,7 @@ public class AuthService {
 
         String accessToken = tokenProvider.generateToken(authentication);
         
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userDirectory.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadRequestException("User not found"));
         
         String refreshToken = tokenProvider.generateRefreshToken(user.getId());
@@ -82,6 +110,7 @@ public class AuthService {
         }
 
         UUID userId = tokenProvider.getUserIdFromToken(refreshToken);
+        shardedQueries.bindOwner(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
@@ -0,0 +1,245 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.Note;
+import com.notes.api.event.NoteChangedEvent;
+import com.notes.api.repository.BackgroundJobRepository;
+import com.notes.api.repository.BackgroundJobRepository.Job;
+import com.notes.api.repository.BackgroundJobRepository.Phase;
+import com.notes.api.repository.BulkNoteRepository;
+import com.notes.api.repository.BulkNoteRepository.DeletedShare;
+import com.notes.api.repository.BulkNoteRepository.OwnedNote;
+import com.notes.api.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs the jobs started by {@link BackgroundJobService}, one per shard and run.
+ *
+ * Work is done in chunks of {@code chunk-size} notes or shares, each its own
+ * transaction, which also records the progress and extends the lease of the
+ * job. A job whose instance died is taken over once its lease has expired and
+ * resumes from the phase it was in; chunks only ever pick what is left, so
+ * replaying one is harmless. Each note deleted or transferred is published as
+ * a {@link NoteChangedEvent}, in the transaction of its chunk.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notes.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BackgroundJobRunner {
+
+    private final BackgroundJobRepository jobRepository;
+    private final BulkNoteRepository bulkNoteRepository;
+    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+    private final ShardResolver shardResolver;
+    private final ShardedQueries shardedQueries;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long chunkPauseMillis;
+
+    public BackgroundJobRunner(BackgroundJobRepository jobRepository,
+                               BulkNoteRepository bulkNoteRepository,
+                               UserRepository userRepository,
+                               UserDirectory userDirectory,
+                               ShardResolver shardResolver,
+                               ShardedQueries shardedQueries,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${notes.jobs.chunk-size:500}") int chunkSize,
+                               @Value("${notes.jobs.lease:60000}") long leaseMillis,
+                               @Value("${notes.jobs.max-attempts:5}") int maxAttempts,
+                               @Value("${notes.jobs.chunk-pause:100}") long chunkPauseMillis) {
+        this.jobRepository = jobRepository;
+        this.bulkNoteRepository = bulkNoteRepository;
+        this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.shardResolver = shardResolver;
+        this.shardedQueries = shardedQueries;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.chunkPauseMillis = chunkPauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${notes.jobs.interval:5000}", fixedDelayString = "${notes.jobs.interval:5000}")
+    public void run() {
+        shardedQueries.forEachShard(shard ->
+                transactionTemplate.execute(status -> jobRepository.claim(leaseMillis)).ifPresent(this::process));
+    }
+
+    void process(Job job) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "completed";
+        try {
+            switch (job.type()) {
+                case DELETE_ACCOUNT -> deleteAccount(job);
+                case TRANSFER_NOTES -> transferNotes(job);
+            }
+            transactionTemplate.executeWithoutResult(status -> jobRepository.complete(job.id()));
+            log.info("Tâche {} {} terminée pour l'utilisateur {}", job.type(), job.id(), job.userId());
+        } catch (RuntimeException ex) {
+            boolean failed = job.attempts() >= maxAttempts;
+            outcome = failed ? "failed" : "retried";
+            log.warn("Tâche {} {} interrompue (tentative {}/{})", job.type(), job.id(), job.attempts(), maxAttempts, ex);
+            transactionTemplate.executeWithoutResult(status -> jobRepository.release(job.id(), ex.getMessage(), failed));
+        } finally {
+            sample.stop(Timer.builder("notes.jobs.run")
+                    .description("Duration of one run of a background job")
+                    .tag("type", job.type().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Notes of the user, then shares with the user on every shard, then the
+     * user and their email in the {@link UserDirectory}.
+     */
+    private void deleteAccount(Job job) {
+        Phase phase = job.phase();
+        int firstShard = job.shard();
+        if (phase == Phase.NOTES) {
+            runChunks(job, () -> transactionTemplate.execute(status -> deleteNotes(job)));
+            phase = Phase.SHARES;
+            firstShard = 0;
+        }
+        if (phase == Phase.SHARES) {
+            for (int shard = firstShard; shard < shardResolver.count(); shard++) {
+                int current = shard;
+                runChunks(job, () -> {
+                    int deleted = ShardContext.callOn(current, () -> transactionTemplate.execute(status ->
+                            deleteShares(job)));
+                    transactionTemplate.executeWithoutResult(status ->
+                            jobRepository.progress(job.id(), Phase.SHARES, current, 0, leaseMillis));
+                    return deleted;
+                });
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    jobRepository.progress(job.id(), Phase.USER, 0, 0, leaseMillis));
+        }
+        // Through JPA, so that the user is also evicted from the second-level cache
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(job.userId()).ifPresent(userRepository::delete));
+        // Last, so that a replay of this phase still finds the entry
+        userDirectory.remove(job.userId());
+    }
+
+    private int deleteNotes(Job job) {
+        List<OwnedNote> notes = bulkNoteRepository.lockOwnedNotes(job.userId(), chunkSize);
+        if (!notes.isEmpty()) {
+            List<UUID> ids = notes.stream().map(OwnedNote::id).toList();
+            Map<UUID, Set<UUID>> readers = bulkNoteRepository.findReaders(ids);
+            bulkNoteRepository.deleteNotes(job.userId(), ids);
+            for (OwnedNote note : notes) {
+                publish(note.id(), job.userId(), NoteChangedEvent.Type.DELETED, note.visibility(), note.visibility(),
+                        readers.getOrDefault(note.id(), Set.of()));
+            }
+        }
+        jobRepository.progress(job.id(), Phase.NOTES, 0, notes.size(), leaseMillis);
+        return notes.size();
+    }
+
+    private int deleteShares(Job job) {
+        List<DeletedShare> shares = bulkNoteRepository.deleteSharesWith(job.userId(), chunkSize);
+        if (!shares.isEmpty()) {
+            Map<UUID, Set<UUID>> readers = bulkNoteRepository.findReaders(
+                    shares.stream().map(DeletedShare::noteId).toList());
+            for (DeletedShare share : shares) {
+                publish(share.noteId(), share.ownerId(), NoteChangedEvent.Type.UNSHARED, share.visibility(),
+                        share.previousVisibility(), readers.getOrDefault(share.noteId(), Set.of()),
+                        Set.of(job.userId()));
+            }
+        }
+        return shares.size();
+    }
+
+    private void transferNotes(Job job) {
+        runChunks(job, () -> transactionTemplate.execute(status -> {
+            List<OwnedNote> notes = bulkNoteRepository.lockOwnedNotes(job.userId(), chunkSize);
+            if (!notes.isEmpty()) {
+                List<UUID> ids = notes.stream().map(OwnedNote::id).toList();
+                bulkNoteRepository.transferNotes(job.userId(), job.targetUserId(), ids);
+                Map<UUID, Set<UUID>> readers = bulkNoteRepository.findReaders(ids);
+                for (OwnedNote note : notes) {
+                    Set<UUID> noteReaders = readers.getOrDefault(note.id(), Set.of());
+                    Note.Visibility visibility = note.visibility() == Note.Visibility.SHARED && noteReaders.isEmpty()
+                            ? Note.Visibility.PRIVATE
+                            : note.visibility();
+                    // Gone for the previous owner; readers keep their access and only see the new owner
+                    publish(note.id(), job.userId(), NoteChangedEvent.Type.DELETED, note.visibility(),
+                            note.visibility(), Set.of());
+                    publish(note.id(), job.targetUserId(), NoteChangedEvent.Type.CREATED, visibility, null,
+                            noteReaders);
+                }
+            }
+            jobRepository.progress(job.id(), Phase.NOTES, 0, notes.size(), leaseMillis);
+            return notes.size();
+        }));
+    }
+
+    /**
+     * Run {@code chunk} until it returns less than a full chunk, pausing in between.
+     */
+    private void runChunks(Job job, IntSupplier chunk) {
+        Counter rows = Counter.builder("notes.jobs.rows")
+                .description("Notes or shares deleted or transferred by background jobs")
+                .tag("type", job.type().name())
+                .register(meterRegistry);
+        int count;
+        do {
+            count = chunk.getAsInt();
+            rows.increment(count);
+            if (count == chunkSize) {
+                pause();
+            }
+        } while (count == chunkSize);
+    }
+
+    private void pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(chunkPauseMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted between two chunks", ex);
+        }
+    }
+
+    private void publish(UUID noteId, UUID ownerId, NoteChangedEvent.Type type, Note.Visibility visibility,
+                         Note.Visibility previousVisibility, Set<UUID> readers) {
+        publish(noteId, ownerId, type, visibility, previousVisibility, readers, Set.of());
+    }
+
+    private void publish(UUID noteId, UUID ownerId, NoteChangedEvent.Type type, Note.Visibility visibility,
+                         Note.Visibility previousVisibility, Set<UUID> readers, Set<UUID> revokedUsers) {
+        eventPublisher.publishEvent(new NoteChangedEvent(noteId, ownerId, type, visibility, previousVisibility,
+                LocalDateTime.now(), readers, Set.of(), revokedUsers));
+    }
+}
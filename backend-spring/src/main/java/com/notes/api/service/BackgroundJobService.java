@@ -0,0 +1,91 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.dto.job.JobResponse;
+import com.notes.api.dto.job.TransferNotesRequest;
+import com.notes.api.entity.User;
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.exception.ResourceNotFoundException;
+import com.notes.api.repository.BackgroundJobRepository;
+import com.notes.api.repository.BackgroundJobRepository.Job;
+import com.notes.api.repository.BulkNoteRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Starts the account jobs run by {@link BackgroundJobRunner} and reports their progress.
+ * A user has at most one unfinished job.
+ */
+@Service
+@RequiredArgsConstructor
+@Observed(name = "notes.service")
+public class BackgroundJobService {
+
+    private final BackgroundJobRepository jobRepository;
+    private final BulkNoteRepository bulkNoteRepository;
+    private final UserDirectory userDirectory;
+    private final ShardResolver shardResolver;
+
+    /**
+     * Delete the account with all its notes, and the shares of other users' notes with it.
+     */
+    @Transactional
+    public JobResponse deleteAccount(UUID userId) {
+        return start(BackgroundJobRepository.Type.DELETE_ACCOUNT, userId, null);
+    }
+
+    /**
+     * Give every note of the user, trash included, to the user with the requested email.
+     */
+    @Transactional
+    public JobResponse transferNotes(UUID userId, TransferNotesRequest request) {
+        User target = userDirectory.findByEmail(request.getEmail())
+                .orElseThrow(() -> new ResourceNotFoundException("Utilisateur introuvable: " + request.getEmail()));
+
+        if (target.getId().equals(userId)) {
+            throw new BadRequestException("Vous ne pouvez pas vous transférer vos propres notes");
+        }
+        // Notes live on their owner's shard: moving them to another database is not supported
+        if (shardResolver.shardOf(target.getId()) != shardResolver.shardOf(userId)) {
+            throw new BadRequestException("Le transfert vers un utilisateur d'une autre base n'est pas pris en charge");
+        }
+
+        return start(BackgroundJobRepository.Type.TRANSFER_NOTES, userId, target.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public JobResponse getJob(UUID userId, UUID jobId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .map(BackgroundJobService::mapToResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found"));
+    }
+
+    private JobResponse start(BackgroundJobRepository.Type type, UUID userId, UUID targetUserId) {
+        long total = bulkNoteRepository.countOwnedNotes(userId);
+        try {
+            return mapToResponse(jobRepository.insert(type, userId, targetUserId, total));
+        } catch (DuplicateKeyException ex) {
+            throw new BadRequestException("Une opération est déjà en cours sur ce compte");
+        }
+    }
+
+    private static JobResponse mapToResponse(Job job) {
+        return JobResponse.builder()
+                .id(job.id().toString())
+                .type(job.type())
+                .status(job.status())
+                .phase(job.phase())
+                .processed(job.processed())
+                .total(job.total())
+                .error(job.lastError())
+                .createdAt(job.createdAt())
+                .updatedAt(job.updatedAt())
+                .finishedAt(job.finishedAt())
+                .build();
+    }
+}
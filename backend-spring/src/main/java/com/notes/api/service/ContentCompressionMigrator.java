@@ -0,0 +1,95 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.CompressedText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background migration of existing large note bodies to compressed storage.
+ *
+ * Works in small batches through plain JDBC so that {@code updated_at} is not
+ * touched, and only rewrites a row if it has not been modified since it was read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "notes.content.compression.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class ContentCompressionMigrator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardedQueries shardedQueries;
+
+    @Value("${notes.content.compression.threshold-bytes:8192}")
+    private int thresholdBytes;
+
+    @Value("${notes.content.compression.migration.batch-size:200}")
+    private int batchSize;
+
+    private static final UUID START = new UUID(0L, 0L);
+
+    /**
+     * Keyset cursor of each shard, so that incompressible rows do not block the scan.
+     */
+    private final Map<Integer, UUID> lastIds = new ConcurrentHashMap<>();
+
+    @Scheduled(initialDelayString = "${notes.content.compression.migration.initial-delay:30000}",
+               fixedDelayString = "${notes.content.compression.migration.interval:60000}")
+    public void migrateBatch() {
+        shardedQueries.forEachShard(this::migrateBatch);
+    }
+
+    private void migrateBatch(int shard) {
+        UUID lastId = lastIds.getOrDefault(shard, START);
+        List<Object[]> candidates = jdbcTemplate.query(
+                "SELECT id, content_md, updated_at FROM notes " +
+                "WHERE id > ? AND content_md IS NOT NULL AND octet_length(content_md) > ? " +
+                "ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[] {
+                        rs.getObject("id", UUID.class),
+                        rs.getString("content_md"),
+                        rs.getTimestamp("updated_at")
+                },
+                lastId, thresholdBytes, batchSize);
+
+        if (candidates.isEmpty()) {
+            lastIds.remove(shard);
+            return;
+        }
+        lastIds.put(shard, (UUID) candidates.get(candidates.size() - 1)[0]);
+
+        List<Object[]> updates = new ArrayList<>(candidates.size());
+        for (Object[] row : candidates) {
+            String content = (String) row[1];
+            CompressedText compressed = CompressedText.compress(content);
+            if (compressed.compressedLength() < content.getBytes(StandardCharsets.UTF_8).length) {
+                updates.add(new Object[] {compressed.toBytes(), row[0], row[2]});
+            }
+        }
+
+        int[] results = jdbcTemplate.batchUpdate(
+                "UPDATE notes SET content_compressed = ?, content_md = NULL " +
+                "WHERE id = ? AND content_md IS NOT NULL AND updated_at = ?",
+                updates);
+
+        int converted = 0;
+        for (int result : results) {
+            if (result > 0) {
+                converted++;
+            }
+        }
+        log.info("Compression des contenus : {} note(s) convertie(s) sur {} candidate(s)", converted, candidates.size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.repository.MaintenanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Periodic cleanup: notes in the trash past their retention, old entries of
+ * the sync change log, expired public links, and tags no note uses anymore.
+ *
+ * Works shard by shard in batches of {@code batch-size} rows, each its own
+ * short transaction, at most {@code max-batches} per task and run. After each
+ * batch it pauses in proportion to the time the batch took, so that it uses
+ * the database at most {@code duty-cycle} of the time and slows down with it.
+ * Instances running it at the same time skip each other's rows.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notes.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class MaintenanceScheduler {
+
+    private final MaintenanceRepository maintenanceRepository;
+    private final ShardedQueries shardedQueries;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxBatches;
+    private final double dutyCycle;
+    private final long orphanTagGraceMillis;
+    private final long trashRetentionMillis;
+    private final long syncRetentionMillis;
+
+    public MaintenanceScheduler(MaintenanceRepository maintenanceRepository,
+                                ShardedQueries shardedQueries,
+                                MeterRegistry meterRegistry,
+                                @Value("${notes.maintenance.batch-size:500}") int batchSize,
+                                @Value("${notes.maintenance.max-batches:20}") int maxBatches,
+                                @Value("${notes.maintenance.duty-cycle:0.5}") double dutyCycle,
+                                @Value("${notes.maintenance.orphan-tag-grace:7200000}") long orphanTagGraceMillis,
+                                @Value("${notes.cache.tags.ttl:3600000}") long tagsCacheTtlMillis,
+                                @Value("${notes.trash.retention:2592000000}") long trashRetentionMillis,
+                                @Value("${notes.sync.retention:2592000000}") long syncRetentionMillis) {
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalStateException("notes.maintenance.duty-cycle must be in (0, 1]");
+        }
+        if (orphanTagGraceMillis <= tagsCacheTtlMillis) {
+            throw new IllegalStateException(
+                    "notes.maintenance.orphan-tag-grace must exceed notes.cache.tags.ttl");
+        }
+        this.maintenanceRepository = maintenanceRepository;
+        this.shardedQueries = shardedQueries;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.dutyCycle = dutyCycle;
+        this.orphanTagGraceMillis = orphanTagGraceMillis;
+        this.trashRetentionMillis = trashRetentionMillis;
+        this.syncRetentionMillis = syncRetentionMillis;
+    }
+
+    @Scheduled(initialDelayString = "${notes.maintenance.initial-delay:60000}",
+               fixedDelayString = "${notes.maintenance.interval:300000}")
+    public void run() {
+        shardedQueries.forEachShard(shard -> {
+            // First, so that the tags of purged notes can become orphans in the same run
+            int purgedNotes = runBatches("notes.purged",
+                    () -> maintenanceRepository.purgeDeletedNotes(trashRetentionMillis, batchSize));
+            runBatches("note-changes.purged",
+                    () -> maintenanceRepository.purgeNoteChanges(syncRetentionMillis, batchSize));
+            int expiredLinks = runBatches("public-links.expired",
+                    () -> maintenanceRepository.deleteExpiredPublicLinks(batchSize));
+            runBatches("tags.unmarked", () -> maintenanceRepository.unmarkUsedTags(batchSize));
+            runBatches("tags.marked", () -> maintenanceRepository.markOrphanTags(batchSize));
+            int orphanTags = runBatches("tags.deleted",
+                    () -> maintenanceRepository.deleteOrphanTags(orphanTagGraceMillis, batchSize));
+            if (purgedNotes > 0 || expiredLinks > 0 || orphanTags > 0) {
+                log.info("Maintenance du shard {} : {} notes de la corbeille, {} liens publics expirés et {} tags orphelins supprimés",
+                        shard, purgedNotes, expiredLinks, orphanTags);
+            }
+        });
+    }
+
+    /**
+     * @return rows touched
+     */
+    private int runBatches(String task, IntSupplier batch) {
+        Counter rows = Counter.builder("notes.maintenance.rows")
+                .description("Rows deleted or updated by the background maintenance")
+                .tag("task", task)
+                .register(meterRegistry);
+        Timer timer = Timer.builder("notes.maintenance.batch")
+                .description("Duration of one maintenance batch")
+                .tag("task", task)
+                .register(meterRegistry);
+
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            long start = System.nanoTime();
+            int count = batch.getAsInt();
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            rows.increment(count);
+            total += count;
+            if (count < batchSize || !pause(elapsed)) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return false if interrupted, to stop at once
+     */
+    private boolean pause(long batchNanos) {
+        long pauseNanos = (long) (batchNanos * (1 - dutyCycle) / dutyCycle);
+        try {
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.notes.api.service;
+
+import com.notes.api.dto.note.NoteEventResponse;
+import com.notes.api.event.NoteChangedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events hub pushing note changes to connected clients.
+ *
+ * Connections are plain async servlet requests: an idle client costs an
+ * {@link SseEmitter} and an empty queue, no thread. Committed changes are
+ * appended to an in-memory log (for {@code Last-Event-ID} resume) and fanned out
+ * to the bounded queue of each concerned connection; a small pool drains the
+ * queues so that a slow client never blocks the publisher. A client whose queue
+ * overflows, or who resumes from an event no longer in the log, receives a
+ * {@code resync} event and must reload its list.
+ *
+ * Event ids are {@code <epoch>-<sequence>}: the sequence is local to this
+ * process, so an id from another node or from before a restart, whose epoch
+ * differs, gets a {@code resync} rather than unrelated events.
+ */
+@Service
+public class NoteEventStreamService implements DisposableBean {
+
+    private static final String EVENT_NAME = "note";
+    private static final String RESYNC_EVENT_NAME = "resync";
+
+    private final long emitterTimeoutMs;
+    private final int connectionBufferSize;
+    private final NoteChangedEvent[] replayLog;
+    private final ReentrantLock logLock = new ReentrantLock();
+    private final String epoch = Long.toUnsignedString(new SecureRandom().nextLong(), 36);
+    private long lastEventId;
+
+    private final Map<UUID, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+
+    public NoteEventStreamService(
+            @Value("${notes.events.emitter-timeout:1800000}") long emitterTimeoutMs,
+            @Value("${notes.events.connection-buffer-size:64}") int connectionBufferSize,
+            @Value("${notes.events.replay-log-size:10000}") int replayLogSize,
+            @Value("${notes.events.dispatcher-threads:4}") int dispatcherThreads
+    ) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.connectionBufferSize = connectionBufferSize;
+        this.replayLog = new NoteChangedEvent[replayLogSize];
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "note-events-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stream for the user, replaying missed events when
+     * {@code lastEventId} is given.
+     */
+    public SseEmitter subscribe(UUID userId, String lastEventIdHeader) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Connection connection = new Connection(userId, emitter);
+
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(error -> unregister(connection));
+
+        // Register and replay under the log lock so that live events cannot
+        // interleave with (or precede) replayed ones
+        logLock.lock();
+        try {
+            connections.add(connection);
+            connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+
+            if (lastEventIdHeader != null && !lastEventIdHeader.isBlank()) {
+                replay(connection, lastEventIdHeader.trim());
+            }
+        } finally {
+            logLock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Publish committed changes only: rolled back transactions emit nothing.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNoteChanged(NoteChangedEvent event) {
+        // Fan-out only enqueues, so it is cheap enough to run under the lock
+        logLock.lock();
+        try {
+            long id = ++lastEventId;
+            replayLog[(int) (id % replayLog.length)] = event;
+
+            if (event.isBroadcast()) {
+                connections.forEach(connection -> deliver(connection, id, event));
+            } else {
+                for (UUID userId : event.directRecipients()) {
+                    Set<Connection> userConnections = connectionsByUser.get(userId);
+                    if (userConnections != null) {
+                        userConnections.forEach(connection -> deliver(connection, id, event));
+                    }
+                }
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /**
+     * Keep idle connections alive through proxies and detect dead clients.
+     */
+    @Scheduled(fixedDelayString = "${notes.events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        connections.forEach(connection -> connection.enqueue(SseEmitter.event().comment("keep-alive")));
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void destroy() {
+        connections.forEach(connection -> connection.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Must be called with the log lock held.
+     */
+    private void replay(Connection connection, String lastEventIdHeader) {
+        int separator = lastEventIdHeader.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventIdHeader.substring(0, separator))) {
+            connection.resync();
+            return;
+        }
+        long from;
+        try {
+            from = Long.parseLong(lastEventIdHeader.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            connection.resync();
+            return;
+        }
+
+        long oldest = Math.max(1, lastEventId - replayLog.length + 1);
+        if (from > lastEventId || from < oldest - 1) {
+            connection.resync();
+            return;
+        }
+        for (long id = from + 1; id <= lastEventId; id++) {
+            deliver(connection, id, replayLog[(int) (id % replayLog.length)]);
+        }
+    }
+
+    private void deliver(Connection connection, long id, NoteChangedEvent event) {
+        NoteChangedEvent.Kind kind = event.kindFor(connection.userId);
+        if (kind == null) {
+            return;
+        }
+        NoteEventResponse payload = NoteEventResponse.builder()
+                .noteId(event.noteId().toString())
+                .type(kind)
+                .updatedAt(event.updatedAt())
+                .build();
+        connection.enqueue(SseEmitter.event()
+                .id(epoch + "-" + id)
+                .name(EVENT_NAME)
+                .data(payload, MediaType.APPLICATION_JSON));
+    }
+
+    private void unregister(Connection connection) {
+        connections.remove(connection);
+        connectionsByUser.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    /**
+     * One client stream with its bounded outgoing buffer.
+     */
+    private final class Connection {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > connectionBufferSize) {
+                pendingCount.decrementAndGet();
+                resync();
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        /**
+         * Tell the client it missed events, then close the stream.
+         */
+        void resync() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            pending.clear();
+            dispatcher.execute(() -> {
+                try {
+                    emitter.send(SseEmitter.event().name(RESYNC_EVENT_NAME).data("{}", MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException ex) {
+                    emitter.completeWithError(ex);
+                }
+            });
+            unregister(this);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                closed.set(true);
+                unregister(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued between the last poll and the flag reset
+            if (!pending.isEmpty() && !closed.get()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.notes.api.service;
+
+import com.notes.api.dto.note.NoteRevisionResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.NoteRevision;
+import com.notes.api.exception.ResourceNotFoundException;
+import com.notes.api.repository.NoteRevisionRepository;
+import com.notes.api.util.DeltaCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Content history of notes.
+ *
+ * Storage layout: the newest revision is a HEAD marker whose content is the note
+ * itself. When a new revision is recorded, the previous HEAD is demoted to a
+ * compressed reverse delta (new content -> old content), except every
+ * {@code snapshotInterval} revisions where a full compressed snapshot is kept.
+ * Rebuilding revision r therefore walks at most {@code snapshotInterval} rows,
+ * starting from the closest newer snapshot or from the current content.
+ */
+@Service
+@RequiredArgsConstructor
+public class NoteRevisionService {
+
+    private final NoteRevisionRepository revisionRepository;
+
+    @Value("${notes.revisions.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    /**
+     * Record the first revision of a freshly created note.
+     */
+    @Transactional
+    public void recordCreation(Note note) {
+        revisionRepository.save(NoteRevision.builder()
+                .note(note)
+                .revisionNumber(1)
+                .storage(NoteRevision.Storage.HEAD)
+                .title(note.getTitle())
+                .contentLength(utf8Length(note.getContentMd()))
+                .build());
+    }
+
+    /**
+     * Record a new revision after the note has been updated. The caller must
+     * hold a lock on the note row, so that two updates cannot both build on
+     * the same head.
+     *
+     * @param previousTitle   title before the update
+     * @param previousContent content before the update
+     */
+    @Transactional
+    public void recordUpdate(Note note, String previousTitle, String previousContent) {
+        NoteRevision head = revisionRepository.findTopByNoteIdOrderByRevisionNumberDesc(note.getId())
+                .orElse(null);
+
+        if (head == null) {
+            // Note created before history existed: its previous state becomes revision 1
+            byte[] previous = previousContent.getBytes(StandardCharsets.UTF_8);
+            head = revisionRepository.save(NoteRevision.builder()
+                    .note(note)
+                    .revisionNumber(1)
+                    .storage(NoteRevision.Storage.SNAPSHOT)
+                    .title(previousTitle)
+                    .contentLength(previous.length)
+                    .payload(DeltaCodec.deflate(previous))
+                    .build());
+        } else {
+            byte[] previous = previousContent.getBytes(StandardCharsets.UTF_8);
+            if (head.getRevisionNumber() % snapshotInterval == 0) {
+                head.setStorage(NoteRevision.Storage.SNAPSHOT);
+                head.setPayload(DeltaCodec.deflate(previous));
+            } else {
+                byte[] current = note.getContentMd().getBytes(StandardCharsets.UTF_8);
+                head.setStorage(NoteRevision.Storage.DELTA);
+                head.setPayload(DeltaCodec.encode(current, previous));
+            }
+            revisionRepository.save(head);
+        }
+
+        revisionRepository.save(NoteRevision.builder()
+                .note(note)
+                .revisionNumber(head.getRevisionNumber() + 1)
+                .storage(NoteRevision.Storage.HEAD)
+                .title(note.getTitle())
+                .contentLength(utf8Length(note.getContentMd()))
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public List<NoteRevisionResponse> listRevisions(Note note) {
+        return revisionRepository.findByNoteIdOrderByRevisionNumberDesc(note.getId()).stream()
+                .map(summary -> NoteRevisionResponse.builder()
+                        .noteId(note.getId().toString())
+                        .revision(summary.getRevisionNumber())
+                        .title(summary.getTitle())
+                        .contentLength(summary.getContentLength())
+                        .createdAt(summary.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild the content of a given revision.
+     *
+     * Reads only the rows between the requested revision and the closest newer
+     * snapshot (or the head), so the cost is bounded by the snapshot interval.
+     */
+    @Transactional(readOnly = true)
+    public NoteRevisionResponse getRevision(Note note, int revision) {
+        NoteRevision head = revisionRepository.findTopByNoteIdOrderByRevisionNumberDesc(note.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Revision not found"));
+
+        if (revision < 1 || revision > head.getRevisionNumber()) {
+            throw new ResourceNotFoundException("Revision not found");
+        }
+
+        Integer snapshot = revisionRepository.findNearestSnapshotAtOrAfter(note.getId(), revision);
+        int upper = snapshot != null ? snapshot : head.getRevisionNumber();
+
+        List<NoteRevision> chain = revisionRepository
+                .findByNoteIdAndRevisionNumberBetweenOrderByRevisionNumberDesc(note.getId(), revision, upper);
+
+        byte[] content = snapshot != null
+                ? DeltaCodec.inflate(chain.get(0).getPayload())
+                : note.getContentMd().getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 1; i < chain.size(); i++) {
+            content = DeltaCodec.apply(content, chain.get(i).getPayload());
+        }
+
+        NoteRevision target = chain.get(chain.size() - 1);
+        return NoteRevisionResponse.builder()
+                .noteId(note.getId().toString())
+                .revision(target.getRevisionNumber())
+                .title(target.getTitle())
+                .contentLength(target.getContentLength())
+                .contentMd(new String(content, StandardCharsets.UTF_8))
+                .createdAt(target.getCreatedAt())
+                .build();
+    }
+
+    private int utf8Length(String content) {
+        return content.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -1,35 +1,76 @@
 package com.notes.api.service;
 
+import com.notes.api.datasource.ReadYourWritesTracker;
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.note.NoteContentDescriptor;
 import com.notes.api.dto.note.NoteRequest;
 import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.note.NoteRevisionResponse;
 import com.notes.api.entity.Note;
+import com.notes.api.entity.Share;
 import com.notes.api.entity.Tag;
 import com.notes.api.entity.User;
 import com.notes.api.exception.BadRequestException;
 import com.notes.api.exception.ForbiddenException;
+import com.notes.api.event.NoteChangePublisher;
+import com.notes.api.event.NoteChangedEvent;
 import com.notes.api.exception.ResourceNotFoundException;
+import com.notes.api.repository.NoteContentRepository;
 import com.notes.api.repository.NoteRepository;
 import com.notes.api.repository.ShareRepository;
 import com.notes.api.repository.TagRepository;
 import com.notes.api.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "notes.service")
 public class NoteService {
 
+    private static final Comparator<Note> MOST_RECENT_FIRST = Comparator.comparing(Note::getUpdatedAt).reversed();
+    private static final String NOTE_FLIGHT = "note";
+
+    /**
+     * A note as loaded once for every concurrent reader, with what each of
+     * them needs to check their own access.
+     */
+    private record NoteSnapshot(NoteResponse response, UUID ownerId, Note.Visibility visibility, Set<UUID> readers) {
+    }
+
+    /**
+     * Loads of a note run on the primary for callers in their read-your-writes
+     * window, on a replica for the others: the two are never shared.
+     */
+    private record NoteRead(UUID noteId, boolean primary) {
+    }
+
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
     private final ShareRepository shareRepository;
+    private final NoteRevisionService revisionService;
+    private final NoteContentRepository noteContentRepository;
+    private final NoteChangePublisher changePublisher;
+    private final ShardedQueries shardedQueries;
+    private final SingleFlight singleFlight;
+    private final TagCreator tagCreator;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWrites;
 
     /**
      * Search and filter notes accessible by the user.
@@ -61,63 +102,49 @@ public class NoteService {
             ownedNotes = noteRepository.searchNotes(user, searchQuery, visibilityEnum, pageable);
         }
 
-        List<Note> sharedNotes = shareRepository.findBySharedWithUser(user).stream()
-                .map(share -> share.getNote())
+        // Shares live with the note, on its owner's shard
+        List<Note> sharedNotes = shardedQueries.collect(() -> shareRepository.findBySharedWithUser(user).stream()
+                .map(Share::getNote)
                 .filter(note -> note.getVisibility() == Note.Visibility.SHARED)
                 .filter(note -> filterNote(note, searchQuery, visibilityEnum))
                 .filter(note -> filterByTag(note, tag))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
 
-        // Add public notes from other users
-        Page<Note> publicNotes = noteRepository.findPublicNotes(user, searchQuery, pageable);
-        List<Note> publicNotesList = publicNotes.getContent().stream()
-                .filter(note -> filterNote(note, searchQuery, visibilityEnum))
-                .filter(note -> filterByTag(note, tag))
-                .collect(Collectors.toList());
-
-        // Combine all notes
-        Set<UUID> noteIds = new HashSet<>();
-        List<Note> allNotesList = new ArrayList<>();
-        
-        // Add owned notes
-        for (Note note : ownedNotes.getContent()) {
-            if (noteIds.add(note.getId())) {
-                allNotesList.add(note);
-            }
-        }
-        
-        // Add shared notes (avoid duplicates)
-        for (Note note : sharedNotes) {
-            if (noteIds.add(note.getId())) {
-                allNotesList.add(note);
-            }
-        }
-        
-        // Add public notes (avoid duplicates)
-        for (Note note : publicNotesList) {
-            if (noteIds.add(note.getId())) {
-                allNotesList.add(note);
-            }
-        }
+        // Add public notes from other users, merged across shards
+        List<Note> publicNotesList = shardedQueries.page(page ->
+                noteRepository.findPublicNotes(user, searchQuery, page).getContent().stream()
+                        .filter(note -> filterNote(note, searchQuery, visibilityEnum))
+                        .filter(note -> filterByTag(note, tag))
+                        .collect(Collectors.toList()),
+                pageable, MOST_RECENT_FIRST);
 
-        List<NoteResponse> responses = allNotesList.stream()
-                .sorted((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()))
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<NoteResponse> responses = mergeAndSort(ownedNotes.getContent(), sharedNotes, publicNotesList,
+                searchQuery, visibilityEnum);
 
         return new PageImpl<>(responses, pageable, responses.size());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Concurrent reads of the same note share one load (see {@link SingleFlight});
+     * access is still checked for each caller.
+     */
     public NoteResponse getNoteById(UUID userId, UUID noteId) {
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-
-        if (!canAccessNote(userId, note)) {
+        ReadYourWritesTracker tracker = readYourWrites.getIfAvailable();
+        NoteRead read = new NoteRead(noteId, tracker != null && tracker.isPinned(userId));
+        NoteSnapshot snapshot = singleFlight.load(NOTE_FLIGHT, read, () -> loadSnapshot(noteId));
+        if (!canAccessNote(userId, snapshot)) {
             throw new ForbiddenException("You don't have permission to access this note");
         }
+        return snapshot.response();
+    }
 
-        return mapToResponse(note);
+    /**
+     * Readers arriving after a committed change must not join a load started before it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNoteChanged(NoteChangedEvent event) {
+        singleFlight.forget(NOTE_FLIGHT, new NoteRead(event.noteId(), false));
+        singleFlight.forget(NOTE_FLIGHT, new NoteRead(event.noteId(), true));
     }
 
     @Transactional
@@ -146,12 +173,15 @@ public class NoteService {
         }
 
         note = noteRepository.save(note);
+        revisionService.recordCreation(note);
+        changePublisher.created(note);
         return mapToResponse(note);
     }
 
     @Transactional
     public NoteResponse updateNote(UUID userId, UUID noteId, NoteRequest request) {
-        Note note = noteRepository.findById(noteId)
+        // Locked: the next revision number is computed from the current head
+        Note note = noteRepository.findByIdForUpdate(noteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
 
         if (!note.getOwner().getId().equals(userId)) {
@@ -164,6 +194,11 @@ public class NoteService {
             throw new BadRequestException("La visibilité 'Partagée' ne peut pas être définie manuellement. Utilisez la fonctionnalité de partage pour partager une note avec des utilisateurs.");
         }
 
+        String previousTitle = note.getTitle();
+        String previousContent = note.getContentMd();
+        Note.Visibility previousVisibility = note.getVisibility();
+        Set<UUID> revokedUsers = Set.of();
+
         note.setTitle(request.getTitle());
         note.setContentMd(request.getContentMd());
         
@@ -172,6 +207,9 @@ public class NoteService {
             // Supprimer tous les partages actifs
             var activeShares = shareRepository.findByNote(note);
             if (!activeShares.isEmpty()) {
+                revokedUsers = activeShares.stream()
+                        .map(share -> share.getSharedWithUser().getId())
+                        .collect(Collectors.toSet());
                 shareRepository.deleteAll(activeShares);
             }
             note.setVisibility(Note.Visibility.PRIVATE);
@@ -186,10 +224,22 @@ public class NoteService {
             note.setTags(tags);
         }
 
-        note = noteRepository.save(note);
+        // Flush so that updatedAt is set before it is returned and published
+        note = noteRepository.saveAndFlush(note);
+
+        if (!previousTitle.equals(note.getTitle()) || !previousContent.equals(note.getContentMd())) {
+            revisionService.recordUpdate(note, previousTitle, previousContent);
+        }
+        changePublisher.updated(note, previousVisibility, revokedUsers);
+
         return mapToResponse(note);
     }
 
+    /**
+     * Move a note to the trash. It disappears from every read, shares and
+     * public links included, until restored; the maintenance purges it for
+     * good after the retention period.
+     */
     @Transactional
     public void deleteNote(UUID userId, UUID noteId) {
         Note note = noteRepository.findById(noteId)
@@ -199,13 +249,150 @@ public class NoteService {
             throw new ForbiddenException("You can only delete your own notes");
         }
 
-        noteRepository.delete(note);
+        Set<UUID> readers = changePublisher.readersOf(note);
+        note.setDeletedAt(LocalDateTime.now());
+        noteRepository.save(note);
+        changePublisher.deleted(note, readers);
+    }
+
+    /**
+     * The user's notes in the trash, most recently deleted first.
+     */
+    @Transactional(readOnly = true)
+    public Page<NoteResponse> getTrash(UUID userId, Pageable pageable) {
+        return noteRepository.findTrash(userId, pageable).map(note -> {
+            NoteResponse response = mapToResponse(note);
+            response.setDeletedAt(note.getDeletedAt());
+            return response;
+        });
+    }
+
+    /**
+     * Take a note of the user out of the trash, with its shares and public links.
+     */
+    @Transactional
+    public NoteResponse restoreNote(UUID userId, UUID noteId) {
+        if (noteRepository.restore(noteId, userId) == 0) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        changePublisher.restored(note);
+        return mapToResponse(note);
+    }
+
+    /**
+     * List the content history of a note, newest first.
+     * Same access rules as {@link #getNoteById(UUID, UUID)}.
+     */
+    @Transactional(readOnly = true)
+    public List<NoteRevisionResponse> getRevisions(UUID userId, UUID noteId) {
+        return revisionService.listRevisions(getAccessibleNote(userId, noteId));
+    }
+
+    /**
+     * Rebuild the content of a note as it was at the given revision.
+     */
+    @Transactional(readOnly = true)
+    public NoteRevisionResponse getRevision(UUID userId, UUID noteId, int revision) {
+        return revisionService.getRevision(getAccessibleNote(userId, noteId), revision);
+    }
+
+    /**
+     * Describe the raw content of a note for streaming, without loading the body.
+     * Same access rules as {@link #getNoteById(UUID, UUID)}.
+     */
+    @Transactional(readOnly = true)
+    public NoteContentDescriptor getNoteContentDescriptor(UUID userId, UUID noteId) {
+        routeToNote(noteId);
+        NoteContentRepository.ContentMetadata metadata = noteContentRepository.findMetadata(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+
+        if (!canAccessNote(userId, noteId, metadata.ownerId(), metadata.visibility())) {
+            throw new ForbiddenException("You don't have permission to access this note");
+        }
+
+        NoteContentDescriptor descriptor = metadata.toDescriptor(noteId);
+        descriptor.setShard(ShardContext.current());
+        return descriptor;
+    }
+
+    /**
+     * Copy a byte range of the content described by {@code content} to {@code out}.
+     * Runs outside of any transaction, after the response headers are sent.
+     *
+     * @throws ResourceNotFoundException if the note changed or was deleted meanwhile
+     */
+    public void streamNoteContent(NoteContentDescriptor content, long offset, long length, OutputStream out) {
+        ShardContext.runOn(content.getShard(), () ->
+                noteContentRepository.streamContent(content.getNoteId(), content.getUpdatedAt(), offset, length, out));
+    }
+
+    private NoteSnapshot loadSnapshot(UUID noteId) {
+        routeToNote(noteId);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        Set<UUID> readers = note.getVisibility() == Note.Visibility.SHARED
+                ? Set.copyOf(shareRepository.findSharedWithUserIdsByNoteId(noteId))
+                : Set.of();
+        return new NoteSnapshot(mapToResponse(note), note.getOwner().getId(), note.getVisibility(), readers);
+    }
+
+    private Note getAccessibleNote(UUID userId, UUID noteId) {
+        routeToNote(noteId);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+
+        if (!canAccessNote(userId, note)) {
+            throw new ForbiddenException("You don't have permission to access this note");
+        }
+
+        return note;
+    }
+
+    /**
+     * Combine owned, shared and public notes without duplicates, most recently updated first.
+     */
+    List<NoteResponse> mergeAndSort(List<Note> ownedNotes, List<Note> sharedNotes, List<Note> publicNotes,
+                                    String query, Note.Visibility visibility) {
+        // Combine all notes
+        Set<UUID> noteIds = new HashSet<>();
+        List<Note> allNotesList = new ArrayList<>();
+        
+        // Add owned notes (compressed bodies are only matched here, in memory)
+        for (Note note : ownedNotes) {
+            if (note.isContentCompressed() && !filterNote(note, query, visibility)) {
+                continue;
+            }
+            if (noteIds.add(note.getId())) {
+                allNotesList.add(note);
+            }
+        }
+        
+        // Add shared notes (avoid duplicates)
+        for (Note note : sharedNotes) {
+            if (noteIds.add(note.getId())) {
+                allNotesList.add(note);
+            }
+        }
+        
+        // Add public notes (avoid duplicates)
+        for (Note note : publicNotes) {
+            if (noteIds.add(note.getId())) {
+                allNotesList.add(note);
+            }
+        }
+
+        return allNotesList.stream()
+                .sorted((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()))
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
     }
 
     /**
      * Check if a note matches the given filters.
      */
-    private boolean filterNote(Note note, String query, Note.Visibility visibility) {
+    boolean filterNote(Note note, String query, Note.Visibility visibility) {
         if (query != null && !query.isEmpty()) {
             boolean matchesQuery = note.getTitle().toLowerCase().contains(query.toLowerCase()) ||
                                    note.getContentMd().toLowerCase().contains(query.toLowerCase());
@@ -221,7 +408,7 @@ public class NoteService {
      * Check if a note has the specified tag.
      * If tag is null or empty, returns true (no filtering).
      */
-    private boolean filterByTag(Note note, String tag) {
+    boolean filterByTag(Note note, String tag) {
         if (tag == null || tag.isEmpty()) {
             return true; // No tag filter applied
         }
@@ -237,30 +424,65 @@ public class NoteService {
      * - SHARED: Owner and users with share permission can access
      * - PUBLIC: Only accessible via public link (/p/{token})
      */
-    private boolean canAccessNote(UUID userId, Note note) {
-        if (note.getOwner().getId().equals(userId)) {
+    boolean canAccessNote(UUID userId, Note note) {
+        return canAccessNote(userId, note.getId(), note.getOwner().getId(), note.getVisibility());
+    }
+
+    /**
+     * Same rules, against the readers loaded with the snapshot.
+     */
+    private boolean canAccessNote(UUID userId, NoteSnapshot snapshot) {
+        return snapshot.ownerId().equals(userId)
+                || snapshot.visibility() == Note.Visibility.PUBLIC
+                || snapshot.visibility() == Note.Visibility.SHARED && snapshot.readers().contains(userId);
+    }
+
+    private boolean canAccessNote(UUID userId, UUID noteId, UUID ownerId, Note.Visibility visibility) {
+        if (ownerId.equals(userId)) {
             return true;
         }
-        if (note.getVisibility() == Note.Visibility.PUBLIC) {
+        if (visibility == Note.Visibility.PUBLIC) {
             return true;
         }
-        if (note.getVisibility() == Note.Visibility.SHARED) {
-            return noteRepository.isNoteSharedWithUser(note.getId(), userId);
+        if (visibility == Note.Visibility.SHARED) {
+            return noteRepository.isNoteSharedWithUser(noteId, userId);
         }
         return false;
     }
 
+    /**
+     * Send the transaction to the shard holding the note: the user's own for
+     * their notes, the owner's for notes shared with them or public. Must run
+     * before the first statement of the transaction.
+     */
+    private void routeToNote(UUID noteId) {
+        shardedQueries.bindFirstMatching(() -> noteRepository.existsById(noteId));
+    }
+
     private User getUserById(UUID userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
+    /**
+     * A label new to this instance may be created concurrently by another
+     * request: the losing insert is retried once as a lookup, after evicting
+     * the cached miss.
+     */
     private Tag findOrCreateTag(String label) {
-        return tagRepository.findByLabel(label)
-                .orElseGet(() -> tagRepository.save(Tag.builder().label(label).build()));
+        Optional<Tag> existing = tagRepository.findByLabel(label);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            return tagRepository.getReferenceById(tagCreator.create(label));
+        } catch (DataIntegrityViolationException ex) {
+            tagCreator.evictCached();
+            return tagRepository.findByLabel(label).orElseThrow(() -> ex);
+        }
     }
 
-    private NoteResponse mapToResponse(Note note) {
+    NoteResponse mapToResponse(Note note) {
         return NoteResponse.builder()
                 .id(note.getId().toString())
                 .ownerId(note.getOwner().getId().toString())
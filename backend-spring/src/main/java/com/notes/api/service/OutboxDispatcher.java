@@ -0,0 +1,201 @@
+package com.notes.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.event.NoteChangedEvent;
+import com.notes.api.event.OutboxConsumer;
+import com.notes.api.event.OutboxMessage;
+import com.notes.api.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relays outbox rows to the registered {@link OutboxConsumer}s.
+ *
+ * Each cycle claims a batch in a short transaction holding a PostgreSQL
+ * advisory lock: the claimed rows get a lease ({@code available_at} pushed
+ * forward) so that no other cycle or instance takes them, nor any later event
+ * of the same notes. Consumers then run outside of any transaction, with no
+ * lock held. Events are grouped by note and delivered in id order; the first
+ * failure of a note stops its group and schedules a retry with exponential
+ * backoff, other notes are not held back. A row is deleted once every consumer
+ * accepted it, and set aside (dead_at) after {@code max-attempts} failures.
+ * A lease that runs out before delivery ends makes the events deliverable
+ * again, so it must exceed the slowest consumer.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notes.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxConsumer> consumers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate claimTransaction;
+    private final ShardedQueries shardedQueries;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer deliveryDelay;
+    private final Map<Integer, OutboxRepository.Backlog> backlogByShard = new ConcurrentHashMap<>();
+
+    public OutboxDispatcher(
+            OutboxRepository outboxRepository,
+            ObjectProvider<OutboxConsumer> consumers,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ShardedQueries shardedQueries,
+            @Value("${notes.outbox.batch-size:100}") int batchSize,
+            @Value("${notes.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${notes.outbox.initial-backoff:1000}") long initialBackoffMs,
+            @Value("${notes.outbox.max-backoff:300000}") long maxBackoffMs,
+            @Value("${notes.outbox.lease:60000}") long leaseMs
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.consumers = consumers.orderedStream().toList();
+        this.objectMapper = objectMapper;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.shardedQueries = shardedQueries;
+
+        this.delivered = Counter.builder("notes.outbox.delivered")
+                .description("Outbox events delivered to every consumer")
+                .register(meterRegistry);
+        this.failures = Counter.builder("notes.outbox.failures")
+                .description("Failed outbox deliveries (each will be retried or set aside)")
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("notes.outbox.delivery.delay")
+                .description("Time between the domain commit and the delivery of its side effects")
+                .register(meterRegistry);
+        Gauge.builder("notes.outbox.pending", backlogByShard,
+                b -> b.values().stream().mapToLong(OutboxRepository.Backlog::pending).sum())
+                .description("Outbox events waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("notes.outbox.dead", backlogByShard,
+                b -> b.values().stream().mapToLong(OutboxRepository.Backlog::dead).sum())
+                .description("Outbox events set aside after too many failures")
+                .register(meterRegistry);
+        Gauge.builder("notes.outbox.lag.seconds", backlogByShard,
+                b -> b.values().stream().mapToDouble(OutboxRepository.Backlog::oldestAgeSeconds).max().orElse(0))
+                .description("Age of the oldest pending outbox event")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notes.outbox.poll-interval:500}")
+    public void dispatch() {
+        if (consumers.isEmpty()) {
+            return;
+        }
+        // Each shard has its own outbox (and its own dispatcher lock)
+        shardedQueries.forEachShard(shard -> {
+            List<OutboxRepository.PendingEvent> claimed;
+            do {
+                claimed = claimTransaction.execute(status -> claim());
+                if (claimed == null || claimed.isEmpty()) {
+                    break;
+                }
+                deliverBatch(claimed);
+            } while (claimed.size() == batchSize);
+            backlogByShard.put(shard, outboxRepository.backlog());
+        });
+    }
+
+    /**
+     * @return events leased to this cycle, none when another instance holds the lock
+     */
+    private List<OutboxRepository.PendingEvent> claim() {
+        if (!outboxRepository.tryLockDispatcher()) {
+            return List.of();
+        }
+        List<OutboxRepository.PendingEvent> pending = outboxRepository.findDeliverable(batchSize);
+        outboxRepository.lease(pending.stream().map(OutboxRepository.PendingEvent::id).toList(), leaseMs);
+        return pending;
+    }
+
+    private void deliverBatch(List<OutboxRepository.PendingEvent> claimed) {
+        Map<UUID, List<OutboxRepository.PendingEvent>> byNote = new LinkedHashMap<>();
+        for (OutboxRepository.PendingEvent pending : claimed) {
+            byNote.computeIfAbsent(pending.noteId(), id -> new ArrayList<>()).add(pending);
+        }
+
+        List<Long> deliveredIds = new ArrayList<>();
+        List<Long> heldBackIds = new ArrayList<>();
+        for (List<OutboxRepository.PendingEvent> events : byNote.values()) {
+            for (int i = 0; i < events.size(); i++) {
+                OutboxRepository.PendingEvent pending = events.get(i);
+                if (!deliver(pending)) {
+                    // Later events of this note wait for the failed one
+                    events.subList(i + 1, events.size()).forEach(held -> heldBackIds.add(held.id()));
+                    break;
+                }
+                deliveredIds.add(pending.id());
+            }
+        }
+
+        outboxRepository.delete(deliveredIds);
+        outboxRepository.release(heldBackIds);
+    }
+
+    private boolean deliver(OutboxRepository.PendingEvent pending) {
+        String consumerName = null;
+        try {
+            OutboxMessage message = new OutboxMessage(pending.id(), pending.createdAt(), pending.attempts(),
+                    objectMapper.readValue(pending.payload(), NoteChangedEvent.class));
+            for (OutboxConsumer consumer : consumers) {
+                consumerName = consumer.name();
+                consumer.handle(message);
+            }
+        } catch (JsonProcessingException | RuntimeException ex) {
+            failures.increment();
+            int attempts = pending.attempts() + 1;
+            boolean dead = attempts >= maxAttempts;
+            String error = (consumerName != null ? consumerName + ": " : "") + ex;
+            outboxRepository.markFailed(pending.id(), error, backoff(attempts), dead);
+            if (dead) {
+                log.error("Outbox : événement {} (note {}) abandonné après {} tentatives", pending.id(), pending.noteId(), attempts, ex);
+            } else {
+                log.warn("Outbox : échec de livraison de l'événement {} (note {}), tentative {}", pending.id(), pending.noteId(), attempts, ex);
+            }
+            return false;
+        }
+        delivered.increment();
+        deliveryDelay.record(Duration.between(pending.createdAt(), LocalDateTime.now()));
+        return true;
+    }
+
+    private long backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+}
@@ -0,0 +1,252 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.dto.share.PublicLinkStatsResponse;
+import com.notes.api.entity.PublicLink;
+import com.notes.api.exception.ForbiddenException;
+import com.notes.api.exception.ResourceNotFoundException;
+import com.notes.api.repository.PublicLinkRepository;
+import com.notes.api.repository.PublicLinkStatsRepository;
+import com.notes.api.repository.PublicLinkStatsRepository.Stats;
+import com.notes.api.util.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View counts and unique visitors of public links.
+ *
+ * Views are counted in memory, with a {@link LongAdder} and a
+ * {@link HyperLogLog} of visitors per token, and written to
+ * {@code public_link_stats} in batches every flush interval: serving a public
+ * link never writes to the database. A crash loses at most the views of one
+ * interval. Links idle for a whole interval are dropped from memory, and past
+ * {@code max-links} tracked links a flush is started early; views of new
+ * links are dropped until it frees room.
+ */
+@Slf4j
+@Service
+public class PublicLinkStatsService implements DisposableBean {
+
+    /**
+     * Views of one link since the last flush. The sketch is not reset: it
+     * covers every visitor seen since the link entered memory, and merging it
+     * again into the stored one changes nothing.
+     */
+    private static final class PendingViews {
+        final UUID ownerId;
+        final LongAdder views = new LongAdder();
+        final HyperLogLog visitors = new HyperLogLog();
+        volatile long lastViewedAtMillis;
+
+        PendingViews(UUID ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+
+    private record Delta(String token, long views, PendingViews pending) {
+    }
+
+    private final Map<String, PendingViews> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final PublicLinkRepository publicLinkRepository;
+    private final PublicLinkStatsRepository statsRepository;
+    private final ShardResolver shardResolver;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter views;
+    private final Counter dropped;
+    private final int maxLinks;
+    private final int batchSize;
+
+    public PublicLinkStatsService(PublicLinkRepository publicLinkRepository,
+                                  PublicLinkStatsRepository statsRepository,
+                                  ShardResolver shardResolver,
+                                  TaskScheduler taskScheduler,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notes.public-links.stats.max-links:10000}") int maxLinks,
+                                  @Value("${notes.public-links.stats.batch-size:500}") int batchSize) {
+        this.publicLinkRepository = publicLinkRepository;
+        this.statsRepository = statsRepository;
+        this.shardResolver = shardResolver;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxLinks = maxLinks;
+        this.batchSize = batchSize;
+        this.views = Counter.builder("notes.public_links.views")
+                .description("Public link views counted in memory")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notes.public_links.views.dropped")
+                .description("Public link views not counted because too many links were tracked")
+                .register(meterRegistry);
+        Gauge.builder("notes.public_links.stats.pending", pending, Map::size)
+                .description("Public links with views waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count a view of {@code token}. Memory only, no I/O.
+     *
+     * @param ownerId   owner of the note, which decides the shard of the link
+     * @param visitor   what tells visitors apart (address, user agent), only kept hashed
+     */
+    public void recordView(String token, UUID ownerId, String visitor) {
+        PendingViews entry = pending.get(token);
+        if (entry == null) {
+            if (pending.size() >= maxLinks) {
+                dropped.increment();
+                requestFlush();
+                return;
+            }
+            entry = pending.computeIfAbsent(token, key -> new PendingViews(ownerId));
+        }
+        long visitorHash = HyperLogLog.hash(visitor);
+        record(entry, visitorHash);
+        // Dropped by a flush meanwhile as idle: its views would never be written
+        if (pending.get(token) != entry) {
+            record(pending.computeIfAbsent(token, key -> new PendingViews(ownerId)), visitorHash);
+        }
+        views.increment();
+    }
+
+    @Transactional(readOnly = true)
+    public PublicLinkStatsResponse getStats(UUID ownerId, UUID linkId) {
+        PublicLink publicLink = publicLinkRepository.findLiveById(linkId)
+                .orElseThrow(() -> new ResourceNotFoundException("Public link not found"));
+
+        if (!publicLink.getNote().getOwner().getId().equals(ownerId)) {
+            throw new ForbiddenException("You don't have permission to access this public link's statistics");
+        }
+
+        Stats stored = statsRepository.findByLinkId(linkId)
+                .orElse(new Stats(linkId, publicLink.getUrlToken(), 0, null, null));
+        HyperLogLog visitors = stored.visitors() != null ? HyperLogLog.fromBytes(stored.visitors()) : new HyperLogLog();
+        long viewCount = stored.views();
+        LocalDateTime lastViewedAt = stored.lastViewedAt();
+
+        // Views of this instance not flushed yet
+        PendingViews entry = pending.get(publicLink.getUrlToken());
+        if (entry != null) {
+            viewCount += entry.views.sum();
+            visitors.merge(entry.visitors);
+            lastViewedAt = latest(lastViewedAt, entry);
+        }
+
+        return PublicLinkStatsResponse.builder()
+                .linkId(linkId.toString())
+                .views(viewCount)
+                .uniqueVisitors(visitors.estimate())
+                .lastViewedAt(lastViewedAt)
+                .build();
+    }
+
+    /**
+     * Write the views counted since the last flush, shard by shard, in batches.
+     * Views of a failed batch are put back for the next flush.
+     */
+    @Scheduled(initialDelayString = "${notes.public-links.stats.flush-interval:10000}",
+               fixedDelayString = "${notes.public-links.stats.flush-interval:10000}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<Integer, List<Delta>> byShard = new HashMap<>();
+            for (Map.Entry<String, PendingViews> entry : pending.entrySet()) {
+                long count = entry.getValue().views.sumThenReset();
+                if (count == 0) {
+                    pending.remove(entry.getKey(), entry.getValue());
+                    continue;
+                }
+                byShard.computeIfAbsent(shardResolver.shardOf(entry.getValue().ownerId), shard -> new ArrayList<>())
+                        .add(new Delta(entry.getKey(), count, entry.getValue()));
+            }
+            byShard.forEach((shard, deltas) -> {
+                for (int from = 0; from < deltas.size(); from += batchSize) {
+                    List<Delta> batch = deltas.subList(from, Math.min(from + batchSize, deltas.size()));
+                    try {
+                        ShardContext.runOn(shard, () -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+                    } catch (RuntimeException ex) {
+                        log.warn("Écriture des statistiques de liens publics impossible, nouvel essai au prochain cycle", ex);
+                        batch.forEach(delta -> delta.pending().views.add(delta.views()));
+                    }
+                }
+            });
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private void write(List<Delta> batch) {
+        Map<String, Delta> byToken = new HashMap<>();
+        batch.forEach(delta -> byToken.put(delta.token(), delta));
+
+        List<Stats> updates = new ArrayList<>(batch.size());
+        for (Stats stored : statsRepository.lockByTokens(byToken.keySet())) {
+            Delta delta = byToken.get(stored.urlToken());
+            HyperLogLog visitors = stored.visitors() != null
+                    ? HyperLogLog.fromBytes(stored.visitors())
+                    : new HyperLogLog();
+            visitors.merge(delta.pending().visitors);
+            updates.add(new Stats(stored.linkId(), stored.urlToken(), stored.views() + delta.views(),
+                    visitors.toBytes(), latest(stored.lastViewedAt(), delta.pending())));
+        }
+        // Tokens of links revoked meanwhile have no row: their views are dropped
+        statsRepository.update(updates);
+    }
+
+    /**
+     * At most one early flush waits in the scheduler, however many views are dropped meanwhile.
+     */
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                flushRequested.set(false);
+                flush();
+            }, Instant.now());
+        }
+    }
+
+    private static void record(PendingViews entry, long visitorHash) {
+        entry.views.increment();
+        entry.visitors.offer(visitorHash);
+        entry.lastViewedAtMillis = System.currentTimeMillis();
+    }
+
+    private static LocalDateTime latest(LocalDateTime stored, PendingViews entry) {
+        if (entry.lastViewedAtMillis == 0) {
+            return stored;
+        }
+        LocalDateTime pendingAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.lastViewedAtMillis), ZoneId.systemDefault());
+        return stored == null || pendingAt.isAfter(stored) ? pendingAt : stored;
+    }
+}
@@ -1,18 +1,22 @@
 package com.notes.api.service;
 
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.note.NoteResponse;
 import com.notes.api.dto.share.PublicLinkResponse;
 import com.notes.api.dto.share.ShareRequest;
 import com.notes.api.entity.Note;
 import com.notes.api.entity.PublicLink;
 import com.notes.api.entity.Share;
+import com.notes.api.entity.Tag;
 import com.notes.api.entity.User;
+import com.notes.api.event.NoteChangePublisher;
 import com.notes.api.exception.BadRequestException;
 import com.notes.api.exception.ForbiddenException;
 import com.notes.api.exception.ResourceNotFoundException;
 import com.notes.api.repository.NoteRepository;
 import com.notes.api.repository.PublicLinkRepository;
 import com.notes.api.repository.ShareRepository;
-import com.notes.api.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,15 +24,20 @@ import org.springframework.transaction.annotation.Transactional;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "notes.service")
 public class ShareService {
 
     private final ShareRepository shareRepository;
     private final PublicLinkRepository publicLinkRepository;
     private final NoteRepository noteRepository;
-    private final UserRepository userRepository;
+    private final NoteChangePublisher changePublisher;
+    private final ShardedQueries shardedQueries;
+    private final UserDirectory userDirectory;
+    private final SingleFlight singleFlight;
     private static final SecureRandom secureRandom = new SecureRandom();
 
     @Transactional
@@ -40,7 +49,8 @@ public class ShareService {
             throw new ForbiddenException("Vous ne pouvez partager que vos propres notes");
         }
 
-        User sharedWithUser = userRepository.findByEmail(request.getEmail())
+        // The recipient may live on another shard: the share stays on the note's
+        User sharedWithUser = userDirectory.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur introuvable: " + request.getEmail()));
 
         if (sharedWithUser.getId().equals(ownerId)) {
@@ -59,10 +69,13 @@ public class ShareService {
 
         shareRepository.save(share);
 
+        Note.Visibility previousVisibility = note.getVisibility();
         if (note.getVisibility() != Note.Visibility.SHARED) {
             note.setVisibility(Note.Visibility.SHARED);
-            noteRepository.save(note);
+            noteRepository.saveAndFlush(note);
         }
+
+        changePublisher.shared(note, previousVisibility, sharedWithUser.getId());
     }
 
     @Transactional
@@ -90,8 +103,10 @@ public class ShareService {
         publicLink = publicLinkRepository.save(publicLink);
 
         if (note.getVisibility() != Note.Visibility.PUBLIC) {
+            Note.Visibility previousVisibility = note.getVisibility();
             note.setVisibility(Note.Visibility.PUBLIC);
-            noteRepository.save(note);
+            noteRepository.saveAndFlush(note);
+            changePublisher.visibilityChanged(note, previousVisibility);
         }
 
         return mapToPublicLinkResponse(publicLink);
@@ -99,7 +114,7 @@ public class ShareService {
 
     @Transactional
     public void revokeShare(UUID ownerId, UUID shareId) {
-        Share share = shareRepository.findById(shareId)
+        Share share = shareRepository.findLiveById(shareId)
                 .orElseThrow(() -> new ResourceNotFoundException("Share not found"));
 
         if (!share.getNote().getOwner().getId().equals(ownerId)) {
@@ -107,6 +122,8 @@ public class ShareService {
         }
 
         Note note = share.getNote();
+        Note.Visibility previousVisibility = note.getVisibility();
+        UUID revokedUserId = share.getSharedWithUser().getId();
         shareRepository.delete(share);
 
         // Si la note était SHARED et qu'il ne reste plus de partages actifs, la rendre PRIVATE
@@ -114,14 +131,16 @@ public class ShareService {
             var remainingShares = shareRepository.findByNote(note);
             if (remainingShares.isEmpty()) {
                 note.setVisibility(Note.Visibility.PRIVATE);
-                noteRepository.save(note);
+                noteRepository.saveAndFlush(note);
             }
         }
+
+        changePublisher.unshared(note, previousVisibility, revokedUserId);
     }
 
     @Transactional
     public void revokePublicLink(UUID ownerId, UUID linkId) {
-        PublicLink publicLink = publicLinkRepository.findById(linkId)
+        PublicLink publicLink = publicLinkRepository.findLiveById(linkId)
                 .orElseThrow(() -> new ResourceNotFoundException("Public link not found"));
 
         if (!publicLink.getNote().getOwner().getId().equals(ownerId)) {
@@ -131,8 +150,10 @@ public class ShareService {
         publicLinkRepository.delete(publicLink);
 
         Note note = publicLink.getNote();
+        Note.Visibility previousVisibility = note.getVisibility();
         note.setVisibility(Note.Visibility.PRIVATE);
-        noteRepository.save(note);
+        noteRepository.saveAndFlush(note);
+        changePublisher.visibilityChanged(note, previousVisibility);
     }
 
     @Transactional(readOnly = true)
@@ -147,16 +168,23 @@ public class ShareService {
         return shareRepository.findByNote(note).size();
     }
 
-    @Transactional(readOnly = true)
-    public Note getNoteByPublicToken(String token) {
-        PublicLink publicLink = publicLinkRepository.findByUrlToken(token)
-                .orElseThrow(() -> new ResourceNotFoundException("Public link not found or expired"));
-
-        if (publicLink.getExpiresAt() != null && publicLink.getExpiresAt().isBefore(java.time.LocalDateTime.now())) {
-            throw new ResourceNotFoundException("Public link has expired");
-        }
+    /**
+     * Anonymous access: the link is looked up on every shard. Concurrent
+     * visitors of the same link share one load (see {@link SingleFlight}); the
+     * token is the only credential, so there is nothing else to check per caller.
+     */
+    public NoteResponse getNoteByPublicToken(String token) {
+        return singleFlight.load("public-link", token, () -> {
+            shardedQueries.bindFirstMatching(() -> publicLinkRepository.existsByUrlToken(token));
+            PublicLink publicLink = publicLinkRepository.findByUrlToken(token)
+                    .orElseThrow(() -> new ResourceNotFoundException("Public link not found or expired"));
+
+            if (publicLink.getExpiresAt() != null && publicLink.getExpiresAt().isBefore(java.time.LocalDateTime.now())) {
+                throw new ResourceNotFoundException("Public link has expired");
+            }
 
-        return publicLink.getNote();
+            return mapToNoteResponse(publicLink.getNote());
+        });
     }
 
     private String generateUrlToken() {
@@ -165,6 +193,19 @@ public class ShareService {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
 
+    private NoteResponse mapToNoteResponse(Note note) {
+        return NoteResponse.builder()
+                .id(note.getId().toString())
+                .ownerId(note.getOwner().getId().toString())
+                .title(note.getTitle())
+                .contentMd(note.getContentMd())
+                .visibility(note.getVisibility())
+                .tags(note.getTags().stream().map(Tag::getLabel).collect(Collectors.toSet()))
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .build();
+    }
+
     private PublicLinkResponse mapToPublicLinkResponse(PublicLink publicLink) {
         return PublicLinkResponse.builder()
                 .id(publicLink.getId().toString())
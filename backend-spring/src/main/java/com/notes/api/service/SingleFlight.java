@@ -0,0 +1,136 @@
+package com.notes.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads into a single database load.
+ *
+ * The first caller for a key runs the load, in its own thread and in a
+ * read-only transaction; callers arriving while it runs wait for its result
+ * instead of querying again. Nothing is kept once the load completes: this is
+ * not a cache, a caller only ever sees a load that was in flight when it
+ * arrived. Loaded values are shared between callers, so they must be
+ * immutable snapshots (DTOs, never entities) and must not depend on who asks:
+ * authorization stays with each caller.
+ */
+@Component
+public class SingleFlight {
+
+    private record Key(String flight, Object key) {
+    }
+
+    private record Meters(Counter loads, Counter coalesced, Counter timeouts) {
+    }
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate readOnly;
+    private final long timeoutMillis;
+
+    public SingleFlight(PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${notes.single-flight.timeout:5000}") long timeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeoutMillis;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        Gauge.builder("notes.singleflight.in_flight", inFlight, Map::size)
+                .description("Coalesced loads currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The value of {@code loader} for {@code key}, shared with concurrent callers
+     * of the same {@code flight}. Exceptions of the load are rethrown to every caller.
+     *
+     * @throws QueryTimeoutException if the load in flight takes longer than the timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V load(String flight, Object key, Supplier<V> loader) {
+        // Inside a transaction the load could see its uncommitted writes: never share it
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        Meters flightMeters = meters(flight);
+        Key inFlightKey = new Key(flight, key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(inFlightKey, load);
+        if (running != null) {
+            flightMeters.coalesced().increment();
+            return (V) await(running, flightMeters);
+        }
+
+        flightMeters.loads().increment();
+        try {
+            V value = readOnly.execute(status -> loader.get());
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(inFlightKey, load);
+        }
+    }
+
+    /**
+     * Let the next caller for {@code key} start a new load rather than join the
+     * one in flight, which may predate a change that just committed.
+     */
+    public void forget(String flight, Object key) {
+        inFlight.remove(new Key(flight, key));
+    }
+
+    private Object await(CompletableFuture<Object> running, Meters flightMeters) {
+        try {
+            return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            flightMeters.timeouts().increment();
+            throw new QueryTimeoutException("Coalesced load timed out after " + timeoutMillis + " ms", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced load", ex);
+        }
+    }
+
+    private Meters meters(String flight) {
+        return meters.computeIfAbsent(flight, name -> new Meters(
+                Counter.builder("notes.singleflight.loads")
+                        .description("Loads run against the database")
+                        .tag("flight", name)
+                        .register(meterRegistry),
+                Counter.builder("notes.singleflight.coalesced")
+                        .description("Callers served by a load already in flight")
+                        .tag("flight", name)
+                        .register(meterRegistry),
+                Counter.builder("notes.singleflight.timeouts")
+                        .description("Callers that gave up waiting for a load in flight")
+                        .tag("flight", name)
+                        .register(meterRegistry)));
+    }
+}
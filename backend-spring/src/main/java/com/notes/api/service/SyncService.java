@@ -0,0 +1,216 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.sync.SyncResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.event.NoteChangedEvent;
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.repository.NoteChangeRepository;
+import com.notes.api.repository.NoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental synchronization for offline-first clients.
+ *
+ * Every committed {@link NoteChangedEvent} is recorded in the change log, in the
+ * same transaction, as one row per concerned user (plus one shared row when the
+ * note is or was public). A sync call reads the rows after the client's cursor,
+ * keeps the latest change per note and returns current note data for upserts
+ * and tombstones for deletions and lost access. Its cost depends on the number
+ * of changes, not on the size of the library.
+ *
+ * Rows older than {@code notes.sync.retention} are purged by the maintenance;
+ * a client whose cursor predates the purge is asked to reload its full list.
+ * The cursor only moves past transactions that have ended, so one long-running
+ * transaction delays the sync of every client until it finishes.
+ *
+ * Change rows live with their note, on its owner's shard, and transaction ids
+ * are only ordered within one database: with sharding, the cursor is one
+ * position per shard and every shard is read, since notes shared with the
+ * user or made public may live on any of them.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    /**
+     * Stands for "any user outside the note's audience" when translating broadcasts.
+     */
+    private static final UUID ANY_OTHER_USER = new UUID(0L, 0L);
+
+    private static final int MAX_LIMIT = 1000;
+
+    private static final String SHARD_SEPARATOR = ".";
+
+    private final NoteChangeRepository changeRepository;
+    private final NoteRepository noteRepository;
+    private final NoteService noteService;
+    private final ShardedQueries shardedQueries;
+    private final ShardResolver shardResolver;
+
+    /**
+     * Record the change in the caller's transaction: the log never contains
+     * rolled back changes and never misses committed ones.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void recordChange(NoteChangedEvent event) {
+        // Shared row first: the per-user rows written after it take precedence
+        if (event.isBroadcast()) {
+            NoteChangedEvent.Kind kind = event.kindFor(ANY_OTHER_USER);
+            if (kind != null) {
+                changeRepository.append(event.noteId(), null, kind);
+            }
+        }
+        for (UUID userId : event.directRecipients()) {
+            NoteChangedEvent.Kind kind = event.kindFor(userId);
+            if (kind != null) {
+                changeRepository.append(event.noteId(), userId, kind);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse sync(UUID userId, String since, int limit) {
+        if (since == null || since.isBlank()) {
+            return reset();
+        }
+
+        List<NoteChangeRepository.Cursor> cursors;
+        try {
+            cursors = parseCursors(since);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid sync cursor");
+        }
+        if (cursors.size() != shardResolver.count()) {
+            // Issued before the number of shards changed: positions no longer match
+            return reset();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        int shardPageSize = Math.max(1, pageSize / cursors.size());
+        List<ShardPage> pages = shardedQueries.onEachShard(
+                shard -> readShard(userId, cursors.get(shard), shardPageSize));
+        if (pages.contains(null)) {
+            return reset();
+        }
+
+        List<NoteResponse> upserts = new ArrayList<>();
+        List<SyncResponse.Tombstone> tombstones = new ArrayList<>();
+        boolean hasMore = false;
+        for (ShardPage page : pages) {
+            upserts.addAll(page.upserts());
+            tombstones.addAll(page.tombstones());
+            hasMore |= page.hasMore();
+        }
+        return SyncResponse.builder()
+                .cursor(formatCursors(pages.stream().map(ShardPage::cursor).toList()))
+                .hasMore(hasMore)
+                .upserts(upserts)
+                .tombstones(tombstones)
+                .build();
+    }
+
+    /**
+     * The changes of one shard after its cursor, mapped while its transaction
+     * is open: a note and its change rows live on its owner's shard.
+     *
+     * @return null when the cursor predates the retention of that shard's log
+     */
+    private ShardPage readShard(UUID userId, NoteChangeRepository.Cursor cursor, int pageSize) {
+        if (cursor.isBefore(changeRepository.purgedUpTo())) {
+            // Changes after this cursor may have been removed by the retention
+            return null;
+        }
+
+        List<NoteChangeRepository.Change> changes = changeRepository.findAfter(userId, cursor, pageSize);
+        if (changes.isEmpty()) {
+            return new ShardPage(cursor, false, List.of(), List.of());
+        }
+
+        // Latest change per note wins
+        Map<UUID, NoteChangedEvent.Kind> latest = new LinkedHashMap<>();
+        for (NoteChangeRepository.Change change : changes) {
+            latest.remove(change.noteId());
+            latest.put(change.noteId(), change.kind());
+        }
+
+        List<UUID> upsertIds = latest.entrySet().stream()
+                .filter(entry -> !isTombstone(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Map<UUID, Note> notes = noteRepository.findAllById(upsertIds).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+
+        List<NoteResponse> upserts = new ArrayList<>();
+        List<SyncResponse.Tombstone> tombstones = new ArrayList<>();
+        latest.forEach((noteId, kind) -> {
+            Note note = notes.get(noteId);
+            if (isTombstone(kind) || note == null) {
+                tombstones.add(tombstone(noteId, note == null && !isTombstone(kind) ? NoteChangedEvent.Kind.DELETED : kind));
+            } else if (!noteService.canAccessNote(userId, note)) {
+                // Access changed again by a transaction not yet visible in the log
+                tombstones.add(tombstone(noteId, NoteChangedEvent.Kind.ACCESS_REVOKED));
+            } else {
+                upserts.add(noteService.mapToResponse(note));
+            }
+        });
+
+        return new ShardPage(changes.get(changes.size() - 1).cursor(), changes.size() == pageSize, upserts, tombstones);
+    }
+
+    private SyncResponse reset() {
+        return SyncResponse.builder()
+                .cursor(formatCursors(shardedQueries.onEachShard(shard -> changeRepository.currentCursor())))
+                .resetRequired(true)
+                .upserts(List.of())
+                .tombstones(List.of())
+                .build();
+    }
+
+    /**
+     * Transaction ids are per database: the client cursor holds one position
+     * per shard, in shard order. Without sharding it is a single position.
+     */
+    private static List<NoteChangeRepository.Cursor> parseCursors(String value) {
+        return Arrays.stream(value.split(Pattern.quote(SHARD_SEPARATOR), -1))
+                .map(NoteChangeRepository.Cursor::parse)
+                .toList();
+    }
+
+    private static String formatCursors(List<NoteChangeRepository.Cursor> cursors) {
+        return cursors.stream()
+                .map(NoteChangeRepository.Cursor::toString)
+                .collect(Collectors.joining(SHARD_SEPARATOR));
+    }
+
+    private boolean isTombstone(NoteChangedEvent.Kind kind) {
+        return kind == NoteChangedEvent.Kind.DELETED || kind == NoteChangedEvent.Kind.ACCESS_REVOKED;
+    }
+
+    private SyncResponse.Tombstone tombstone(UUID noteId, NoteChangedEvent.Kind reason) {
+        return SyncResponse.Tombstone.builder()
+                .noteId(noteId.toString())
+                .reason(reason)
+                .build();
+    }
+
+    private record ShardPage(NoteChangeRepository.Cursor cursor, boolean hasMore,
+                             List<NoteResponse> upserts, List<SyncResponse.Tombstone> tombstones) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.notes.api.service;
+
+import com.notes.api.entity.CacheRegions;
+import com.notes.api.entity.Tag;
+import com.notes.api.repository.TagRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Creates tags in a transaction of their own: losing the race to create a
+ * label fails that transaction only, and the caller's can read the winner's tag.
+ */
+@Component
+@RequiredArgsConstructor
+public class TagCreator {
+
+    private final TagRepository tagRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException if the label was created meanwhile
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UUID create(String label) {
+        return tagRepository.saveAndFlush(Tag.builder().label(label).build()).getId();
+    }
+
+    /**
+     * Forget what this instance cached about tags: a label created by another
+     * instance may be cached here as missing. Hibernate cannot evict a single
+     * query result, so the regions go whole; tags are cheap to reload.
+     */
+    public void evictCached() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(CacheRegions.TAG_BY_LABEL);
+        cache.evictEntityData(Tag.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.User;
+import com.notes.api.repository.EmailDirectoryRepository;
+import com.notes.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Which user owns an email, whatever their shard.
+ *
+ * The emails of every user are kept on {@link #DIRECTORY_SHARD}, where the
+ * primary key makes them unique across shards. Every statement runs there in
+ * its own transaction: claims commit before the user row is inserted, and
+ * lookups work from inside a transaction bound to another shard.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserDirectory {
+
+    static final int DIRECTORY_SHARD = 0;
+
+    /**
+     * Longer than any registration: a claim still unassigned by then was left by a crash.
+     */
+    private static final long STALE_CLAIM_SECONDS = 300;
+
+    private final EmailDirectoryRepository emailDirectory;
+    private final UserRepository userRepository;
+    private final ShardedQueries shardedQueries;
+    private final ShardResolver shardResolver;
+
+    /**
+     * @return false if the email is already taken
+     */
+    public boolean claim(String email) {
+        return shardedQueries.writeOn(DIRECTORY_SHARD, () -> emailDirectory.claim(email, STALE_CLAIM_SECONDS));
+    }
+
+    /**
+     * Complete the claim of {@code email} once its user has been committed.
+     */
+    public void assign(String email, UUID userId) {
+        shardedQueries.writeOn(DIRECTORY_SHARD, () -> {
+            emailDirectory.assign(email, userId);
+            return null;
+        });
+    }
+
+    public void release(String email) {
+        shardedQueries.writeOn(DIRECTORY_SHARD, () -> {
+            emailDirectory.release(email);
+            return null;
+        });
+    }
+
+    public void remove(UUID userId) {
+        shardedQueries.writeOn(DIRECTORY_SHARD, () -> {
+            emailDirectory.deleteByUserId(userId);
+            return null;
+        });
+    }
+
+    /**
+     * One lookup on the directory, then one on the user's shard. Users
+     * registered before the directory are searched on every shard, then
+     * recorded in it.
+     */
+    public Optional<User> findByEmail(String email) {
+        Optional<UUID> userId = shardedQueries.readOn(DIRECTORY_SHARD, () -> emailDirectory.findUserId(email));
+        if (userId.isPresent()) {
+            return shardedQueries.readOn(shardResolver.shardOf(userId.get()),
+                    () -> userRepository.findById(userId.get()));
+        }
+        Optional<User> user = shardedQueries.findFirst(() -> userRepository.findByEmail(email));
+        user.ifPresent(found -> shardedQueries.writeOn(DIRECTORY_SHARD, () -> {
+            emailDirectory.backfill(email, found.getId());
+            return null;
+        }));
+        return user;
+    }
+}
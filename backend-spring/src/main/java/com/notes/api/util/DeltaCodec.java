@@ -0,0 +1,225 @@
+package com.notes.api.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary delta encoding used by the revision history.
+ *
+ * A delta describes how to rebuild a target byte array from a source byte array
+ * as a sequence of COPY (range of the source) and INSERT (literal bytes)
+ * instructions, in the spirit of git pack deltas. The instruction stream is then
+ * deflated, so the stored size grows with the size of the edit rather than with
+ * the size of the note.
+ */
+public final class DeltaCodec {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int HASH_BASE = 31;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_INSERT = 2;
+
+    private DeltaCodec() {
+    }
+
+    /**
+     * Compute the compressed delta that turns {@code source} into {@code target}.
+     */
+    public static byte[] encode(byte[] source, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarInt(out, target.length);
+
+        Map<Integer, Integer> index = indexBlocks(source);
+        int highPower = power(HASH_BASE, BLOCK_SIZE - 1);
+
+        int pendingStart = 0;
+        int i = 0;
+        int hash = target.length >= BLOCK_SIZE ? hash(target, 0) : 0;
+
+        while (i + BLOCK_SIZE <= target.length) {
+            Integer candidate = index.get(hash);
+            if (candidate != null && regionEquals(source, candidate, target, i, BLOCK_SIZE)) {
+                int srcStart = candidate;
+                int tgtStart = i;
+
+                // Extend the match backwards into pending literals, then forwards
+                while (srcStart > 0 && tgtStart > pendingStart && source[srcStart - 1] == target[tgtStart - 1]) {
+                    srcStart--;
+                    tgtStart--;
+                }
+                int length = (i - tgtStart) + BLOCK_SIZE;
+                while (srcStart + length < source.length && tgtStart + length < target.length
+                        && source[srcStart + length] == target[tgtStart + length]) {
+                    length++;
+                }
+
+                writeInsert(out, target, pendingStart, tgtStart);
+                writeCopy(out, srcStart, length);
+
+                i = tgtStart + length;
+                pendingStart = i;
+                if (i + BLOCK_SIZE <= target.length) {
+                    hash = hash(target, i);
+                }
+                continue;
+            }
+
+            if (i + BLOCK_SIZE < target.length) {
+                hash = (hash - target[i] * highPower) * HASH_BASE + target[i + BLOCK_SIZE];
+            }
+            i++;
+        }
+
+        writeInsert(out, target, pendingStart, target.length);
+        return deflate(out.toByteArray());
+    }
+
+    /**
+     * Rebuild the target of a delta produced by {@link #encode(byte[], byte[])}.
+     */
+    public static byte[] apply(byte[] source, byte[] delta) {
+        byte[] instructions = inflate(delta);
+        int[] pos = {0};
+        int targetLength = readVarInt(instructions, pos);
+        byte[] target = new byte[targetLength];
+        int written = 0;
+
+        while (pos[0] < instructions.length) {
+            byte op = instructions[pos[0]++];
+            if (op == OP_COPY) {
+                int offset = readVarInt(instructions, pos);
+                int length = readVarInt(instructions, pos);
+                System.arraycopy(source, offset, target, written, length);
+                written += length;
+            } else if (op == OP_INSERT) {
+                int length = readVarInt(instructions, pos);
+                System.arraycopy(instructions, pos[0], target, written, length);
+                pos[0] += length;
+                written += length;
+            } else {
+                throw new IllegalStateException("Corrupted delta: unknown instruction " + op);
+            }
+        }
+
+        if (written != targetLength) {
+            throw new IllegalStateException("Corrupted delta: expected " + targetLength + " bytes, got " + written);
+        }
+        return target;
+    }
+
+    /**
+     * Deflate a full payload (used for revision snapshots).
+     */
+    public static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflate a payload produced by {@link #deflate(byte[])}.
+     */
+    public static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length * 4));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Corrupted payload: truncated deflate stream");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Map<Integer, Integer> indexBlocks(byte[] source) {
+        Map<Integer, Integer> index = new HashMap<>(Math.max(16, source.length / BLOCK_SIZE * 2));
+        for (int offset = 0; offset + BLOCK_SIZE <= source.length; offset += BLOCK_SIZE) {
+            index.putIfAbsent(hash(source, offset), offset);
+        }
+        return index;
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int h = 0;
+        for (int k = 0; k < BLOCK_SIZE; k++) {
+            h = h * HASH_BASE + data[offset + k];
+        }
+        return h;
+    }
+
+    private static int power(int base, int exponent) {
+        int result = 1;
+        for (int k = 0; k < exponent; k++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    private static boolean regionEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int k = 0; k < length; k++) {
+            if (a[aOffset + k] != b[bOffset + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeCopy(ByteArrayOutputStream out, int offset, int length) {
+        out.write(OP_COPY);
+        writeVarInt(out, offset);
+        writeVarInt(out, length);
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] data, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        out.write(OP_INSERT);
+        writeVarInt(out, to - from);
+        out.write(data, from, to - from);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,42 @@
+package com.notes.api.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562).
+ *
+ * The first 48 bits are the Unix time in milliseconds and the remaining 74
+ * bits are random, so successive keys land on the right-hand edge of B-tree
+ * indexes instead of on random pages. PostgreSQL compares UUIDs byte by byte,
+ * hence in creation order; v7 and legacy v4 keys share the same column type.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    static UUID generate(long epochMillis) {
+        long randA = RANDOM.nextInt() & 0x0FFFL;
+        long randB = RANDOM.nextLong();
+        long mostSigBits = (epochMillis & 0xFFFF_FFFF_FFFFL) << 16 | 0x7000L | randA;
+        long leastSigBits = randB & 0x3FFF_FFFF_FFFF_FFFFL | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Creation time of a version 7 UUID, in milliseconds since the epoch.
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,14 @@
+-- Background maintenance (MaintenanceScheduler): expired public links and
+-- orphan tags are deleted in small batches.
+
+CREATE INDEX idx_public_links_expires_at ON public_links(expires_at) WHERE expires_at IS NOT NULL;
+
+-- Orphan lookups and the cascade of a tag deletion go by tag alone (created on every partition)
+CREATE INDEX idx_note_tags_tag ON note_tags(tag_id);
+
+-- When the tag was last seen without any note. Tags are cached by label in
+-- every instance: one is only deleted once it has stayed orphaned for longer
+-- than that cache keeps it, so that no instance can hand it out again.
+ALTER TABLE tags ADD COLUMN orphaned_since TIMESTAMP;
+
+CREATE INDEX idx_tags_orphaned_since ON tags(orphaned_since) WHERE orphaned_since IS NOT NULL;
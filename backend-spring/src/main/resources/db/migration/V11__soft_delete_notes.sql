@@ -0,0 +1,8 @@
+-- Soft delete: a deleted note stays in the trash, hidden from every read,
+-- until it is restored or MaintenanceScheduler purges it after the retention
+-- period. Its shares, public links and revisions are only removed by the purge.
+
+ALTER TABLE notes ADD COLUMN deleted_at TIMESTAMP;
+
+-- Trash listing and purge (created on every partition)
+CREATE INDEX idx_notes_deleted_at ON notes(owner_id, deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,36 @@
+-- Account deletion and bulk note transfer run as background jobs, in chunks
+-- that each commit on their own. A job lives on the shard of the user who
+-- requested it; its row records where it stands so that any instance can
+-- resume it after a crash, once the lease of the previous one has expired.
+
+CREATE TABLE background_jobs (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    type VARCHAR(30) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    -- No foreign key: the job outlives the account it deletes
+    user_id UUID NOT NULL,
+    target_user_id UUID,
+    phase VARCHAR(20) NOT NULL,
+    -- Next shard to clean, for the phases that visit every shard
+    shard INTEGER NOT NULL DEFAULT 0,
+    processed BIGINT NOT NULL DEFAULT 0,
+    total BIGINT NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+-- At most one unfinished job per user
+CREATE UNIQUE INDEX idx_background_jobs_active_user ON background_jobs(user_id)
+    WHERE status IN ('PENDING', 'RUNNING');
+CREATE INDEX idx_background_jobs_runnable ON background_jobs(created_at)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+-- Transferring a note changes its owner_id, and so its partition: the tags
+-- of the note must follow in the same statement.
+ALTER TABLE note_tags DROP CONSTRAINT note_tags_note_fkey;
+ALTER TABLE note_tags ADD CONSTRAINT note_tags_note_fkey FOREIGN KEY (note_id, owner_id)
+    REFERENCES notes(id, owner_id) ON DELETE CASCADE ON UPDATE CASCADE;
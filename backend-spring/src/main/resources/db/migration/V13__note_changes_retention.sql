@@ -0,0 +1,13 @@
+-- Retention of the sync change log (notes.sync.retention).
+-- The maintenance deletes old note_changes rows and records here the highest
+-- (txid, seq) it deleted: a client whose cursor is below it may have missed
+-- changes and must reload its full list.
+CREATE TABLE note_changes_purged (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    txid XID8 NOT NULL,
+    seq BIGINT NOT NULL
+);
+
+INSERT INTO note_changes_purged (txid, seq) VALUES ('0', 0);
+
+CREATE INDEX idx_note_changes_created_at ON note_changes(created_at);
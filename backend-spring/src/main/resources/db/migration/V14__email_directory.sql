@@ -0,0 +1,15 @@
+-- Global email uniqueness across shards. Only the table of shard 0 is used:
+-- registration claims the email there, in its own transaction, before the
+-- user row is inserted on the user's shard. user_id stays NULL until that
+-- insert has committed; a claim left NULL by a crash is taken over after a
+-- few minutes.
+-- Existing users are copied below; those of the other shards are added the
+-- first time they are looked up by email.
+CREATE TABLE email_directory (
+    email VARCHAR(255) PRIMARY KEY,
+    user_id UUID UNIQUE,
+    claimed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO email_directory (email, user_id)
+SELECT email, id FROM users;
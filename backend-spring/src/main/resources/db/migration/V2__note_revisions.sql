@@ -0,0 +1,17 @@
+-- Create note_revisions table
+-- HEAD rows carry no payload (content lives in notes.content_md),
+-- SNAPSHOT rows hold a deflated full copy, DELTA rows a deflated reverse delta
+-- against the next revision.
+CREATE TABLE note_revisions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    note_id UUID NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+    revision_number INTEGER NOT NULL,
+    storage VARCHAR(20) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    content_length INTEGER NOT NULL,
+    payload BYTEA,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(note_id, revision_number)
+);
+
+CREATE INDEX idx_note_revisions_snapshots ON note_revisions(note_id, revision_number) WHERE storage = 'SNAPSHOT';
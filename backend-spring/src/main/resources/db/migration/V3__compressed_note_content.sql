@@ -0,0 +1,11 @@
+-- Large note bodies can be stored compressed (see CompressedText):
+-- exactly one of content_md / content_compressed is set.
+ALTER TABLE notes ALTER COLUMN content_md DROP NOT NULL;
+
+ALTER TABLE notes ADD COLUMN content_compressed BYTEA;
+
+-- Already deflated by the application: skip TOAST compression, keep out-of-line storage
+ALTER TABLE notes ALTER COLUMN content_compressed SET STORAGE EXTERNAL;
+
+ALTER TABLE notes ADD CONSTRAINT chk_notes_content_storage
+    CHECK ((content_md IS NULL) <> (content_compressed IS NULL));
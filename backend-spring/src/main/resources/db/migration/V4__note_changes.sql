@@ -0,0 +1,16 @@
+-- Change log backing the incremental sync API (GET /api/v1/sync).
+-- One row per user concerned by a change, or user_id NULL when the change
+-- concerns every user (public notes). No foreign keys: tombstones outlive notes.
+-- Rows are read in (txid, seq) order and only once their transaction is older
+-- than every running transaction, so a cursor never skips a late commit.
+CREATE TABLE note_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    txid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    note_id UUID NOT NULL,
+    user_id UUID,
+    kind VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_note_changes_user_cursor ON note_changes(user_id, txid, seq);
+CREATE INDEX idx_note_changes_broadcast_cursor ON note_changes(txid, seq) WHERE user_id IS NULL;
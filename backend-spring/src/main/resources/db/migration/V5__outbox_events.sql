@@ -0,0 +1,18 @@
+-- Transactional outbox: post-commit side effects (indexing, cache invalidation,
+-- notifications...) are written here in the same transaction as the domain change,
+-- then relayed to in-process consumers by OutboxDispatcher.
+-- Delivered rows are deleted; rows that exhaust their retries are kept with dead_at set.
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    note_id UUID NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    dead_at TIMESTAMP
+);
+
+CREATE INDEX idx_outbox_events_pending ON outbox_events(id) WHERE dead_at IS NULL;
+CREATE INDEX idx_outbox_events_note_pending ON outbox_events(note_id, id) WHERE dead_at IS NULL;
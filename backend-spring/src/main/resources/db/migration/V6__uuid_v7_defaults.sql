@@ -0,0 +1,22 @@
+-- Time-ordered UUIDv7 keys for rows inserted in SQL, matching the ids that
+-- Hibernate assigns (UuidV7). Existing v4 keys are left as they are: both
+-- versions share the uuid type, only new rows are appended in time order.
+-- Milliseconds since the epoch in the first 6 bytes, version bits 0100 -> 0111.
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS uuid AS $$
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::uuid;
+$$ LANGUAGE sql VOLATILE;
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE notes ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE tags ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE shares ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE public_links ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE note_revisions ALTER COLUMN id SET DEFAULT uuid_generate_v7();
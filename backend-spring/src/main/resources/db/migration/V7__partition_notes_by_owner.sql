@@ -0,0 +1,115 @@
+-- Hash-partition notes and note_tags by owner_id (16 partitions each).
+-- Owner-scoped queries (listing, search, tag filter) then touch a single
+-- partition, and vacuum works on tables 1/16th of the size.
+--
+-- Constraints on a partitioned table must include the partition key:
+-- - notes: primary key (id, owner_id); ids stay globally unique because they
+--   are UUIDs generated by the application (UuidV7) or uuid_generate_v7().
+-- - note_tags: gains owner_id, filled by the insert of Note.tags, and keeps a
+--   real foreign key on (note_id, owner_id).
+-- - shares, public_links, note_revisions reference notes by id only, which a
+--   foreign key can no longer target: the reference check and the cascade on
+--   delete are done by triggers below.
+--
+-- The copy takes an exclusive lock for its duration; on a large database run
+-- it in a maintenance window.
+
+CREATE TABLE notes_partitioned (
+    id UUID NOT NULL DEFAULT uuid_generate_v7(),
+    owner_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    content_md TEXT,
+    content_compressed BYTEA,
+    visibility VARCHAR(20) NOT NULL DEFAULT 'PRIVATE',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT notes_partitioned_pkey PRIMARY KEY (id, owner_id),
+    CONSTRAINT chk_notes_partitioned_content_storage CHECK ((content_md IS NULL) <> (content_compressed IS NULL))
+) PARTITION BY HASH (owner_id);
+
+CREATE TABLE note_tags_partitioned (
+    note_id UUID NOT NULL,
+    tag_id UUID NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+    owner_id UUID NOT NULL,
+    CONSTRAINT note_tags_partitioned_pkey PRIMARY KEY (owner_id, note_id, tag_id),
+    CONSTRAINT note_tags_partitioned_note_fkey FOREIGN KEY (note_id, owner_id)
+        REFERENCES notes_partitioned(id, owner_id) ON DELETE CASCADE
+) PARTITION BY HASH (owner_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE notes_p%s PARTITION OF notes_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       lpad(i::text, 2, '0'), i);
+        EXECUTE format('CREATE TABLE note_tags_p%s PARTITION OF note_tags_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       lpad(i::text, 2, '0'), i);
+    END LOOP;
+END $$;
+
+-- Same as V3: already deflated by the application (applies to every partition)
+ALTER TABLE notes_partitioned ALTER COLUMN content_compressed SET STORAGE EXTERNAL;
+
+INSERT INTO notes_partitioned (id, owner_id, title, content_md, content_compressed, visibility, created_at, updated_at)
+SELECT id, owner_id, title, content_md, content_compressed, visibility, created_at, updated_at FROM notes;
+
+INSERT INTO note_tags_partitioned (note_id, tag_id, owner_id)
+SELECT nt.note_id, nt.tag_id, n.owner_id FROM note_tags nt JOIN notes n ON n.id = nt.note_id;
+
+-- Drops the foreign keys of shares, public_links and note_revisions on notes(id)
+DROP TABLE note_tags;
+DROP TABLE notes CASCADE;
+
+ALTER TABLE notes_partitioned RENAME TO notes;
+ALTER TABLE notes RENAME CONSTRAINT notes_partitioned_pkey TO notes_pkey;
+ALTER TABLE notes RENAME CONSTRAINT chk_notes_partitioned_content_storage TO chk_notes_content_storage;
+ALTER TABLE note_tags_partitioned RENAME TO note_tags;
+ALTER TABLE note_tags RENAME CONSTRAINT note_tags_partitioned_pkey TO note_tags_pkey;
+ALTER TABLE note_tags RENAME CONSTRAINT note_tags_partitioned_note_fkey TO note_tags_note_fkey;
+
+-- Created on every partition
+CREATE INDEX idx_notes_owner_updated_at ON notes(owner_id, updated_at DESC);
+CREATE INDEX idx_notes_visibility ON notes(visibility);
+CREATE INDEX idx_notes_updated_at ON notes(updated_at DESC);
+-- Lookups by id alone (access checks, shares, sync) probe each partition
+CREATE INDEX idx_notes_id ON notes(id);
+-- Note.tags loaded by note_id alone
+CREATE INDEX idx_note_tags_note_id ON note_tags(note_id);
+CREATE INDEX idx_note_tags_tag_id ON note_tags(owner_id, tag_id);
+
+-- Replaces the foreign keys on notes(id): the referenced note is locked like a
+-- foreign key check would, so it cannot be deleted concurrently.
+CREATE FUNCTION check_note_reference() RETURNS trigger AS $$
+BEGIN
+    PERFORM 1 FROM notes WHERE id = NEW.note_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'insert or update on table "%" violates reference to notes: note % does not exist',
+            TG_TABLE_NAME, NEW.note_id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_shares_note_reference BEFORE INSERT OR UPDATE OF note_id ON shares
+    FOR EACH ROW EXECUTE FUNCTION check_note_reference();
+CREATE TRIGGER trg_public_links_note_reference BEFORE INSERT OR UPDATE OF note_id ON public_links
+    FOR EACH ROW EXECUTE FUNCTION check_note_reference();
+CREATE TRIGGER trg_note_revisions_note_reference BEFORE INSERT OR UPDATE OF note_id ON note_revisions
+    FOR EACH ROW EXECUTE FUNCTION check_note_reference();
+
+-- ON DELETE CASCADE for the same tables. Fires after the statement's rows are
+-- processed, so a row moved to another partition (owner change) still exists
+-- and keeps its children.
+CREATE FUNCTION delete_note_children() RETURNS trigger AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM notes WHERE id = OLD.id) THEN
+        DELETE FROM shares WHERE note_id = OLD.id;
+        DELETE FROM public_links WHERE note_id = OLD.id;
+        DELETE FROM note_revisions WHERE note_id = OLD.id;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_notes_delete_children AFTER DELETE ON notes
+    FOR EACH ROW EXECUTE FUNCTION delete_note_children();
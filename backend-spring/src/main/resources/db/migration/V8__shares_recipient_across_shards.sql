@@ -0,0 +1,17 @@
+-- With owner-based sharding, a share lives on the shard of the note's owner
+-- while the user it is shared with may live on another one: the foreign key
+-- of shares.shared_with_user_id on users(id) cannot hold. A trigger keeps the
+-- cascade on user deletion for the shares stored on the same database; it
+-- cannot reach the other shards.
+
+ALTER TABLE shares DROP CONSTRAINT shares_shared_with_user_id_fkey;
+
+CREATE FUNCTION delete_user_shares() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM shares WHERE shared_with_user_id = OLD.id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_delete_shares AFTER DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION delete_user_shares();
@@ -0,0 +1,13 @@
+-- View analytics of public links. Views are counted in memory by each
+-- instance and added here in batches; visitors holds the HyperLogLog
+-- registers of the unique-visitor estimate (one byte per register), merged
+-- register by register on every flush. Lives with the link, on its owner's
+-- shard, and goes away with it.
+
+CREATE TABLE public_link_stats (
+    link_id UUID PRIMARY KEY REFERENCES public_links(id) ON DELETE CASCADE,
+    views BIGINT NOT NULL DEFAULT 0,
+    visitors BYTEA,
+    last_viewed_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
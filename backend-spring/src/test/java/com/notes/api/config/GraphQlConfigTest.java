@@ -0,0 +1,65 @@
+package com.notes.api.config;
+
+import com.notes.api.exception.ResourceNotFoundException;
+import graphql.GraphQLError;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GraphQlConfigTest {
+
+    private final DataFetcherExceptionResolver resolver = new GraphQlConfig().graphQlExceptionResolver();
+    private DataFetchingEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        environment = mock(DataFetchingEnvironment.class);
+        ExecutionStepInfo stepInfo = mock(ExecutionStepInfo.class);
+        when(stepInfo.getPath()).thenReturn(ResultPath.rootPath().segment("notes"));
+        when(environment.getExecutionStepInfo()).thenReturn(stepInfo);
+        when(environment.getField()).thenReturn(Field.newField("notes").build());
+    }
+
+    @Test
+    void resolve_QueryTimeout_UnavailableWithRetryHint() {
+        GraphQLError error = resolve(new QueryTimeoutException("Shard query timed out after 2000 ms"));
+
+        assertEquals(GraphQlConfig.UNAVAILABLE, error.getErrorType());
+        assertEquals(1, error.getExtensions().get("retryAfterSeconds"));
+        // The timeout details stay in the logs
+        assertFalse(error.getMessage().contains("2000"));
+        assertEquals(List.of("notes"), error.getPath());
+    }
+
+    @Test
+    void resolve_NotFound_MessageKept() {
+        GraphQLError error = resolve(new ResourceNotFoundException("Note not found"));
+
+        assertEquals(ErrorType.NOT_FOUND, error.getErrorType());
+        assertEquals("Note not found", error.getMessage());
+    }
+
+    @Test
+    void resolve_OtherException_LeftToDefaultResolver() {
+        assertNull(resolver.resolveException(new IllegalStateException("boom"), environment).block());
+    }
+
+    private GraphQLError resolve(Throwable ex) {
+        List<GraphQLError> errors = resolver.resolveException(ex, environment).block();
+        assertNotNull(errors);
+        assertEquals(1, errors.size());
+        return errors.get(0);
+    }
+}
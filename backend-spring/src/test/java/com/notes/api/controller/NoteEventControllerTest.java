@@ -0,0 +1,113 @@
+package com.notes.api.controller;
+
+import com.notes.api.config.CorsConfig;
+import com.notes.api.config.SecurityConfig;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.monitoring.SlowLog;
+import com.notes.api.security.CustomUserDetailsService;
+import com.notes.api.security.JwtTokenProvider;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.NoteEventStreamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The event stream behind the real security chain, up to the async dispatch
+ * that completes the response.
+ */
+@WebMvcTest(NoteEventController.class)
+@MockBean(JpaMetamodelMappingContext.class)
+@Import({SecurityConfig.class, CorsConfig.class, NoteEventControllerTest.Metrics.class})
+class NoteEventControllerTest {
+
+    private static final String TOKEN = "valid-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NoteEventStreamService eventStreamService;
+
+    @MockBean
+    private JwtTokenProvider tokenProvider;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockBean
+    private ShardedQueries shardedQueries;
+
+    @MockBean
+    private SlowLog slowLog;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(tokenProvider.validateToken(TOKEN)).thenReturn(true);
+        when(tokenProvider.getUserIdFromToken(TOKEN)).thenReturn(userId);
+        when(userDetailsService.loadUserById(userId)).thenReturn(new UserPrincipal(userId, "user@example.com", "x"));
+    }
+
+    @Test
+    void streamEvents_StreamCompletes_AsyncDispatchAllowed() throws Exception {
+        SseEmitter emitter = new SseEmitter(60_000L);
+        when(eventStreamService.subscribe(userId, null)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/notes/events")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("resync").data("{}"));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:resync")));
+    }
+
+    @Test
+    void streamEvents_NoToken_Refused() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/events"))
+                .andExpect(status().isForbidden());
+
+        verify(eventStreamService, never()).subscribe(any(), any());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry() {
+            return ObservationRegistry.NOOP;
+        }
+    }
+}
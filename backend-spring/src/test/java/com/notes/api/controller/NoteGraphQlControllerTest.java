@@ -0,0 +1,97 @@
+package com.notes.api.controller;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.graphql.ShareNode;
+import com.notes.api.dto.graphql.UserNode;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.repository.NoteGraphRepository;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.NoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NoteGraphQlControllerTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    private NoteGraphRepository noteGraphRepository;
+    private NoteGraphQlController controller;
+    private UserPrincipal currentUser;
+    private Principal principal;
+
+    @BeforeEach
+    void setUp() {
+        noteGraphRepository = mock(NoteGraphRepository.class);
+        controller = new NoteGraphQlController(mock(NoteService.class), noteGraphRepository,
+                new ShardedQueries(new ShardResolver(1), null, 1, 0), new ShardResolver(1), 100);
+        currentUser = new UserPrincipal(userId, "user@example.com", "x");
+        principal = new UsernamePasswordAuthenticationToken(currentUser, null, currentUser.getAuthorities());
+    }
+
+    @Test
+    void shareCount_ManyNotes_OneQueryForOwnNotesOnly() {
+        NoteResponse own = note(userId);
+        NoteResponse ownUnshared = note(userId);
+        NoteResponse other = note(otherUserId);
+        when(noteGraphRepository.countShares(any())).thenReturn(Map.of(UUID.fromString(own.getId()), 2));
+
+        Map<NoteResponse, Integer> counts = controller.shareCount(List.of(own, ownUnshared, other), principal);
+
+        verify(noteGraphRepository, times(1)).countShares(
+                List.of(UUID.fromString(own.getId()), UUID.fromString(ownUnshared.getId())));
+        assertEquals(2, counts.get(own));
+        assertEquals(0, counts.get(ownUnshared));
+        assertNull(counts.get(other));
+    }
+
+    @Test
+    void shares_NoteOfOtherUser_EmptyWithoutQuery() {
+        NoteResponse other = note(otherUserId);
+
+        Map<NoteResponse, List<ShareNode>> shares = controller.shares(List.of(other), principal);
+
+        assertEquals(List.of(), shares.get(other));
+        verifyNoInteractions(noteGraphRepository);
+    }
+
+    @Test
+    void sharedWith_SameUserTwice_LoadedOnce() {
+        String readerId = UUID.randomUUID().toString();
+        ShareNode first = ShareNode.builder().id("1").sharedWithUserId(readerId).build();
+        ShareNode second = ShareNode.builder().id("2").sharedWithUserId(readerId).build();
+        UserNode reader = new UserNode(readerId, "reader@example.com");
+        when(noteGraphRepository.findUsers(List.of(UUID.fromString(readerId))))
+                .thenReturn(Map.of(UUID.fromString(readerId), reader));
+
+        Map<ShareNode, UserNode> users = controller.sharedWith(List.of(first, second));
+
+        assertEquals(reader, users.get(first));
+        assertEquals(reader, users.get(second));
+    }
+
+    @Test
+    void notes_PageSizeAboveLimit_Rejected() {
+        assertThrows(BadRequestException.class, () -> controller.notes(currentUser, null, null, null, 0, 101));
+    }
+
+    private static NoteResponse note(UUID ownerId) {
+        return NoteResponse.builder()
+                .id(UUID.randomUUID().toString())
+                .ownerId(ownerId.toString())
+                .title("title")
+                .build();
+    }
+}
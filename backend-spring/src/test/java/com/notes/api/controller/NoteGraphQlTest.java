@@ -0,0 +1,182 @@
+package com.notes.api.controller;
+
+import com.notes.api.dto.note.NoteRequest;
+import com.notes.api.dto.share.ShareRequest;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.User;
+import com.notes.api.monitoring.SqlStatistics;
+import com.notes.api.repository.UserRepository;
+import com.notes.api.security.UserPrincipal;
+import com.notes.api.service.NoteService;
+import com.notes.api.service.ShareService;
+import com.notes.api.support.SqlAssertions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The GraphQL API end to end, through {@link ExecutionGraphQlService}, against
+ * the migrated schema: the statements a page of notes costs with its tags and
+ * share counts, and the queries rejected before execution for their depth or
+ * their cost. The limits are lowered so that the schema can exceed them.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "notes.graphql.max-depth=4",
+        "notes.graphql.max-complexity=500"
+})
+class NoteGraphQlTest {
+
+    private static final int NOTES = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private GraphQlTester graphQlTester;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void createSharedNotes() {
+        User owner = user();
+        User reader = user();
+        for (int i = 0; i < NOTES; i++) {
+            NoteRequest request = new NoteRequest();
+            request.setTitle("Note " + i);
+            request.setContentMd("# Note " + i);
+            request.setVisibility(Note.Visibility.PRIVATE);
+            request.setTags(Set.of("graphql-" + owner.getId(), "lot-" + i % 5 + "-" + owner.getId()));
+            UUID noteId = UUID.fromString(noteService.createNote(owner.getId(), request).getId());
+
+            ShareRequest share = new ShareRequest();
+            share.setEmail(reader.getEmail());
+            shareService.shareWithUser(owner.getId(), noteId, share);
+        }
+
+        UserPrincipal principal = UserPrincipal.create(owner);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        graphQlTester = ExecutionGraphQlServiceTester.create(graphQlService);
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+        SqlStatistics.stop();
+    }
+
+    @Test
+    void notes_PageWithTagsAndShareCounts_FewStatements() {
+        // Cold second-level cache: tags come from the database too
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        SqlAssertions.reset();
+
+        graphQlTester.document("""
+                        query {
+                          notes(size: 50) {
+                            content { id title tags shareCount }
+                          }
+                        }
+                        """)
+                .execute()
+                .path("notes.content").entityList(Object.class).hasSize(NOTES)
+                .path("notes.content[*].tags").entityList(new ParameterizedTypeReference<List<String>>() {})
+                .satisfies(tags -> assertTrue(tags.stream().allMatch(labels -> labels.size() == 2)))
+                .path("notes.content[*].shareCount").entityList(Integer.class)
+                .satisfies(counts -> assertTrue(counts.stream().allMatch(count -> count == 1)));
+
+        SqlAssertions.assertMaxQueries(10);
+        SqlAssertions.assertNoRepeatedQueries(3);
+    }
+
+    @Test
+    void notes_TooDeep_RejectedBeforeExecution() {
+        SqlAssertions.reset();
+
+        graphQlTester.document("""
+                        query {
+                          notes {
+                            content { shares { sharedWith { email } } }
+                          }
+                        }
+                        """)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertEquals(1, errors.size());
+                    assertTrue(errors.get(0).getMessage().contains("depth"), errors.get(0).getMessage());
+                });
+
+        SqlAssertions.assertMaxQueries(0);
+    }
+
+    @Test
+    void notes_TooCostly_RejectedBeforeExecution() {
+        SqlAssertions.reset();
+
+        // 100 notes x (1 + 9 for the note and its fields): 1000
+        graphQlTester.document("""
+                        query {
+                          notes(size: 100) {
+                            content { id ownerId title contentMd visibility tags createdAt updatedAt }
+                          }
+                        }
+                        """)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertEquals(1, errors.size());
+                    assertTrue(errors.get(0).getMessage().contains("complexity"), errors.get(0).getMessage());
+                });
+
+        SqlAssertions.assertMaxQueries(0);
+    }
+
+    private User user() {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.notes.api.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaLagMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(5000);
+
+    @Test
+    void check_LagWithinLimit_ReplicaServesReads() throws Exception {
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replica(1500.0)));
+
+        monitor.check();
+
+        assertEquals("replica-1", monitor.pickReplica());
+        assertEquals(1.5, meterRegistry.get("notes.datasource.replica.lag").tag("replica", "replica-1")
+                .gauge().value());
+    }
+
+    @Test
+    void check_LagOverLimit_ReplicaEvicted() throws Exception {
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replica(2500.0)));
+
+        monitor.check();
+
+        assertNull(monitor.pickReplica());
+    }
+
+    @Test
+    void check_ReceiverNotStreaming_ReplicaEvicted() throws Exception {
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replica((Double) null)));
+
+        monitor.check();
+
+        assertNull(monitor.pickReplica());
+        assertTrue(Double.isNaN(meterRegistry.get("notes.datasource.replica.lag").tag("replica", "replica-1")
+                .gauge().value()));
+    }
+
+    @Test
+    void check_Unreachable_ReplicaEvicted() throws Exception {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", down));
+
+        monitor.check();
+
+        assertNull(monitor.pickReplica());
+    }
+
+    @Test
+    void check_ReplicaCatchesUp_ServesReadsAgain() throws Exception {
+        DataSource replica = replica(5000.0, 100.0);
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replica));
+
+        monitor.check();
+        assertNull(monitor.pickReplica());
+
+        monitor.check();
+        assertEquals("replica-1", monitor.pickReplica());
+    }
+
+    @Test
+    void pickReplica_SeveralAvailable_RoundRobinOverUsableOnly() throws Exception {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica(0.0));
+        replicas.put("replica-2", replica((Double) null));
+        replicas.put("replica-3", replica(10.0));
+        ReplicaLagMonitor monitor = monitor(replicas);
+
+        monitor.check();
+
+        assertEquals("replica-1", monitor.pickReplica());
+        assertEquals("replica-3", monitor.pickReplica());
+        assertEquals("replica-1", monitor.pickReplica());
+        assertEquals(2.0, meterRegistry.get("notes.datasource.replicas.available").gauge().value());
+    }
+
+    private ReplicaLagMonitor monitor(Map<String, DataSource> replicas) {
+        return new ReplicaLagMonitor(replicas, 2000, readYourWrites, meterRegistry);
+    }
+
+    /**
+     * @param lags successive results of the lag query, null when the receiver is not streaming
+     */
+    private static DataSource replica(Double... lags) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+
+        Iterator<Double> results = Arrays.asList(lags).iterator();
+        Double[] current = new Double[1];
+        when(resultSet.getDouble(1)).thenAnswer(invocation -> {
+            current[0] = results.next();
+            return current[0] != null ? current[0] : 0.0;
+        });
+        when(resultSet.wasNull()).thenAnswer(invocation -> current[0] == null);
+        return dataSource;
+    }
+}
@@ -0,0 +1,94 @@
+package com.notes.api.datasource;
+
+import com.notes.api.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWritesTracker readYourWrites;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        lagMonitor = mock(ReplicaLagMonitor.class);
+        when(lagMonitor.pickReplica()).thenReturn("replica-1");
+        readYourWrites = new ReadYourWritesTracker(60_000);
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), Map.of("replica-1", mock(DataSource.class)),
+                lagMonitor, readYourWrites, new SimpleMeterRegistry());
+
+        UserPrincipal principal = new UserPrincipal(userId, "user@example.com", "x");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_RoutedToReplica() {
+        inTransaction(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readWriteTransaction_RoutedToPrimary() {
+        inTransaction(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        verify(lagMonitor, never()).pickReplica();
+    }
+
+    @Test
+    void noTransaction_RoutedToPrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWrite_PinnedToPrimary() {
+        readYourWrites.recordWrite(userId);
+        inTransaction(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_OtherUserWrote_RoutedToReplica() {
+        readYourWrites.recordWrite(UUID.randomUUID());
+        inTransaction(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_NoUsableReplica_FallsBackToPrimary() {
+        when(lagMonitor.pickReplica()).thenReturn(null);
+        inTransaction(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
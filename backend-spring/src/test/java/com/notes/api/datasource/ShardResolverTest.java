@@ -0,0 +1,65 @@
+package com.notes.api.datasource;
+
+import com.notes.api.util.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardResolverTest {
+
+    private static final int OWNERS = 100_000;
+
+    @Test
+    void shardOf_SameOwner_SameShard() {
+        UUID owner = UuidV7.generate();
+
+        assertEquals(new ShardResolver(8).shardOf(owner), new ShardResolver(8).shardOf(owner));
+    }
+
+    @Test
+    void shardOf_TimeOrderedIds_SpreadEvenly() {
+        ShardResolver resolver = new ShardResolver(4);
+        int[] counts = new int[4];
+        for (UUID owner : owners()) {
+            counts[resolver.shardOf(owner)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(OWNERS / 4.0, count, OWNERS * 0.01);
+        }
+    }
+
+    @Test
+    void shardOf_AddingShard_OnlyMovesOwnersToNewShard() {
+        ShardResolver before = new ShardResolver(4);
+        ShardResolver after = new ShardResolver(5);
+        int moved = 0;
+        for (UUID owner : owners()) {
+            int from = before.shardOf(owner);
+            int to = after.shardOf(owner);
+            if (from != to) {
+                assertEquals(4, to);
+                moved++;
+            }
+        }
+
+        assertEquals(OWNERS / 5.0, moved, OWNERS * 0.01);
+    }
+
+    @Test
+    void shardOf_SingleShard_AlwaysZero() {
+        assertEquals(0, new ShardResolver(1).shardOf(UUID.randomUUID()));
+    }
+
+    private static List<UUID> owners() {
+        List<UUID> owners = new ArrayList<>(OWNERS);
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(UuidV7.generate());
+        }
+        return owners;
+    }
+}
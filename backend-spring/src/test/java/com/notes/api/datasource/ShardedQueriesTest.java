@@ -0,0 +1,180 @@
+package com.notes.api.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing and scatter-gather against two real PostgreSQL databases, migrated
+ * with the application's Flyway scripts.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ShardedQueriesTest {
+
+    private static final String PUBLIC_NOTES =
+            "SELECT updated_at FROM notes WHERE visibility = 'PUBLIC' ORDER BY updated_at DESC LIMIT ? OFFSET ?";
+    private static final Comparator<LocalDateTime> MOST_RECENT_FIRST = Comparator.<LocalDateTime>naturalOrder().reversed();
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD_0 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD_1 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static ShardedQueries shardedQueries;
+    private static JdbcTemplate routed;
+    private static TransactionTemplate transaction;
+    private static List<JdbcTemplate> direct;
+
+    @BeforeAll
+    static void setUp() {
+        List<DataSource> shards = new ArrayList<>();
+        direct = new ArrayList<>();
+        for (PostgreSQLContainer<?> container : List.of(SHARD_0, SHARD_1)) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    container.getJdbcUrl(), container.getUsername(), container.getPassword());
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            shards.add(dataSource);
+            direct.add(new JdbcTemplate(dataSource));
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards, new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        DataSource lazy = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(lazy);
+
+        shardedQueries = new ShardedQueries(new ShardResolver(2), transactionManager, 4, 5000);
+        routed = new JdbcTemplate(lazy);
+        transaction = new TransactionTemplate(transactionManager);
+
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int shard = 0; shard < 2; shard++) {
+            JdbcTemplate jdbc = direct.get(shard);
+            UUID owner = jdbc.queryForObject(
+                    "INSERT INTO users (email, password_hash) VALUES (?, 'x') RETURNING id", UUID.class,
+                    "owner" + shard + "@example.com");
+            // Interleaved timestamps: shard 0 has the even minutes, shard 1 the odd ones
+            for (int i = 0; i < 10; i++) {
+                jdbc.update("INSERT INTO notes (owner_id, title, content_md, visibility, updated_at) " +
+                                "VALUES (?, ?, 'body', 'PUBLIC', ?)",
+                        owner, "note " + shard + "-" + i, Timestamp.valueOf(start.plusMinutes(2L * i + shard)));
+            }
+        }
+    }
+
+    @AfterEach
+    void clearBinding() {
+        ShardContext.clear();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        shardedQueries.destroy();
+    }
+
+    @Test
+    void mergeSorted_InterleavedShards_GlobalOrder() {
+        List<LocalDateTime> merged = shardedQueries.mergeSorted(() -> publicNotes(5, 0), MOST_RECENT_FIRST, 5);
+
+        List<LocalDateTime> expected = new ArrayList<>();
+        for (int minute = 19; minute > 14; minute--) {
+            expected.add(LocalDateTime.of(2026, 1, 1, 0, minute));
+        }
+        assertEquals(expected, merged);
+    }
+
+    @Test
+    void page_SecondPage_SameAsSingleDatabase() {
+        List<LocalDateTime> page = shardedQueries.page(
+                pageable -> publicNotes(pageable.getPageSize(), (int) pageable.getOffset()),
+                PageRequest.of(1, 4, Sort.by("updatedAt").descending()), MOST_RECENT_FIRST);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2026, 1, 1, 0, 15),
+                LocalDateTime.of(2026, 1, 1, 0, 14),
+                LocalDateTime.of(2026, 1, 1, 0, 13),
+                LocalDateTime.of(2026, 1, 1, 0, 12)), page);
+    }
+
+    @Test
+    void onEachShard_QueryGivenItsShard_ResultsInShardOrder() {
+        List<String> owners = shardedQueries.onEachShard(shard -> shard + ":" + routed.queryForObject(
+                "SELECT email FROM users WHERE email LIKE 'owner%'", String.class));
+
+        assertEquals(List.of("0:owner0@example.com", "1:owner1@example.com"), owners);
+    }
+
+    @Test
+    void bindFirstMatching_NoteOnOtherShard_BindsItsShard() {
+        UUID noteOnShard1 = direct.get(1).queryForObject("SELECT id FROM notes LIMIT 1", UUID.class);
+        ShardContext.bind(0);
+
+        assertTrue(shardedQueries.bindFirstMatching(() -> exists(noteOnShard1)));
+
+        assertEquals(1, ShardContext.current());
+        assertEquals("owner1@example.com", transaction.execute(status -> routed.queryForObject(
+                "SELECT u.email FROM notes n JOIN users u ON u.id = n.owner_id WHERE n.id = ?",
+                String.class, noteOnShard1)));
+    }
+
+    @Test
+    void bindFirstMatching_UnknownNote_KeepsBinding() {
+        ShardContext.bind(1);
+
+        assertFalse(shardedQueries.bindFirstMatching(() -> exists(UUID.randomUUID())));
+
+        assertEquals(1, ShardContext.current());
+    }
+
+    @Test
+    void boundShard_TransactionStartedBeforeBinding_WritesOnBoundShard() {
+        String email = "late-binding@example.com";
+
+        transaction.executeWithoutResult(status -> {
+            // Nothing sent yet: the lazy proxy has not opened a connection
+            ShardContext.bind(1);
+            routed.update("INSERT INTO users (email, password_hash) VALUES (?, 'x')", email);
+        });
+
+        assertEquals(0, count(direct.get(0), email));
+        assertEquals(1, count(direct.get(1), email));
+    }
+
+    private static List<LocalDateTime> publicNotes(int limit, int offset) {
+        return routed.queryForList(PUBLIC_NOTES, Timestamp.class, limit, offset).stream()
+                .map(Timestamp::toLocalDateTime)
+                .toList();
+    }
+
+    private static boolean exists(UUID noteId) {
+        return Boolean.TRUE.equals(routed.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM notes WHERE id = ?)", Boolean.class, noteId));
+    }
+
+    private static int count(JdbcTemplate jdbc, String email) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+}
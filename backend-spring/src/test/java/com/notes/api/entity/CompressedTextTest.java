@@ -0,0 +1,36 @@
+package com.notes.api.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextTest {
+
+    @Test
+    void compressThenRead_RoundTripsAndKeepsOriginalLength() {
+        String content = "## Réunion\n\n- [ ] préparer les notes\n".repeat(500);
+
+        CompressedText stored = CompressedText.fromBytes(CompressedText.compress(content).toBytes());
+
+        assertEquals(content.getBytes(StandardCharsets.UTF_8).length, stored.originalLength());
+        assertTrue(stored.compressedLength() < stored.originalLength());
+        assertEquals(content, stored.text());
+    }
+
+    @Test
+    void openStream_ReturnsUtf8Content() throws Exception {
+        String content = "# Titre\n\nContenu accentué : é à ü\n".repeat(100);
+
+        try (InputStream in = CompressedText.compress(content).openStream()) {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void fromBytes_UnknownFormat_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> CompressedText.fromBytes(new byte[] {9, 0, 0, 0, 0}));
+    }
+}
@@ -0,0 +1,63 @@
+package com.notes.api.event;
+
+import com.notes.api.entity.Note;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoteChangedEventTest {
+
+    private final UUID noteId = UUID.randomUUID();
+    private final UUID owner = UUID.randomUUID();
+    private final UUID reader = UUID.randomUUID();
+    private final UUID stranger = UUID.randomUUID();
+
+    @Test
+    void kindFor_SharedNoteUpdated_ConcernsOwnerAndReadersOnly() {
+        NoteChangedEvent event = event(NoteChangedEvent.Type.UPDATED, Note.Visibility.SHARED, Note.Visibility.SHARED,
+                Set.of(reader), Set.of(), Set.of());
+
+        assertEquals(NoteChangedEvent.Kind.UPDATED, event.kindFor(owner));
+        assertEquals(NoteChangedEvent.Kind.UPDATED, event.kindFor(reader));
+        assertNull(event.kindFor(stranger));
+        assertFalse(event.isBroadcast());
+    }
+
+    @Test
+    void kindFor_ShareRevoked_ReaderLosesAccess() {
+        NoteChangedEvent event = event(NoteChangedEvent.Type.UNSHARED, Note.Visibility.PRIVATE, Note.Visibility.SHARED,
+                Set.of(), Set.of(), Set.of(reader));
+
+        assertEquals(NoteChangedEvent.Kind.ACCESS_REVOKED, event.kindFor(reader));
+        assertEquals(NoteChangedEvent.Kind.UPDATED, event.kindFor(owner));
+    }
+
+    @Test
+    void kindFor_NoteBecomesPublic_EveryoneGainsAccess() {
+        NoteChangedEvent event = event(NoteChangedEvent.Type.UPDATED, Note.Visibility.PUBLIC, Note.Visibility.PRIVATE,
+                Set.of(), Set.of(), Set.of());
+
+        assertTrue(event.isBroadcast());
+        assertEquals(NoteChangedEvent.Kind.ACCESS_GRANTED, event.kindFor(stranger));
+        assertEquals(NoteChangedEvent.Kind.UPDATED, event.kindFor(owner));
+    }
+
+    @Test
+    void kindFor_NoteShared_GrantedUserGainsAccess() {
+        NoteChangedEvent event = event(NoteChangedEvent.Type.SHARED, Note.Visibility.SHARED, Note.Visibility.PRIVATE,
+                Set.of(reader), Set.of(reader), Set.of());
+
+        assertEquals(NoteChangedEvent.Kind.ACCESS_GRANTED, event.kindFor(reader));
+        assertNull(event.kindFor(stranger));
+    }
+
+    private NoteChangedEvent event(NoteChangedEvent.Type type, Note.Visibility visibility, Note.Visibility previous,
+                                   Set<UUID> readers, Set<UUID> granted, Set<UUID> revoked) {
+        return new NoteChangedEvent(noteId, owner, type, visibility, previous, LocalDateTime.now(),
+                readers, granted, revoked);
+    }
+}
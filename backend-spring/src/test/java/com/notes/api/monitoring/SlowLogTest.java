@@ -0,0 +1,51 @@
+package com.notes.api.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowLogTest {
+
+    private final SlowLog slowLog = new SlowLog(500, 100, 3);
+
+    @Test
+    void redactSql_MasksInlineLiterals() {
+        String sql = "select * from users   where email = 'alice@example.com' and id > 42 and n.v2 = ?";
+
+        assertEquals("select * from users where email = ? and id > ? and n.v2 = ?", SlowLog.redactSql(sql));
+    }
+
+    @Test
+    void redactQueryString_KeepsNamesOnly() {
+        assertEquals("query=?&page=?&flag=?", SlowLog.redactQueryString("query=secret&page=2&flag"));
+        assertNull(SlowLog.redactQueryString(null));
+    }
+
+    @Test
+    void redactPath_MasksIdsAndTokens() {
+        assertEquals("/api/v1/p/*", SlowLog.redactPath("/api/v1/p/Xy7_k2Lm9"));
+        assertEquals("/api/v1/notes/*/content",
+                SlowLog.redactPath("/api/v1/notes/0192f7a4-8c1e-7b3a-9d2e-5f6a7b8c9d0e/content"));
+        assertEquals("/api/v1/notes/trash", SlowLog.redactPath("/api/v1/notes/trash"));
+    }
+
+    @Test
+    void recordStatement_BelowThreshold_Ignored() {
+        slowLog.recordStatement("select 1", 99, "GET /api/v1/notes");
+
+        assertTrue(slowLog.getStatements().isEmpty());
+    }
+
+    @Test
+    void recordStatement_RingFull_KeepsLatestSlowestFirst() {
+        for (long duration = 100; duration <= 500; duration += 100) {
+            slowLog.recordStatement("select * from notes where id = " + duration, duration, "GET /api/v1/notes");
+        }
+
+        List<SlowLog.SlowStatement> statements = slowLog.getStatements();
+        assertEquals(List.of(500L, 400L, 300L), statements.stream().map(SlowLog.SlowStatement::durationMs).toList());
+        assertEquals("select * from notes where id = ?", statements.get(0).sql());
+    }
+}
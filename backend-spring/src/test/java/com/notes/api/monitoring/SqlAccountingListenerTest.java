@@ -0,0 +1,50 @@
+package com.notes.api.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlAccountingListenerTest {
+
+    private final SqlAccountingListener listener = new SqlAccountingListener(() -> null);
+
+    @AfterEach
+    void tearDown() {
+        SqlStatistics.stop();
+    }
+
+    @Test
+    void afterQuery_LazyLoadsInLoop_ReportedAsRepeated() {
+        SqlStatistics statistics = SqlStatistics.start();
+
+        execute("select n.* from notes n where n.owner_id=?", 4);
+        for (int i = 0; i < 6; i++) {
+            execute("select t.* from note_tags nt join tags t on t.id=nt.tag_id where nt.note_id=?", 1);
+        }
+
+        assertEquals(7, statistics.getStatements());
+        assertEquals(10, statistics.getTimeMillis());
+        List<Map.Entry<String, Integer>> repeated = statistics.getRepeatedStatements(5);
+        assertEquals(1, repeated.size());
+        assertEquals(6, repeated.get(0).getValue());
+    }
+
+    @Test
+    void afterQuery_OutsideRequest_Ignored() {
+        execute("select 1", 1);
+
+        assertNull(SqlStatistics.current());
+    }
+
+    private void execute(String sql, long elapsedMillis) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        listener.afterQuery(info, List.of(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.notes.api.repository;
+
+import com.notes.api.entity.CompressedText;
+import com.notes.api.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Streams bodies through a JdbcTemplate answering the chunk statements from an
+ * in-memory row, as PostgreSQL would.
+ */
+class NoteContentRepositoryTest {
+
+    private static final UUID NOTE_ID = UUID.randomUUID();
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final AtomicInteger chunkStatements = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private NoteContentRepository repository;
+
+    /**
+     * Stored value of the row, set by each test.
+     */
+    private byte[] stored;
+    private boolean compressed;
+    private int changedAfterChunks = Integer.MAX_VALUE;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new NoteContentRepository(jdbcTemplate);
+
+        when(jdbcTemplate.query(contains("IS NOT NULL AS compressed"), any(ResultSetExtractor.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.next()).thenReturn(true);
+                    when(rs.getBoolean("compressed")).thenReturn(compressed);
+                    return ((ResultSetExtractor<?>) invocation.getArgument(1)).extractData(rs);
+                });
+        when(jdbcTemplate.query(contains("substring("), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if (chunkStatements.getAndIncrement() >= changedAfterChunks) {
+                        return List.of();
+                    }
+                    int from = (Integer) invocation.getArgument(2) - 1;
+                    int count = invocation.getArgument(3);
+                    assertTrue(count <= NoteContentRepository.CHUNK_SIZE);
+                    return List.of(Arrays.copyOfRange(stored, Math.min(from, stored.length),
+                            Math.min(from + count, stored.length)));
+                });
+    }
+
+    @Test
+    void streamContent_LargeCompressedRange_CopiedChunkByChunk() {
+        String content = largeContent();
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        stored = CompressedText.compress(content).toBytes();
+        compressed = true;
+        assertTrue(stored.length > 2 * NoteContentRepository.CHUNK_SIZE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        repository.streamContent(NOTE_ID, UPDATED_AT, 100_000, 250_000, out);
+
+        assertArrayEquals(Arrays.copyOfRange(utf8, 100_000, 350_000), out.toByteArray());
+        // The chunks up to the end of the range, not the whole body
+        assertTrue(chunkStatements.get() > 1 && chunkStatements.get() < stored.length / NoteContentRepository.CHUNK_SIZE + 1);
+    }
+
+    @Test
+    void streamContent_PlainBody_SlicedFromOffset() {
+        String content = largeContent();
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        stored = utf8;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        repository.streamContent(NOTE_ID, UPDATED_AT, 70_000, utf8.length - 70_000, out);
+
+        assertArrayEquals(Arrays.copyOfRange(utf8, 70_000, utf8.length), out.toByteArray());
+        assertEquals((utf8.length - 70_000) / NoteContentRepository.CHUNK_SIZE + 1, chunkStatements.get());
+    }
+
+    @Test
+    void streamContent_NoteChangedDuringCopy_Stops() {
+        String content = largeContent();
+        stored = content.getBytes(StandardCharsets.UTF_8);
+        changedAfterChunks = 1;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(ResourceNotFoundException.class, () ->
+                repository.streamContent(NOTE_ID, UPDATED_AT, 0, stored.length, out));
+
+        assertEquals(NoteContentRepository.CHUNK_SIZE, out.size());
+    }
+
+    /**
+     * About 600 KB that compress to several chunks.
+     */
+    private static String largeContent() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 600_000) {
+            builder.append("- [ ] à vérifier ").append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        return builder.toString();
+    }
+}
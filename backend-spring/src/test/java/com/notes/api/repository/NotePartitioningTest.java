@@ -0,0 +1,306 @@
+package com.notes.api.repository;
+
+import com.notes.api.entity.Note;
+import com.notes.api.entity.User;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAINs the hot owner-scoped queries against the migrated schema and checks
+ * that PostgreSQL prunes them to a single partition, both with the parameter
+ * values known at planning time and with a generic plan (JDBC switches to
+ * server-side prepared statements after a few executions).
+ *
+ * The statements are the ones Hibernate actually sends for the repository
+ * calls, captured with datasource-proxy along with their parameters: a mapping
+ * change that drops the partition key from the SQL fails here.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotePartitioningTest {
+
+    private static final Pattern PARTITION = Pattern.compile("\\b((?:notes|note_tags)_p\\d{2})\\b");
+
+    private static final Pattern JDBC_PARAMETER = Pattern.compile("\\?");
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+    private static UUID owner;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * A statement as sent by Hibernate, with its parameter setters in order.
+     */
+    record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    @TestConfiguration
+    static class CaptureStatements {
+
+        @Bean
+        static BeanPostProcessor captureStatementsPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .listener(new QueryExecutionListener() {
+                                @Override
+                                public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                }
+
+                                @Override
+                                public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    for (QueryInfo query : queryInfoList) {
+                                        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                                                ? List.of()
+                                                : query.getParametersList().get(0).stream()
+                                                        .sorted(Comparator.comparingInt(op -> (Integer) op.getArgs()[0]))
+                                                        .toList();
+                                        STATEMENTS.add(new CapturedStatement(query.getQuery(), parameters));
+                                    }
+                                }
+                            })
+                            .build();
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), true);
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.update("INSERT INTO users (email, password_hash) " +
+                "SELECT 'user' || g || '@example.com', 'x' FROM generate_series(1, 200) g");
+        jdbc.update("INSERT INTO tags (label) VALUES ('work'), ('personal')");
+        jdbc.update("INSERT INTO notes (owner_id, title, content_md, visibility) " +
+                "SELECT u.id, 'note ' || g, 'body ' || g, CASE WHEN g % 10 = 0 THEN 'PUBLIC' ELSE 'PRIVATE' END " +
+                "FROM users u, generate_series(1, 20) g");
+        jdbc.update("INSERT INTO note_tags (note_id, tag_id, owner_id) " +
+                "SELECT n.id, t.id, n.owner_id FROM notes n, tags t WHERE t.label = 'work'");
+        jdbc.execute("ANALYZE");
+
+        owner = jdbc.queryForObject("SELECT id FROM users ORDER BY email LIMIT 1", UUID.class);
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void searchNotes_PrunedToOwnerPartition() {
+        noteRepository.searchNotes(ownerEntity(), "note", null, mostRecentFirst());
+
+        String plan = explain(captured("from notes"));
+
+        assertEquals(1, partitions(plan, "notes").size(), plan);
+    }
+
+    @Test
+    void findByOwnerAndTag_PrunesNotesAndNoteTags() {
+        noteRepository.findByOwnerAndTag(ownerEntity(), "work", mostRecentFirst());
+
+        String plan = explain(captured("from notes"));
+
+        assertEquals(1, partitions(plan, "notes").size(), plan);
+        assertEquals(1, partitions(plan, "note_tags").size(), plan);
+    }
+
+    @Test
+    void updateNote_PrunedToOwnerPartition() {
+        UUID noteId = jdbc.queryForObject("SELECT id FROM notes WHERE owner_id = ? LIMIT 1", UUID.class, owner);
+        Note note = noteRepository.findByIdAndOwner(noteId, ownerEntity()).orElseThrow();
+        note.setTitle("renamed");
+        noteRepository.saveAndFlush(note);
+
+        String plan = explain(captured("update notes"));
+
+        assertEquals(1, partitions(plan, "notes").size(), plan);
+    }
+
+    @Test
+    void findByOwner_GenericPlan_PrunedAtExecution() {
+        noteRepository.findByOwner(ownerEntity(), mostRecentFirst());
+        CapturedStatement statement = captured("from notes");
+
+        jdbc.execute("SET plan_cache_mode = force_generic_plan");
+        try {
+            jdbc.execute("PREPARE owner_notes AS " + numberParameters(statement.sql()));
+            String arguments = statement.parameters().stream()
+                    .map(parameter -> "'" + parameter.getArgs()[1].toString().replace("'", "''") + "'")
+                    .collect(Collectors.joining(", "));
+            String plan = String.join("\n", jdbc.queryForList(
+                    "EXPLAIN EXECUTE owner_notes(" + arguments + ")", String.class));
+
+            assertEquals(1, partitions(plan, "notes").size(), plan);
+            assertTrue(plan.contains("Subplans Removed: 15"), plan);
+        } finally {
+            jdbc.execute("DEALLOCATE ALL");
+            jdbc.execute("RESET plan_cache_mode");
+        }
+    }
+
+    @Test
+    void deleteNote_CascadesToTriggerManagedChildren() {
+        UUID noteId = jdbc.queryForObject("SELECT id FROM notes WHERE owner_id = ? LIMIT 1", UUID.class, owner);
+        UUID reader = jdbc.queryForObject("SELECT id FROM users WHERE id <> ? LIMIT 1", UUID.class, owner);
+        jdbc.update("INSERT INTO shares (note_id, shared_with_user_id) VALUES (?, ?)", noteId, reader);
+
+        jdbc.update("DELETE FROM notes WHERE id = ? AND owner_id = ?", noteId, owner);
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM shares WHERE note_id = ?", Integer.class, noteId));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM note_tags WHERE note_id = ?", Integer.class, noteId));
+    }
+
+    @Test
+    void transferNotes_MovesTagsAndKeepsChildren() {
+        List<UUID> users = jdbc.queryForList("SELECT id FROM users ORDER BY email OFFSET 1 LIMIT 3", UUID.class);
+        UUID from = users.get(0);
+        UUID to = users.get(1);
+        UUID reader = users.get(2);
+        List<UUID> noteIds = jdbc.queryForList("SELECT id FROM notes WHERE owner_id = ?", UUID.class, from);
+        jdbc.update("INSERT INTO shares (note_id, shared_with_user_id) VALUES (?, ?), (?, ?)",
+                noteIds.get(0), reader, noteIds.get(1), to);
+
+        int moved = new BulkNoteRepository(jdbc).transferNotes(from, to, noteIds);
+
+        assertEquals(noteIds.size(), moved);
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM notes WHERE owner_id = ?", Integer.class, from));
+        assertEquals(noteIds.size(), jdbc.queryForObject(
+                "SELECT COUNT(*) FROM note_tags WHERE owner_id = ?", Integer.class, to));
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM shares WHERE note_id = ? AND shared_with_user_id = ?",
+                Integer.class, noteIds.get(0), reader));
+        assertEquals(0, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM shares WHERE shared_with_user_id = ?", Integer.class, to));
+    }
+
+    @Test
+    void insertShare_UnknownNote_Rejected() {
+        assertThrows(DataIntegrityViolationException.class, () -> jdbc.update(
+                "INSERT INTO shares (note_id, shared_with_user_id) VALUES (?, ?)", UUID.randomUUID(), owner));
+    }
+
+    private User ownerEntity() {
+        User user = userRepository.findById(owner).orElseThrow();
+        STATEMENTS.clear();
+        return user;
+    }
+
+    private static Pageable mostRecentFirst() {
+        return PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "updatedAt"));
+    }
+
+    /**
+     * First statement sent since the last clear that contains {@code fragment}.
+     */
+    private static CapturedStatement captured(String fragment) {
+        return STATEMENTS.stream()
+                .filter(statement -> statement.sql().toLowerCase().contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement with '" + fragment + "' in " + STATEMENTS));
+    }
+
+    /**
+     * EXPLAIN the captured statement, replaying its parameter setters.
+     */
+    private static String explain(CapturedStatement statement) {
+        List<String> lines = jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("EXPLAIN " + statement.sql());
+            for (ParameterSetOperation parameter : statement.parameters()) {
+                try {
+                    parameter.getMethod().invoke(ps, parameter.getArgs());
+                } catch (ReflectiveOperationException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+        return String.join("\n", lines);
+    }
+
+    /**
+     * JDBC placeholders to the $n parameters of PREPARE.
+     */
+    private static String numberParameters(String sql) {
+        Matcher matcher = JDBC_PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + (++index));
+        }
+        return matcher.appendTail(numbered).toString();
+    }
+
+    private static Set<String> partitions(String plan, String table) {
+        return PARTITION.matcher(plan).results()
+                .map(result -> result.group(1))
+                .filter(name -> name.startsWith(table + "_p"))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,99 @@
+package com.notes.api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The filter behind Tomcat's {@link RemoteIpFilter}, configured like
+ * {@code server.tomcat.remoteip} in application.yml.
+ */
+class RateLimitFilterTest {
+
+    private static final String BFF = "172.18.0.5";
+
+    private static final HttpServlet NO_CONTENT = new HttpServlet() {
+        @Override
+        public void service(ServletRequest request, ServletResponse response) {
+        }
+    };
+
+    private RateLimitFilter rateLimitFilter;
+    private RemoteIpFilter remoteIpFilter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notes.rate-limit.groups[0].name", "public")
+                .withProperty("notes.rate-limit.groups[0].pattern", "/api/v1/p/{token}")
+                .withProperty("notes.rate-limit.groups[0].limits[0].key", "ip")
+                .withProperty("notes.rate-limit.groups[0].limits[0].rate", "0.001")
+                .withProperty("notes.rate-limit.groups[0].limits[0].burst", "2")
+                .withProperty("notes.rate-limit.groups[0].limits[1].key", "token")
+                .withProperty("notes.rate-limit.groups[0].limits[1].rate", "0.001")
+                .withProperty("notes.rate-limit.groups[0].limits[1].burst", "1");
+        rateLimitFilter = new RateLimitFilter(environment, new SimpleMeterRegistry(),
+                new ObjectMapper().registerModule(new JavaTimeModule()), true, 100);
+
+        remoteIpFilter = new RemoteIpFilter();
+        MockFilterConfig config = new MockFilterConfig();
+        config.addInitParameter("internalProxies",
+                "10\\.\\d+\\.\\d+\\.\\d+|192\\.168\\.\\d+\\.\\d+|172\\.(1[6-9]|2\\d|3[01])\\.\\d+\\.\\d+|127\\.\\d+\\.\\d+\\.\\d+");
+        remoteIpFilter.init(config);
+    }
+
+    @Test
+    void ipLimit_ClientsBehindBff_KeyedByForwardedAddress() throws Exception {
+        assertEquals(200, get(BFF, "203.0.113.1", "a"));
+        assertEquals(200, get(BFF, "203.0.113.1", "b"));
+        assertEquals(429, get(BFF, "203.0.113.1", "c"));
+
+        assertEquals(200, get(BFF, "203.0.113.2", "d"));
+    }
+
+    @Test
+    void ipLimit_ForwardedHeaderFromUntrustedPeer_Ignored() throws Exception {
+        assertEquals(200, get("198.51.100.7", "203.0.113.1", "a"));
+        assertEquals(200, get("198.51.100.7", "203.0.113.2", "b"));
+
+        assertEquals(429, get("198.51.100.7", "203.0.113.3", "c"));
+    }
+
+    @Test
+    void acquire_RejectedByLaterLimit_EarlierTokensGivenBack() throws Exception {
+        assertEquals(200, get(BFF, "203.0.113.1", "a"));
+        MockHttpServletResponse rejected = response(BFF, "203.0.113.1", "a");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+
+        // The IP token taken by the rejected request was refunded
+        assertEquals(200, get(BFF, "203.0.113.1", "b"));
+        assertEquals(429, get(BFF, "203.0.113.1", "c"));
+    }
+
+    private int get(String peer, String forwardedFor, String token) throws Exception {
+        return response(peer, forwardedFor, token).getStatus();
+    }
+
+    private MockHttpServletResponse response(String peer, String forwardedFor, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/p/" + token);
+        request.setRemoteAddr(peer);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(NO_CONTENT, remoteIpFilter, rateLimitFilter).doFilter(request, response);
+        return response;
+    }
+}
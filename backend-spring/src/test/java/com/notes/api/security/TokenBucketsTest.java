@@ -0,0 +1,73 @@
+package com.notes.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketsTest {
+
+    @Test
+    void tryAcquire_WithinBurst_Granted() {
+        TokenBuckets buckets = new TokenBuckets(1, 5, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("user"));
+        }
+    }
+
+    @Test
+    void tryAcquire_BurstExhausted_ReturnsWaitUntilNextToken() {
+        TokenBuckets buckets = new TokenBuckets(1, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            buckets.tryAcquire("user");
+        }
+
+        long wait = buckets.tryAcquire("user");
+
+        assertTrue(wait > 0 && wait <= 1_000_000_000L, "wait was " + wait);
+    }
+
+    @Test
+    void tryAcquire_OtherKey_HasItsOwnBucket() {
+        TokenBuckets buckets = new TokenBuckets(1, 1, 100);
+        buckets.tryAcquire("a");
+
+        assertTrue(buckets.tryAcquire("a") > 0);
+        assertEquals(0, buckets.tryAcquire("b"));
+    }
+
+    @Test
+    void tryAcquire_AfterRefill_GrantedAgain() throws InterruptedException {
+        TokenBuckets buckets = new TokenBuckets(100, 1, 100);
+        buckets.tryAcquire("user");
+        assertTrue(buckets.tryAcquire("user") > 0);
+
+        Thread.sleep(20);
+
+        assertEquals(0, buckets.tryAcquire("user"));
+    }
+
+    @Test
+    void tryAcquire_ConcurrentCallers_NeverGrantMoreThanBurst() throws InterruptedException {
+        TokenBuckets buckets = new TokenBuckets(0.001, 50, 100);
+        AtomicInteger granted = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (buckets.tryAcquire("user") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(50, granted.get());
+    }
+}
@@ -1,5 +1,7 @@
 package com.notes.api.service;
 
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
 import com.notes.api.dto.auth.AuthResponse;
 import com.notes.api.dto.auth.RegisterRequest;
 import com.notes.api.entity.User;
@@ -9,11 +11,14 @@ import com.notes.api.security.JwtTokenProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.UUID;
 
@@ -37,6 +42,15 @@ class AuthServiceTest {
     @Mock
     private JwtTokenProvider tokenProvider;
 
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardedQueries shardedQueries = new ShardedQueries(new ShardResolver(1), null, 1, 0);
+
     @InjectMocks
     private AuthService authService;
 
@@ -59,6 +73,7 @@ class AuthServiceTest {
     @Test
     void register_Success() {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(userDirectory.claim("test@example.com")).thenReturn(true);
         when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(tokenProvider.generateTokenFromUserId(any(UUID.class))).thenReturn("accessToken");
@@ -70,6 +85,23 @@ class AuthServiceTest {
         assertEquals("accessToken", response.getAccessToken());
         assertEquals("refreshToken", response.getRefreshToken());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userDirectory).assign("test@example.com", user.getId());
+    }
+
+    @Test
+    void register_BindsShardOfNewUserBeforeCommit() {
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(userDirectory.claim("test@example.com")).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        authService.register(registerRequest);
+
+        InOrder order = inOrder(userRepository, shardedQueries, transactionManager, userDirectory);
+        order.verify(userRepository).save(any(User.class));
+        order.verify(shardedQueries).bindOwner(user.getId());
+        order.verify(transactionManager).commit(any());
+        order.verify(userDirectory).assign("test@example.com", user.getId());
     }
 
     @Test
@@ -79,6 +111,27 @@ class AuthServiceTest {
         assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
         verify(userRepository, never()).save(any(User.class));
     }
+
+    @Test
+    void register_EmailClaimedOnAnotherShard_ThrowsException() {
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(userDirectory.claim("test@example.com")).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> authService.register(registerRequest));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void register_SaveFails_ReleasesClaim() {
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(userDirectory.claim("test@example.com")).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new IllegalStateException("shard down"));
+
+        assertThrows(IllegalStateException.class, () -> authService.register(registerRequest));
+        verify(userDirectory).release("test@example.com");
+        verify(userDirectory, never()).assign(anyString(), any());
+    }
 }
 
 
@@ -0,0 +1,165 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.User;
+import com.notes.api.event.NoteChangedEvent;
+import com.notes.api.repository.BackgroundJobRepository;
+import com.notes.api.repository.BackgroundJobRepository.Job;
+import com.notes.api.repository.BackgroundJobRepository.Phase;
+import com.notes.api.repository.BulkNoteRepository;
+import com.notes.api.repository.BulkNoteRepository.DeletedShare;
+import com.notes.api.repository.BulkNoteRepository.OwnedNote;
+import com.notes.api.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BackgroundJobRunnerTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID TARGET_ID = UUID.randomUUID();
+
+    private BackgroundJobRepository jobRepository;
+    private BulkNoteRepository bulkNoteRepository;
+    private UserRepository userRepository;
+    private UserDirectory userDirectory;
+    private ApplicationEventPublisher eventPublisher;
+    private BackgroundJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(BackgroundJobRepository.class);
+        bulkNoteRepository = mock(BulkNoteRepository.class);
+        userRepository = mock(UserRepository.class);
+        userDirectory = mock(UserDirectory.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        runner = new BackgroundJobRunner(jobRepository, bulkNoteRepository, userRepository, userDirectory,
+                new ShardResolver(1), new ShardedQueries(new ShardResolver(1), null, 1, 0), eventPublisher,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 2, 60_000, 3, 0);
+    }
+
+    @Test
+    void process_DeleteAccount_DeletesNotesThenSharesThenUser() {
+        Job job = job(BackgroundJobRepository.Type.DELETE_ACCOUNT, Phase.NOTES, 1);
+        OwnedNote first = new OwnedNote(UUID.randomUUID(), Note.Visibility.PRIVATE);
+        OwnedNote second = new OwnedNote(UUID.randomUUID(), Note.Visibility.SHARED);
+        when(bulkNoteRepository.lockOwnedNotes(USER_ID, 2)).thenReturn(List.of(first, second), List.of());
+        when(bulkNoteRepository.findReaders(anyList())).thenReturn(Map.of());
+        User user = User.builder().id(USER_ID).build();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        runner.process(job);
+
+        InOrder order = inOrder(bulkNoteRepository, userRepository, userDirectory, jobRepository);
+        order.verify(bulkNoteRepository).deleteNotes(USER_ID, List.of(first.id(), second.id()));
+        order.verify(bulkNoteRepository).deleteSharesWith(USER_ID, 2);
+        order.verify(userRepository).delete(user);
+        order.verify(userDirectory).remove(USER_ID);
+        order.verify(jobRepository).complete(job.id());
+        verify(eventPublisher, times(2)).publishEvent(any(NoteChangedEvent.class));
+    }
+
+    @Test
+    void process_ResumedInSharesPhase_SkipsNotes() {
+        Job job = job(BackgroundJobRepository.Type.DELETE_ACCOUNT, Phase.SHARES, 2);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        runner.process(job);
+
+        verify(bulkNoteRepository, never()).lockOwnedNotes(any(), anyInt());
+        verify(bulkNoteRepository).deleteSharesWith(USER_ID, 2);
+        verify(jobRepository).complete(job.id());
+    }
+
+    @Test
+    void process_DeleteAccountShares_PublishesRevokedAccessAndPrivateNotes() {
+        Job job = job(BackgroundJobRepository.Type.DELETE_ACCOUNT, Phase.SHARES, 1);
+        UUID ownerId = UUID.randomUUID();
+        UUID otherReader = UUID.randomUUID();
+        DeletedShare lastShare = new DeletedShare(UUID.randomUUID(), ownerId, Note.Visibility.SHARED,
+                Note.Visibility.PRIVATE);
+        DeletedShare oneOfTwo = new DeletedShare(UUID.randomUUID(), ownerId, Note.Visibility.SHARED,
+                Note.Visibility.SHARED);
+        when(bulkNoteRepository.deleteSharesWith(USER_ID, 2)).thenReturn(List.of(lastShare, oneOfTwo), List.of());
+        when(bulkNoteRepository.findReaders(List.of(lastShare.noteId(), oneOfTwo.noteId())))
+                .thenReturn(Map.of(oneOfTwo.noteId(), Set.of(otherReader)));
+
+        runner.process(job);
+
+        ArgumentCaptor<NoteChangedEvent> events = ArgumentCaptor.forClass(NoteChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        NoteChangedEvent madePrivate = events.getAllValues().get(0);
+        assertEquals(NoteChangedEvent.Type.UNSHARED, madePrivate.type());
+        assertEquals(Note.Visibility.PRIVATE, madePrivate.visibility());
+        assertEquals(NoteChangedEvent.Kind.ACCESS_REVOKED, madePrivate.kindFor(USER_ID));
+        assertEquals(NoteChangedEvent.Kind.UPDATED, madePrivate.kindFor(ownerId));
+        NoteChangedEvent stillShared = events.getAllValues().get(1);
+        assertEquals(NoteChangedEvent.Kind.ACCESS_REVOKED, stillShared.kindFor(USER_ID));
+        assertEquals(NoteChangedEvent.Kind.UPDATED, stillShared.kindFor(otherReader));
+        verify(bulkNoteRepository, times(2)).deleteSharesWith(USER_ID, 2);
+    }
+
+    @Test
+    void process_Transfer_PublishesDeletedForPreviousOwnerAndCreatedForNewOne() {
+        Job job = job(BackgroundJobRepository.Type.TRANSFER_NOTES, Phase.NOTES, 1);
+        OwnedNote note = new OwnedNote(UUID.randomUUID(), Note.Visibility.SHARED);
+        when(bulkNoteRepository.lockOwnedNotes(USER_ID, 2)).thenReturn(List.of(note));
+        when(bulkNoteRepository.findReaders(List.of(note.id()))).thenReturn(Map.of());
+
+        runner.process(job);
+
+        verify(bulkNoteRepository).transferNotes(USER_ID, TARGET_ID, List.of(note.id()));
+        ArgumentCaptor<NoteChangedEvent> events = ArgumentCaptor.forClass(NoteChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(NoteChangedEvent.Kind.DELETED, events.getAllValues().get(0).kindFor(USER_ID));
+        NoteChangedEvent created = events.getAllValues().get(1);
+        assertEquals(NoteChangedEvent.Kind.CREATED, created.kindFor(TARGET_ID));
+        // Only shared with the new owner: private now
+        assertEquals(Note.Visibility.PRIVATE, created.visibility());
+        verify(jobRepository).progress(job.id(), Phase.NOTES, 0, 1, 60_000);
+    }
+
+    @Test
+    void process_ChunkFails_ReleasedForRetry() {
+        Job job = job(BackgroundJobRepository.Type.TRANSFER_NOTES, Phase.NOTES, 1);
+        when(bulkNoteRepository.lockOwnedNotes(USER_ID, 2)).thenThrow(new IllegalStateException("boom"));
+
+        runner.process(job);
+
+        verify(jobRepository).release(job.id(), "boom", false);
+        verify(jobRepository, never()).complete(any());
+    }
+
+    @Test
+    void process_LastAttemptFails_MarkedFailed() {
+        Job job = job(BackgroundJobRepository.Type.TRANSFER_NOTES, Phase.NOTES, 3);
+        when(bulkNoteRepository.lockOwnedNotes(USER_ID, 2)).thenThrow(new IllegalStateException("boom"));
+
+        runner.process(job);
+
+        verify(jobRepository).release(job.id(), "boom", true);
+    }
+
+    private static Job job(BackgroundJobRepository.Type type, Phase phase, int attempts) {
+        UUID target = type == BackgroundJobRepository.Type.TRANSFER_NOTES ? TARGET_ID : null;
+        return new Job(UUID.randomUUID(), type, BackgroundJobRepository.Status.RUNNING, USER_ID, target, phase, 0,
+                0, 10, attempts, null, LocalDateTime.now(), LocalDateTime.now(), null);
+    }
+}
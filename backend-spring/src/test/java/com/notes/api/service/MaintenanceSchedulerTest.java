@@ -0,0 +1,78 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.repository.MaintenanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class MaintenanceSchedulerTest {
+
+    private MaintenanceRepository maintenanceRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private MaintenanceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        maintenanceRepository = mock(MaintenanceRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new MaintenanceScheduler(maintenanceRepository,
+                new ShardedQueries(new ShardResolver(1), null, 1, 0), meterRegistry,
+                10, 3, 1.0, 7_200_000, 3_600_000, 86_400_000, 604_800_000);
+    }
+
+    @Test
+    void run_FullBatches_ContinuesUntilPartialBatch() {
+        when(maintenanceRepository.deleteExpiredPublicLinks(10)).thenReturn(10, 10, 4);
+
+        scheduler.run();
+
+        verify(maintenanceRepository, times(3)).deleteExpiredPublicLinks(10);
+        assertEquals(24, meterRegistry.get("notes.maintenance.rows").tag("task", "public-links.expired")
+                .counter().count());
+    }
+
+    @Test
+    void run_MoreThanMaxBatches_StopsAtMaxBatches() {
+        when(maintenanceRepository.deleteOrphanTags(anyLong(), anyInt())).thenReturn(10);
+
+        scheduler.run();
+
+        verify(maintenanceRepository, times(3)).deleteOrphanTags(7_200_000, 10);
+    }
+
+    @Test
+    void run_TrashPastRetention_PurgedInBatches() {
+        when(maintenanceRepository.purgeDeletedNotes(86_400_000, 10)).thenReturn(10, 2);
+
+        scheduler.run();
+
+        verify(maintenanceRepository, times(2)).purgeDeletedNotes(86_400_000, 10);
+        assertEquals(12, meterRegistry.get("notes.maintenance.rows").tag("task", "notes.purged")
+                .counter().count());
+    }
+
+    @Test
+    void run_OldChanges_PurgedWithSyncRetention() {
+        when(maintenanceRepository.purgeNoteChanges(604_800_000, 10)).thenReturn(3);
+
+        scheduler.run();
+
+        verify(maintenanceRepository, times(1)).purgeNoteChanges(604_800_000, 10);
+        assertEquals(3, meterRegistry.get("notes.maintenance.rows").tag("task", "note-changes.purged")
+                .counter().count());
+    }
+
+    @Test
+    void constructor_GraceShorterThanTagCache_Rejected() {
+        assertThrows(IllegalStateException.class, () -> new MaintenanceScheduler(maintenanceRepository,
+                new ShardedQueries(new ShardResolver(1), null, 1, 0), meterRegistry,
+                10, 3, 0.5, 60_000, 3_600_000, 86_400_000, 604_800_000));
+    }
+}
@@ -0,0 +1,108 @@
+package com.notes.api.service;
+
+import com.notes.api.entity.Note;
+import com.notes.api.event.NoteChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Streams read through async MockMvc requests, as a client would see them.
+ */
+class NoteEventStreamServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)-(\\d+)");
+
+    private NoteEventStreamService streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new NoteEventStreamService(60_000, 64, 100, 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.destroy();
+    }
+
+    @Test
+    void subscribe_LastEventIdOfThisProcess_ReplaysMissedEvents() throws Exception {
+        MvcResult first = subscribe(null);
+        streamService.onNoteChanged(event());
+        Matcher id = EVENT_ID.matcher(await(first, content -> EVENT_ID.matcher(content).find()));
+        assertTrue(id.find());
+        streamService.onNoteChanged(event());
+
+        String replayed = await(subscribe(id.group(1) + "-" + id.group(2)), content -> content.contains("id:"));
+
+        assertTrue(replayed.contains("id:" + id.group(1) + "-" + (Long.parseLong(id.group(2)) + 1)), replayed);
+        assertFalse(replayed.contains("resync"));
+    }
+
+    @Test
+    void subscribe_LastEventIdOfAnotherProcess_Resync() throws Exception {
+        streamService.onNoteChanged(event());
+        streamService.onNoteChanged(event());
+
+        // Another node, or this one before a restart, numbered its events from 1 too
+        String otherEpoch = await(subscribe("k3j5d2-1"), content -> content.contains("resync"));
+        String legacy = await(subscribe("1"), content -> content.contains("resync"));
+
+        assertFalse(otherEpoch.contains("event:note"));
+        assertFalse(legacy.contains("event:note"));
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        var request = get("/events");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+
+    private static String await(MvcResult result, Predicate<String> done) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!done.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(done.test(content), content);
+        return content;
+    }
+
+    private static NoteChangedEvent event() {
+        return new NoteChangedEvent(UUID.randomUUID(), USER_ID, NoteChangedEvent.Type.UPDATED,
+                Note.Visibility.PRIVATE, Note.Visibility.PRIVATE, LocalDateTime.now(), Set.of(), Set.of(), Set.of());
+    }
+
+    @RestController
+    class StreamController {
+
+        @GetMapping("/events")
+        SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return streamService.subscribe(USER_ID, lastEventId);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.notes.api.service;
+
+import com.notes.api.dto.note.NoteRevisionResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.NoteRevision;
+import com.notes.api.repository.NoteRevisionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Records a history through the service against an in-memory revision table,
+ * then rebuilds every revision from the stored snapshots and deltas.
+ */
+class NoteRevisionServiceTest {
+
+    private final List<NoteRevision> rows = new ArrayList<>();
+    private NoteRevisionService revisionService;
+    private Note note;
+
+    @BeforeEach
+    void setUp() {
+        NoteRevisionRepository repository = mock(NoteRevisionRepository.class);
+        when(repository.save(any(NoteRevision.class))).thenAnswer(invocation -> {
+            NoteRevision revision = invocation.getArgument(0);
+            if (rows.stream().noneMatch(row -> row == revision)) {
+                rows.add(revision);
+            }
+            return revision;
+        });
+        when(repository.findTopByNoteIdOrderByRevisionNumberDesc(any())).thenAnswer(invocation ->
+                rows.stream().max(Comparator.comparingInt(NoteRevision::getRevisionNumber)));
+        when(repository.findNearestSnapshotAtOrAfter(any(), anyInt())).thenAnswer(invocation -> {
+            int revision = invocation.getArgument(1);
+            return rows.stream()
+                    .filter(row -> row.getStorage() == NoteRevision.Storage.SNAPSHOT && row.getRevisionNumber() >= revision)
+                    .map(NoteRevision::getRevisionNumber)
+                    .min(Integer::compare)
+                    .orElse(null);
+        });
+        when(repository.findByNoteIdAndRevisionNumberBetweenOrderByRevisionNumberDesc(any(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int from = invocation.getArgument(1);
+                    int to = invocation.getArgument(2);
+                    return rows.stream()
+                            .filter(row -> row.getRevisionNumber() >= from && row.getRevisionNumber() <= to)
+                            .sorted(Comparator.comparingInt(NoteRevision::getRevisionNumber).reversed())
+                            .toList();
+                });
+
+        revisionService = new NoteRevisionService(repository);
+        ReflectionTestUtils.setField(revisionService, "snapshotInterval", 4);
+        note = Note.builder().id(UUID.randomUUID()).title("v1").contentMd(content(1)).build();
+    }
+
+    @Test
+    void getRevision_SnapshotsAndDeltas_RebuildsEveryRevision() {
+        revisionService.recordCreation(note);
+        for (int version = 2; version <= 11; version++) {
+            String previousTitle = note.getTitle();
+            String previousContent = note.getContentMd();
+            note.setTitle("v" + version);
+            note.setContentMd(content(version));
+            revisionService.recordUpdate(note, previousTitle, previousContent);
+        }
+
+        assertTrue(rows.stream().anyMatch(row -> row.getStorage() == NoteRevision.Storage.SNAPSHOT));
+        assertTrue(rows.stream().anyMatch(row -> row.getStorage() == NoteRevision.Storage.DELTA));
+        for (int version = 1; version <= 11; version++) {
+            NoteRevisionResponse revision = revisionService.getRevision(note, version);
+
+            assertEquals(content(version), revision.getContentMd(), "revision " + version);
+            assertEquals("v" + version, revision.getTitle());
+        }
+    }
+
+    @Test
+    void recordUpdate_NumbersFollowHead() {
+        revisionService.recordCreation(note);
+        revisionService.recordUpdate(note, "v1", content(1));
+        revisionService.recordUpdate(note, "v1", content(1));
+
+        assertEquals(List.of(1, 2, 3), rows.stream().map(NoteRevision::getRevisionNumber).sorted().toList());
+        assertEquals(1, rows.stream().filter(row -> row.getStorage() == NoteRevision.Storage.HEAD).count());
+    }
+
+    private static String content(int version) {
+        StringBuilder builder = new StringBuilder("# Note\n\n");
+        for (int line = 0; line < 50; line++) {
+            builder.append("Ligne ").append(line).append(line % 7 == version % 7 ? " modifiée en v" + version : "")
+                    .append('\n');
+        }
+        return builder.append("Version ").append(version).append('\n').toString();
+    }
+}
@@ -1,20 +1,27 @@
 package com.notes.api.service;
 
+import com.notes.api.datasource.ReadYourWritesTracker;
 import com.notes.api.dto.note.NoteRequest;
 import com.notes.api.dto.note.NoteResponse;
 import com.notes.api.entity.Note;
 import com.notes.api.entity.Tag;
 import com.notes.api.entity.User;
+import com.notes.api.event.NoteChangePublisher;
+import com.notes.api.exception.ResourceNotFoundException;
 import com.notes.api.repository.NoteRepository;
 import com.notes.api.repository.TagRepository;
 import com.notes.api.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -36,6 +43,21 @@ class NoteServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private NoteRevisionService revisionService;
+
+    @Mock
+    private NoteChangePublisher changePublisher;
+
+    @Mock
+    private SingleFlight singleFlight;
+
+    @Mock
+    private TagCreator tagCreator;
+
+    @Mock
+    private ObjectProvider<ReadYourWritesTracker> readYourWrites;
+
     @InjectMocks
     private NoteService noteService;
 
@@ -86,6 +108,8 @@ class NoteServiceTest {
         assertEquals("Test Note", response.getTitle());
         assertEquals("# Test Content", response.getContentMd());
         verify(noteRepository, times(1)).save(any(Note.class));
+        verify(revisionService, times(1)).recordCreation(note);
+        verify(changePublisher, times(1)).created(note);
     }
 
     @Test
@@ -95,5 +119,42 @@ class NoteServiceTest {
         assertThrows(RuntimeException.class, () -> noteService.createNote(userId, noteRequest));
         verify(noteRepository, never()).save(any(Note.class));
     }
-}
 
+    @Test
+    void getNoteById_CallerPinnedToPrimary_DoesNotJoinReplicaLoads() {
+        UUID writerId = UUID.randomUUID();
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+        tracker.recordWrite(writerId);
+        when(readYourWrites.getIfAvailable()).thenReturn(tracker);
+        when(singleFlight.load(eq("note"), any(), any())).thenThrow(new ResourceNotFoundException("Note not found"));
+
+        for (UUID caller : List.of(userId, UUID.randomUUID(), writerId)) {
+            assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteById(caller, note.getId()));
+        }
+
+        ArgumentCaptor<Object> keys = ArgumentCaptor.forClass(Object.class);
+        verify(singleFlight, times(3)).load(eq("note"), keys.capture(), any());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertNotEquals(keys.getAllValues().get(0), keys.getAllValues().get(2));
+    }
+
+    @Test
+    void createNote_TagCreatedConcurrently_UsesExistingTag() {
+        noteRequest.setTags(Set.of("test"));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(tagRepository.findByLabel("test")).thenReturn(Optional.empty(), Optional.of(tag));
+        when(tagCreator.create("test")).thenThrow(new DataIntegrityViolationException("tags_label_key"));
+        when(noteRepository.save(any(Note.class))).thenAnswer(invocation -> {
+            Note saved = invocation.getArgument(0);
+            saved.setId(note.getId());
+            return saved;
+        });
+
+        noteService.createNote(userId, noteRequest);
+
+        ArgumentCaptor<Note> saved = ArgumentCaptor.forClass(Note.class);
+        verify(noteRepository).save(saved.capture());
+        assertEquals(Set.of(tag), saved.getValue().getTags());
+        verify(tagCreator).evictCached();
+    }
+}
@@ -0,0 +1,129 @@
+package com.notes.api.service;
+
+import com.notes.api.dto.note.NoteContentDescriptor;
+import com.notes.api.dto.note.NoteRequest;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.share.ShareRequest;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.User;
+import com.notes.api.exception.ResourceNotFoundException;
+import com.notes.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A note in the trash, against the migrated schema: gone from every read of
+ * its owner, of the user it is shared with and of public link visitors, and
+ * back with its share and public link once restored.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class NoteTrashTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID ownerId;
+    private UUID readerId;
+    private UUID noteId;
+    private String token;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void createSharedNote() {
+        ownerId = user().getId();
+        User reader = user();
+        readerId = reader.getId();
+
+        NoteRequest request = new NoteRequest();
+        request.setTitle("Corbeille");
+        request.setContentMd("# Dans la corbeille");
+        request.setVisibility(Note.Visibility.PRIVATE);
+        noteId = UUID.fromString(noteService.createNote(ownerId, request).getId());
+
+        ShareRequest share = new ShareRequest();
+        share.setEmail(reader.getEmail());
+        shareService.shareWithUser(ownerId, noteId, share);
+        token = shareService.createPublicLink(ownerId, noteId).getUrlToken();
+    }
+
+    @Test
+    void deleteNote_GoneFromEveryRead() {
+        NoteContentDescriptor content = noteService.getNoteContentDescriptor(ownerId, noteId);
+
+        noteService.deleteNote(ownerId, noteId);
+
+        assertFalse(searchIds(ownerId).contains(noteId.toString()));
+        assertFalse(searchIds(readerId).contains(noteId.toString()));
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteById(ownerId, noteId));
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteById(readerId, noteId));
+        assertThrows(ResourceNotFoundException.class, () -> shareService.getNoteByPublicToken(token));
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteContentDescriptor(readerId, noteId));
+        // A stream whose descriptor was taken before the deletion
+        assertThrows(ResourceNotFoundException.class, () ->
+                noteService.streamNoteContent(content, 0, content.getContentLength(), new ByteArrayOutputStream()));
+        assertEquals(List.of(noteId.toString()), noteService.getTrash(ownerId, PageRequest.of(0, 20))
+                .map(NoteResponse::getId).getContent());
+    }
+
+    @Test
+    void restoreNote_BackWithShareAndPublicLink() {
+        noteService.deleteNote(ownerId, noteId);
+
+        noteService.restoreNote(ownerId, noteId);
+
+        assertTrue(searchIds(ownerId).contains(noteId.toString()));
+        assertTrue(searchIds(readerId).contains(noteId.toString()));
+        assertEquals("Corbeille", noteService.getNoteById(readerId, noteId).getTitle());
+        assertEquals(1, shareService.getSharedUsersCount(ownerId, noteId));
+        assertEquals(noteId.toString(), shareService.getNoteByPublicToken(token).getId());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NoteContentDescriptor content = noteService.getNoteContentDescriptor(readerId, noteId);
+        noteService.streamNoteContent(content, 0, content.getContentLength(), out);
+        assertEquals("# Dans la corbeille", out.toString(StandardCharsets.UTF_8));
+        assertTrue(noteService.getTrash(ownerId, PageRequest.of(0, 20)).isEmpty());
+    }
+
+    private List<String> searchIds(UUID userId) {
+        return noteService.searchNotes(userId, null, null, null, PageRequest.of(0, 20))
+                .map(NoteResponse::getId)
+                .getContent();
+    }
+
+    private User user() {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+    }
+}
@@ -0,0 +1,118 @@
+package com.notes.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.Note;
+import com.notes.api.event.NoteChangedEvent;
+import com.notes.api.event.OutboxConsumer;
+import com.notes.api.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final UUID noteA = UUID.randomUUID();
+    private final UUID noteB = UUID.randomUUID();
+
+    private OutboxRepository outboxRepository;
+    private PlatformTransactionManager transactionManager;
+    private List<Long> handled;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        when(outboxRepository.tryLockDispatcher()).thenReturn(true);
+        when(outboxRepository.backlog()).thenReturn(new OutboxRepository.Backlog(0, 0, 0));
+
+        handled = new ArrayList<>();
+        OutboxConsumer consumer = message -> {
+            if (message.id() == 1L) {
+                throw new IllegalStateException("index unavailable");
+            }
+            handled.add(message.id());
+        };
+        ObjectProvider<OutboxConsumer> consumers = mock(ObjectProvider.class);
+        when(consumers.orderedStream()).thenReturn(Stream.of(consumer));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        dispatcher = new OutboxDispatcher(outboxRepository, consumers, objectMapper,
+                transactionManager, new SimpleMeterRegistry(),
+                new ShardedQueries(new ShardResolver(1), null, 1, 0), 10, 3, 1000, 60000, 30000);
+    }
+
+    @Test
+    void dispatch_FailedEventHoldsBackLaterEventsOfSameNoteOnly() throws Exception {
+        when(outboxRepository.findDeliverable(10)).thenReturn(List.of(
+                pending(1L, noteA, 0),
+                pending(2L, noteB, 0),
+                pending(3L, noteA, 0)));
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(2L), handled);
+        verify(outboxRepository).delete(List.of(2L));
+        verify(outboxRepository).markFailed(eq(1L), contains("index unavailable"), eq(1000L), eq(false));
+        verify(outboxRepository).release(List.of(3L));
+    }
+
+    @Test
+    void dispatch_ClaimCommittedBeforeConsumersRun() throws Exception {
+        when(outboxRepository.findDeliverable(10)).thenReturn(List.of(pending(2L, noteB, 0)));
+        InOrder inOrder = inOrder(outboxRepository, transactionManager);
+
+        dispatcher.dispatch();
+
+        inOrder.verify(outboxRepository).tryLockDispatcher();
+        inOrder.verify(outboxRepository).lease(List.of(2L), 30000);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(outboxRepository).delete(List.of(2L));
+        assertEquals(List.of(2L), handled);
+    }
+
+    @Test
+    void dispatch_LockHeldElsewhere_NothingClaimed() {
+        when(outboxRepository.tryLockDispatcher()).thenReturn(false);
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository, never()).findDeliverable(anyInt());
+        verify(outboxRepository, never()).delete(any());
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    void dispatch_LastAttemptSetsEventAside() throws Exception {
+        when(outboxRepository.findDeliverable(10)).thenReturn(List.of(pending(1L, noteA, 2)));
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository).markFailed(eq(1L), anyString(), eq(4000L), eq(true));
+        verify(outboxRepository).delete(List.of());
+    }
+
+    private OutboxRepository.PendingEvent pending(long id, UUID noteId, int attempts) throws Exception {
+        NoteChangedEvent event = new NoteChangedEvent(noteId, UUID.randomUUID(), NoteChangedEvent.Type.UPDATED,
+                Note.Visibility.PRIVATE, Note.Visibility.PRIVATE, LocalDateTime.now(), Set.of(), Set.of(), Set.of());
+        return new OutboxRepository.PendingEvent(id, noteId, objectMapper.writeValueAsString(event),
+                LocalDateTime.now(), attempts);
+    }
+}
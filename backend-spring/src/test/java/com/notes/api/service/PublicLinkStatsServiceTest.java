@@ -0,0 +1,144 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.repository.PublicLinkRepository;
+import com.notes.api.repository.PublicLinkStatsRepository;
+import com.notes.api.repository.PublicLinkStatsRepository.Stats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class PublicLinkStatsServiceTest {
+
+    private static final String TOKEN = "token-a";
+
+    private final UUID ownerId = UUID.randomUUID();
+
+    private PublicLinkStatsRepository statsRepository;
+    private TaskScheduler taskScheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private PublicLinkStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsRepository = mock(PublicLinkStatsRepository.class);
+        taskScheduler = mock(TaskScheduler.class);
+        meterRegistry = new SimpleMeterRegistry();
+        statsService = new PublicLinkStatsService(mock(PublicLinkRepository.class), statsRepository,
+                new ShardResolver(1), taskScheduler, mock(PlatformTransactionManager.class), meterRegistry, 2, 500);
+        when(statsRepository.lockByTokens(anyCollection())).thenAnswer(invocation -> storedStats(invocation.getArgument(0)));
+    }
+
+    @Test
+    void flush_BatchFails_ViewsWrittenByNextFlush() {
+        statsService.recordView(TOKEN, ownerId, "visitor-1");
+        statsService.recordView(TOKEN, ownerId, "visitor-2");
+        when(statsRepository.lockByTokens(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenAnswer(invocation -> storedStats(invocation.getArgument(0)));
+
+        statsService.flush();
+        verify(statsRepository, never()).update(any());
+        statsService.recordView(TOKEN, ownerId, "visitor-3");
+        statsService.flush();
+
+        assertEquals(13, writtenViews());
+    }
+
+    @Test
+    void flush_LinkIdleForAnInterval_Evicted() {
+        statsService.recordView(TOKEN, ownerId, "visitor-1");
+
+        statsService.flush();
+        assertEquals(1, pendingLinks());
+        statsService.flush();
+
+        assertEquals(0, pendingLinks());
+        verify(statsRepository, times(1)).lockByTokens(anyCollection());
+    }
+
+    @Test
+    void recordView_EntryEvictedWhileRecording_ViewKept() {
+        statsService.recordView(TOKEN, ownerId, "visitor-1");
+        statsService.flush();
+        // A flush evicts the idle entry right after recordView has fetched it
+        Map<String, Object> pending = new ConcurrentHashMap<>() {
+            boolean evictOnGet = true;
+
+            @Override
+            public Object get(Object key) {
+                Object entry = super.get(key);
+                if (evictOnGet) {
+                    evictOnGet = false;
+                    super.remove(key);
+                }
+                return entry;
+            }
+        };
+        @SuppressWarnings("unchecked")
+        Map<String, Object> current = (Map<String, Object>) ReflectionTestUtils.getField(statsService, "pending");
+        pending.putAll(current);
+        ReflectionTestUtils.setField(statsService, "pending", pending);
+
+        statsService.recordView(TOKEN, ownerId, "visitor-2");
+        statsService.flush();
+
+        verify(statsRepository, times(2)).update(any());
+        assertEquals(11, writtenViews());
+    }
+
+    @Test
+    void recordView_TooManyLinks_OneEarlyFlushAtATime() {
+        statsService.recordView("a", ownerId, "visitor");
+        statsService.recordView("b", ownerId, "visitor");
+        statsService.recordView("c", ownerId, "visitor");
+        statsService.recordView("d", ownerId, "visitor");
+        ArgumentCaptor<Runnable> earlyFlush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(earlyFlush.capture(), any(Instant.class));
+
+        earlyFlush.getValue().run();
+        statsService.recordView("e", ownerId, "visitor");
+
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+        assertEquals(3, meterRegistry.get("notes.public_links.views.dropped").counter().count());
+    }
+
+    /**
+     * 10 views stored for every token.
+     */
+    private static List<Stats> storedStats(Collection<String> tokens) {
+        return tokens.stream()
+                .map(token -> new Stats(UUID.nameUUIDFromBytes(token.getBytes()), token, 10, null, null))
+                .toList();
+    }
+
+    private long writtenViews() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Stats>> updates = ArgumentCaptor.forClass(List.class);
+        verify(statsRepository, atLeastOnce()).update(updates.capture());
+        List<Stats> last = updates.getValue();
+        assertEquals(1, last.size());
+        return last.get(0).views();
+    }
+
+    private double pendingLinks() {
+        return meterRegistry.get("notes.public_links.stats.pending").gauge().value();
+    }
+}
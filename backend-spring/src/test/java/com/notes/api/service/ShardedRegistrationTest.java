@@ -0,0 +1,105 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.dto.auth.AuthResponse;
+import com.notes.api.dto.auth.LoginRequest;
+import com.notes.api.dto.auth.RegisterRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registration and login with users spread over two real PostgreSQL
+ * databases: each user row must land on the shard of its id, where login
+ * and refresh look it up.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class ShardedRegistrationTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD_0 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> SHARD_1 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ShardResolver shardResolver;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SHARD_0::getJdbcUrl);
+        registry.add("spring.datasource.username", SHARD_0::getUsername);
+        registry.add("spring.datasource.password", SHARD_0::getPassword);
+        registry.add("notes.datasource.shards.enabled", () -> "true");
+        registry.add("notes.datasource.shards.urls", () -> SHARD_0.getJdbcUrl() + "," + SHARD_1.getJdbcUrl());
+    }
+
+    @AfterEach
+    void clear() {
+        ShardContext.clear();
+    }
+
+    @Test
+    void register_UsersOnBothShards_StoredOnTheirShardAndLogIn() {
+        // The shard follows from the generated id: register until both shards have a user
+        Map<Integer, AuthResponse> registered = new HashMap<>();
+        for (int i = 0; i < 64 && registered.size() < 2; i++) {
+            RegisterRequest request = new RegisterRequest();
+            request.setEmail(UUID.randomUUID() + "@example.com");
+            request.setPassword(PASSWORD);
+            AuthResponse response = authService.register(request);
+            ShardContext.clear();
+            registered.putIfAbsent(shardResolver.shardOf(UUID.fromString(response.getUser().getId())), response);
+        }
+        assertEquals(2, registered.size());
+
+        List<JdbcTemplate> shards = List.of(direct(SHARD_0), direct(SHARD_1));
+        registered.forEach((shard, response) -> {
+            UUID userId = UUID.fromString(response.getUser().getId());
+            assertEquals(1, count(shards.get(shard), userId));
+            assertEquals(0, count(shards.get(1 - shard), userId));
+
+            LoginRequest login = new LoginRequest();
+            login.setEmail(response.getUser().getEmail());
+            login.setPassword(PASSWORD);
+            AuthResponse loggedIn = authService.login(login);
+            ShardContext.clear();
+            assertEquals(response.getUser().getId(), loggedIn.getUser().getId());
+
+            AuthResponse refreshed = authService.refresh(loggedIn.getRefreshToken());
+            ShardContext.clear();
+            assertEquals(response.getUser().getId(), refreshed.getUser().getId());
+        });
+    }
+
+    private static JdbcTemplate direct(PostgreSQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+
+    private static int count(JdbcTemplate jdbc, UUID userId) {
+        return jdbc.queryForObject("SELECT count(*) FROM users WHERE id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,143 @@
+package com.notes.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void load_ConcurrentCallersSameKey_SingleLoad() throws Exception {
+        SingleFlight singleFlight = singleFlight(5000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.load("note", "key", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("value", result.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("notes.singleflight.loads").counter().count());
+    }
+
+    @Test
+    void load_LoadFails_EveryCallerGetsTheError() throws Exception {
+        SingleFlight singleFlight = singleFlight(5000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.<String>load("note", "key", () -> {
+            await(release);
+            throw new IllegalStateException("gone");
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void load_LoadTooSlow_WaiterTimesOut() throws Exception {
+        SingleFlight singleFlight = singleFlight(50);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("note", "key", () -> {
+            await(release);
+            return "value";
+        }));
+        while (meterRegistry.find("notes.singleflight.loads").counter() == null
+                || meterRegistry.get("notes.singleflight.loads").counter().count() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(QueryTimeoutException.class, () -> singleFlight.load("note", "key", () -> "other"));
+        release.countDown();
+        assertEquals("value", leader.get());
+        assertEquals(1, meterRegistry.get("notes.singleflight.timeouts").counter().count());
+    }
+
+    @Test
+    void load_AfterCompletion_LoadsAgain() {
+        SingleFlight singleFlight = singleFlight(5000);
+
+        assertEquals("first", singleFlight.load("note", "key", () -> "first"));
+        assertEquals("second", singleFlight.load("note", "key", () -> "second"));
+    }
+
+    @Test
+    void load_DifferentFlightsSameKey_NotShared() {
+        SingleFlight singleFlight = singleFlight(5000);
+
+        String outer = singleFlight.load("note", "key", () -> singleFlight.load("public-link", "key", () -> "inner"));
+
+        assertEquals("inner", outer);
+    }
+
+    private SingleFlight singleFlight(long timeoutMillis) {
+        return new SingleFlight(mock(PlatformTransactionManager.class), meterRegistry, timeoutMillis);
+    }
+
+    private List<Future<String>> callConcurrently(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(int callers) {
+        while (meterRegistry.find("notes.singleflight.coalesced").counter() == null
+                || meterRegistry.get("notes.singleflight.coalesced").counter().count() < callers) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
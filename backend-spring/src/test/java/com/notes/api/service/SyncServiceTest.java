@@ -0,0 +1,208 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardContext;
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.dto.note.NoteResponse;
+import com.notes.api.dto.sync.SyncResponse;
+import com.notes.api.entity.Note;
+import com.notes.api.entity.User;
+import com.notes.api.event.NoteChangedEvent.Kind;
+import com.notes.api.exception.BadRequestException;
+import com.notes.api.repository.NoteChangeRepository;
+import com.notes.api.repository.NoteChangeRepository.Change;
+import com.notes.api.repository.NoteChangeRepository.Cursor;
+import com.notes.api.repository.NoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private NoteChangeRepository changeRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteService noteService;
+
+    @Spy
+    private ShardedQueries shardedQueries = new ShardedQueries(new ShardResolver(1), null, 1, 0);
+
+    @Spy
+    private ShardResolver shardResolver = new ShardResolver(1);
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private UUID userId;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        user = User.builder().id(userId).email("test@example.com").passwordHash("hash").build();
+    }
+
+    @Test
+    void sync_NoCursor_ResetWithCurrentCursor() {
+        when(changeRepository.currentCursor()).thenReturn(cursor(41, Long.MAX_VALUE));
+
+        SyncResponse response = syncService.sync(userId, null, 500);
+
+        assertTrue(response.isResetRequired());
+        assertEquals("41-" + Long.MAX_VALUE, response.getCursor());
+        verify(changeRepository, never()).findAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    void sync_InvalidCursor_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> syncService.sync(userId, "not-a-cursor", 500));
+        assertThrows(BadRequestException.class, () -> syncService.sync(userId, "12", 500));
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    void sync_NoChanges_KeepsCursor() {
+        when(changeRepository.purgedUpTo()).thenReturn(Cursor.START);
+        when(changeRepository.findAfter(userId, cursor(10, 3), 500)).thenReturn(List.of());
+
+        SyncResponse response = syncService.sync(userId, "10-3", 500);
+
+        assertEquals("10-3", response.getCursor());
+        assertFalse(response.isHasMore());
+        assertTrue(response.getUpserts().isEmpty());
+        assertTrue(response.getTombstones().isEmpty());
+    }
+
+    @Test
+    void sync_Changes_LatestPerNoteAndCursorOfLastChange() {
+        Note note = note();
+        UUID deletedId = UUID.randomUUID();
+        NoteResponse mapped = NoteResponse.builder().id(note.getId().toString()).build();
+        when(changeRepository.purgedUpTo()).thenReturn(Cursor.START);
+        when(changeRepository.findAfter(userId, cursor(10, 3), 3)).thenReturn(List.of(
+                new Change(cursor(11, 4), note.getId(), Kind.CREATED),
+                new Change(cursor(11, 5), deletedId, Kind.UPDATED),
+                new Change(cursor(12, 6), deletedId, Kind.DELETED)));
+        when(noteRepository.findAllById(List.of(note.getId()))).thenReturn(List.of(note));
+        when(noteService.canAccessNote(userId, note)).thenReturn(true);
+        when(noteService.mapToResponse(note)).thenReturn(mapped);
+
+        SyncResponse response = syncService.sync(userId, "10-3", 3);
+
+        assertEquals("12-6", response.getCursor());
+        assertTrue(response.isHasMore());
+        assertEquals(List.of(mapped), response.getUpserts());
+        assertEquals(1, response.getTombstones().size());
+        assertEquals(deletedId.toString(), response.getTombstones().get(0).getNoteId());
+        assertEquals(Kind.DELETED, response.getTombstones().get(0).getReason());
+    }
+
+    @Test
+    void sync_UpdatedNoteGoneOrInaccessible_Tombstones() {
+        Note revoked = note();
+        UUID goneId = UUID.randomUUID();
+        when(changeRepository.purgedUpTo()).thenReturn(Cursor.START);
+        when(changeRepository.findAfter(eq(userId), any(), anyInt())).thenReturn(List.of(
+                new Change(cursor(11, 1), goneId, Kind.UPDATED),
+                new Change(cursor(11, 2), revoked.getId(), Kind.ACCESS_GRANTED)));
+        when(noteRepository.findAllById(List.of(goneId, revoked.getId()))).thenReturn(List.of(revoked));
+        when(noteService.canAccessNote(userId, revoked)).thenReturn(false);
+
+        SyncResponse response = syncService.sync(userId, "10-0", 500);
+
+        assertTrue(response.getUpserts().isEmpty());
+        assertEquals(List.of(
+                SyncResponse.Tombstone.builder().noteId(goneId.toString()).reason(Kind.DELETED).build(),
+                SyncResponse.Tombstone.builder().noteId(revoked.getId().toString()).reason(Kind.ACCESS_REVOKED).build()),
+                response.getTombstones());
+    }
+
+    @Test
+    void sync_CursorBeforePurge_ResetRequired() {
+        when(changeRepository.purgedUpTo()).thenReturn(cursor(20, 7));
+        when(changeRepository.currentCursor()).thenReturn(cursor(99, Long.MAX_VALUE));
+
+        SyncResponse response = syncService.sync(userId, "20-6", 500);
+
+        assertTrue(response.isResetRequired());
+        assertEquals("99-" + Long.MAX_VALUE, response.getCursor());
+        verify(changeRepository, never()).findAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    void sync_TwoShards_EachShardFromItsOwnPosition() {
+        Note shared = note();
+        NoteResponse mapped = NoteResponse.builder().id(shared.getId().toString()).build();
+        AtomicReference<Integer> loadedOn = new AtomicReference<>();
+        when(changeRepository.purgedUpTo()).thenReturn(Cursor.START);
+        when(changeRepository.findAfter(userId, cursor(10, 3), 250)).thenReturn(List.of());
+        when(changeRepository.findAfter(userId, cursor(20, 5), 250)).thenReturn(List.of(
+                new Change(cursor(21, 1), shared.getId(), Kind.ACCESS_GRANTED)));
+        when(noteRepository.findAllById(List.of(shared.getId()))).thenAnswer(invocation -> {
+            loadedOn.set(ShardContext.current());
+            return List.of(shared);
+        });
+        when(noteService.canAccessNote(userId, shared)).thenReturn(true);
+        when(noteService.mapToResponse(shared)).thenReturn(mapped);
+
+        SyncResponse response = sharded().sync(userId, "10-3.20-5", 500);
+
+        assertEquals("10-3.21-1", response.getCursor());
+        assertFalse(response.isHasMore());
+        assertEquals(List.of(mapped), response.getUpserts());
+        assertEquals(1, loadedOn.get());
+    }
+
+    @Test
+    void sync_SinglePositionWithTwoShards_ResetRequired() {
+        when(changeRepository.currentCursor())
+                .thenAnswer(invocation -> cursor(40 + ShardContext.current(), Long.MAX_VALUE));
+
+        SyncResponse response = sharded().sync(userId, "10-3", 500);
+
+        assertTrue(response.isResetRequired());
+        assertEquals("40-" + Long.MAX_VALUE + ".41-" + Long.MAX_VALUE, response.getCursor());
+        verify(changeRepository, never()).findAfter(any(), any(), anyInt());
+    }
+
+    private SyncService sharded() {
+        ShardResolver resolver = new ShardResolver(2);
+        ShardedQueries queries = new ShardedQueries(resolver, mock(PlatformTransactionManager.class), 2, 5000);
+        return new SyncService(changeRepository, noteRepository, noteService, queries, resolver);
+    }
+
+    private Note note() {
+        return Note.builder()
+                .id(UUID.randomUUID())
+                .owner(user)
+                .title("Note")
+                .contentMd("content")
+                .visibility(Note.Visibility.SHARED)
+                .build();
+    }
+
+    private static Cursor cursor(long txid, long seq) {
+        return new Cursor(BigInteger.valueOf(txid), seq);
+    }
+}
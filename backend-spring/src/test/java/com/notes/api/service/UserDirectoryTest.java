@@ -0,0 +1,62 @@
+package com.notes.api.service;
+
+import com.notes.api.datasource.ShardResolver;
+import com.notes.api.datasource.ShardedQueries;
+import com.notes.api.entity.User;
+import com.notes.api.repository.EmailDirectoryRepository;
+import com.notes.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserDirectoryTest {
+
+    private EmailDirectoryRepository emailDirectory;
+    private UserRepository userRepository;
+    private UserDirectory userDirectory;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        emailDirectory = mock(EmailDirectoryRepository.class);
+        userRepository = mock(UserRepository.class);
+        userDirectory = new UserDirectory(emailDirectory, userRepository,
+                new ShardedQueries(new ShardResolver(1), null, 1, 0), new ShardResolver(1));
+        user = User.builder().id(UUID.randomUUID()).email("test@example.com").passwordHash("hash").build();
+    }
+
+    @Test
+    void findByEmail_InDirectory_LoadsById() {
+        when(emailDirectory.findUserId("test@example.com")).thenReturn(Optional.of(user.getId()));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), userDirectory.findByEmail("test@example.com"));
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(emailDirectory, never()).backfill(anyString(), any());
+    }
+
+    @Test
+    void findByEmail_UserOlderThanDirectory_SearchedThenRecorded() {
+        when(emailDirectory.findUserId("test@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), userDirectory.findByEmail("test@example.com"));
+        verify(emailDirectory).backfill("test@example.com", user.getId());
+    }
+
+    @Test
+    void findByEmail_Unknown_Empty() {
+        when(emailDirectory.findUserId("nobody@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(userDirectory.findByEmail("nobody@example.com").isEmpty());
+        verify(emailDirectory, never()).backfill(anyString(), any());
+    }
+}
@@ -0,0 +1,60 @@
+package com.notes.api.support;
+
+import com.notes.api.monitoring.SqlStatistics;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * SQL budget assertions for integration tests.
+ *
+ * <pre>
+ * SqlAssertions.reset();
+ * mockMvc.perform(get("/api/v1/notes"));
+ * SqlAssertions.assertMaxQueries(3);
+ * </pre>
+ *
+ * Requests performed with MockMvc run on the test thread and are accounted here.
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    public static void reset() {
+        SqlStatistics.start();
+    }
+
+    public static void assertMaxQueries(int max) {
+        SqlStatistics statistics = current();
+        if (statistics.getStatements() > max) {
+            fail(String.format("Expected at most %d SQL statement(s), got %d:%n%s",
+                    max, statistics.getStatements(), describe(statistics)));
+        }
+    }
+
+    public static void assertNoRepeatedQueries(int threshold) {
+        SqlStatistics statistics = current();
+        if (!statistics.getRepeatedStatements(threshold).isEmpty()) {
+            fail(String.format("Statements executed %d time(s) or more (N+1):%n%s",
+                    threshold, describe(statistics)));
+        }
+    }
+
+    private static SqlStatistics current() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics == null) {
+            fail("SQL accounting not started: call SqlAssertions.reset() first");
+        }
+        return statistics;
+    }
+
+    private static String describe(SqlStatistics statistics) {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : statistics.getExecutionsBySql().entrySet()) {
+            description.append("  ").append(entry.getValue()).append("x ").append(entry.getKey()).append('\n');
+        }
+        return description.toString();
+    }
+}
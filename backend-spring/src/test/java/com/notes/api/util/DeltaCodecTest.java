@@ -0,0 +1,42 @@
+package com.notes.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaCodecTest {
+
+    @Test
+    void encodeThenApply_RebuildsTarget() {
+        byte[] source = "# Notes\n\nPremière version de la note.\n\n- point A\n- point B\n".getBytes(StandardCharsets.UTF_8);
+        byte[] target = "# Notes\n\nDeuxième version de la note.\n\n- point A\n- point C\n- point D\n".getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = DeltaCodec.encode(source, target);
+
+        assertArrayEquals(target, DeltaCodec.apply(source, delta));
+    }
+
+    @Test
+    void encode_SmallEditInLargeContent_ProducesSmallDelta() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("Ligne ").append(i).append(" du document\n");
+        }
+        byte[] source = builder.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] target = builder.insert(40000, "Une ligne ajoutée\n").toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = DeltaCodec.encode(source, target);
+
+        assertArrayEquals(target, DeltaCodec.apply(source, delta));
+        assertTrue(delta.length < 100, "delta should grow with the edit, not the note: " + delta.length);
+    }
+
+    @Test
+    void deflateThenInflate_RoundTrips() {
+        byte[] content = "contenu ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(content, DeltaCodec.inflate(DeltaCodec.deflate(content)));
+    }
+}
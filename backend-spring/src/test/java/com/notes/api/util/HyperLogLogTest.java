@@ -0,0 +1,55 @@
+package com.notes.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_RepeatedVisitors_CountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer(HyperLogLog.hash("10.0.0." + (i % 10) + "|Mozilla/5.0"));
+        }
+
+        assertEquals(10, sketch.estimate(), 1);
+    }
+
+    @Test
+    void estimate_ManyVisitors_WithinFivePercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.offer(HyperLogLog.hash("visitor-" + i));
+        }
+
+        assertEquals(100_000, sketch.estimate(), 5_000);
+    }
+
+    @Test
+    void merge_OverlappingSketches_EstimatesUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            first.offer(HyperLogLog.hash("visitor-" + i));
+            second.offer(HyperLogLog.hash("visitor-" + (i + 10_000)));
+        }
+
+        first.merge(second);
+        long once = first.estimate();
+        first.merge(second);
+
+        assertEquals(30_000, once, 1_500);
+        assertEquals(once, first.estimate());
+    }
+
+    @Test
+    void fromBytes_RoundTrip_SameEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.offer(HyperLogLog.hash("visitor-" + i));
+        }
+
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(sketch.toBytes()).estimate());
+    }
+}
@@ -0,0 +1,35 @@
+package com.notes.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void generate_SetsVersionVariantAndTimestamp() {
+        long now = 1_760_000_000_000L;
+
+        UUID uuid = UuidV7.generate(now);
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(now, UuidV7.timestamp(uuid));
+    }
+
+    @Test
+    void generate_LaterMillisecond_SortsAfterInPostgresOrder() {
+        UUID earlier = UuidV7.generate(1_760_000_000_000L);
+        UUID later = UuidV7.generate(1_760_000_000_001L);
+
+        // PostgreSQL compares the 16 bytes unsigned, which is the order of the canonical string
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+    }
+
+    @Test
+    void timestamp_RandomUuid_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+}
@@ -3,6 +3,7 @@ import { HttpService } from '@nestjs/axios';
 import { ConfigService } from '@nestjs/config';
 import { firstValueFrom } from 'rxjs';
 import { AxiosError } from 'axios';
+import { currentClientIp } from '../common/middleware/client-ip.middleware';
 
 @Injectable()
 export class BackendService {
@@ -15,6 +16,12 @@ export class BackendService {
     this.backendUrl = this.configService.get<string>('BACKEND_API_URL') || 'http://localhost:8080';
   }
 
+  // Le backend limite le débit par adresse client : il la lit dans X-Forwarded-For
+  private withClientIp(headers?: Record<string, string>): Record<string, string> {
+    const ip = currentClientIp();
+    return ip ? { ...headers, 'X-Forwarded-For': ip } : { ...headers };
+  }
+
   private handleError(error: AxiosError) {
     if (error.response) {
       throw new HttpException(
@@ -29,7 +36,7 @@ export class BackendService {
     try {
       const response = await firstValueFrom(
         this.httpService.post(`${this.backendUrl}${path}`, data, { 
-          headers: headers || {} 
+          headers: this.withClientIp(headers) 
         }),
       );
       return response.data;
@@ -43,7 +50,7 @@ export class BackendService {
     try {
       const response = await firstValueFrom(
         this.httpService.get(`${this.backendUrl}${path}`, { 
-          headers: headers || {},
+          headers: this.withClientIp(headers),
           params: params || {}
         }),
       );
@@ -58,7 +65,7 @@ export class BackendService {
     try {
       const response = await firstValueFrom(
         this.httpService.put(`${this.backendUrl}${path}`, data, { 
-          headers: headers || {} 
+          headers: this.withClientIp(headers) 
         }),
       );
       return response.data;
@@ -72,7 +79,7 @@ export class BackendService {
     try {
       const response = await firstValueFrom(
         this.httpService.delete(`${this.backendUrl}${path}`, { 
-          headers: headers || {} 
+          headers: this.withClientIp(headers) 
         }),
       );
       return response.data;
@@ -0,0 +1,18 @@
+import { AsyncLocalStorage } from 'async_hooks';
+import { NextFunction, Request, Response } from 'express';
+
+// Adresse du client de la requête en cours, transmise au backend en X-Forwarded-For
+const clientIpStorage = new AsyncLocalStorage<string>();
+
+export function clientIpMiddleware(req: Request, res: Response, next: NextFunction) {
+  // req.ip suit le réglage 'trust proxy' d'Express ; un X-Forwarded-For reçu n'est pas repris tel quel
+  const ip = req.ip || req.socket.remoteAddress;
+  if (!ip) {
+    return next();
+  }
+  clientIpStorage.run(ip, next);
+}
+
+export function currentClientIp(): string | undefined {
+  return clientIpStorage.getStore();
+}
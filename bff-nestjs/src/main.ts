@@ -2,10 +2,13 @@ import { NestFactory } from '@nestjs/core';
 import { ValidationPipe } from '@nestjs/common';
 import { SwaggerModule, DocumentBuilder } from '@nestjs/swagger';
 import { AppModule } from './app.module';
+import { clientIpMiddleware } from './common/middleware/client-ip.middleware';
 
 async function bootstrap() {
   const app = await NestFactory.create(AppModule);
 
+  app.use(clientIpMiddleware);
+
   app.enableCors({
     origin: [
       'http://localhost:3000',  // Frontend React dev